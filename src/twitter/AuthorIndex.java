@@ -0,0 +1,140 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * AuthorIndex is an immutable index of the authors of a list of tweets, for
+ * answering many Filter.writtenBy() queries over the same list. Each author,
+ * case-insensitively, maps to the positions in the list of the tweets they
+ * wrote, so a query costs time in proportion to the number of tweets it
+ * returns.
+ *
+ * The index is two int arrays, one entry per tweet and one per author, plus a
+ * UsernameDictionary of the authors.
+ */
+public class AuthorIndex {
+
+    private final List<Tweet> tweets;
+    private final UsernameDictionary authors;
+    private final int[] offsets;
+    private final int[] positions;
+    /* Abstraction function:
+     *    represents the index of tweets in which the author with id a in
+     *    authors wrote the tweets at positions[offsets[a] .. offsets[a+1])
+     * Rep invariant:
+     *    offsets.length == authors.size() + 1, offsets[0] == 0,
+     *    offsets is nondecreasing, offsets[authors.size()] == positions.length == tweets.size()
+     *    positions is a permutation of 0 .. tweets.size()-1, and is increasing
+     *    within each author's range
+     * Safety from rep exposure:
+     *    tweets is a private copy (or an immutable TweetStore); authors is
+     *    never returned; arrays are copied before being returned
+     */
+
+    private AuthorIndex(List<Tweet> tweets, UsernameDictionary authors, int[] offsets, int[] positions) {
+        this.tweets = tweets;
+        this.authors = authors;
+        this.offsets = offsets;
+        this.positions = positions;
+    }
+
+    /**
+     * Index a list of tweets.
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     *            The index keeps its own copy, so later changes to the list
+     *            do not affect it.
+     * @return an index of the authors of the tweets
+     */
+    public static AuthorIndex of(List<Tweet> tweets) {
+        return ofOwned(tweets instanceof TweetStore ? tweets : new ArrayList<>(tweets));
+    }
+
+    /*
+     * Index a list of tweets that no one else will change, and keep it.
+     */
+    static AuthorIndex ofOwned(List<Tweet> copy) {
+        UsernameDictionary authors = new UsernameDictionary();
+        int[] authorIds = Extract.getAuthorIds(copy, authors);
+
+        // counting sort of positions by author, which keeps each author's positions in order
+        int[] offsets = new int[authors.size() + 1];
+        for (int author : authorIds) {
+            offsets[author + 1]++;
+        }
+        for (int a = 0; a < authors.size(); a++) {
+            offsets[a + 1] += offsets[a];
+        }
+        int[] next = Arrays.copyOf(offsets, authors.size());
+        int[] positions = new int[authorIds.length];
+        for (int i = 0; i < authorIds.length; i++) {
+            positions[next[authorIds[i]]++] = i;
+        }
+        return new AuthorIndex(copy, authors, offsets, positions);
+    }
+
+    /**
+     * @return the number of tweets indexed
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return the number of distinct authors, case-insensitively
+     */
+    public int authorCount() {
+        return authors.size();
+    }
+
+    /**
+     * @param username
+     *            Twitter username, in any case
+     * @return the positions, in increasing order, of the tweets written by username
+     */
+    public int[] positionsWrittenBy(String username) {
+        int author = authors.find(username);
+        if (author < 0) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(positions, offsets[author], offsets[author + 1]);
+    }
+
+    /**
+     * @param username
+     *            Twitter username, in any case
+     * @return the number of tweets written by username
+     */
+    public int count(String username) {
+        int author = authors.find(username);
+        return author < 0 ? 0 : offsets[author + 1] - offsets[author];
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     *
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return the same list as Filter.writtenBy(tweets, username), where tweets
+     *         is the list this index was made from: all and only the tweets
+     *         whose author is username, in the same order as in that list
+     */
+    public List<Tweet> writtenBy(String username) {
+        int author = authors.find(username);
+        if (author < 0) {
+            return new ArrayList<>();
+        }
+        List<Tweet> result = new ArrayList<>(offsets[author + 1] - offsets[author]);
+        for (int i = offsets[author]; i < offsets[author + 1]; i++) {
+            result.add(tweets.get(positions[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,385 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * BlockSummary is an immutable summary of the words of a list of tweets, much
+ * smaller than a TweetIndex, that lets Filter.containing() queries skip most
+ * of the list. The list is split into blocks of a fixed number of tweets,
+ * and each block has a Bloom filter of the lowercase words of its texts. A
+ * query scans only the blocks whose filter may have one of its words: a block
+ * that has one is never skipped, and a block that has none is scanned anyway
+ * with about the false-positive rate chosen when the summary was made.
+ *
+ * A Bloom filter takes about 1.44 * log2(1 / rate) bits per distinct word of
+ * its block: under 10 bits at a rate of 1%. A summary can be written next to
+ * a TweetSnapshot of the same list, and read back to query the tweets the
+ * snapshot holds. Words are lower-cased in the default locale, as by
+ * Filter.containing(), so a summary should be read in a JVM with the same
+ * default locale as the one that made it.
+ */
+public class BlockSummary {
+
+    private static final int MAGIC = 0x54574246; // "TWBF"
+    private static final int VERSION = 1;
+
+    private final int size;
+    private final int blockSize;
+    private final int hashes;
+    private final int[] offsets;
+    private final long[] bits;
+    /* Abstraction function:
+     *    represents the summary of a list of size tweets in which block b,
+     *    the tweets at positions [b * blockSize, min((b+1) * blockSize, size)),
+     *    has the Bloom filter of bits bits[offsets[b] .. offsets[b+1]) (64 per
+     *    long, from the low bit up), each word setting hashes bits
+     * Rep invariant:
+     *    size >= 0, blockSize > 0, hashes > 0
+     *    offsets.length == ceil(size / blockSize) + 1, offsets[0] == 0,
+     *    offsets is nondecreasing, offsets[offsets.length - 1] == bits.length
+     *    every block with at least one word has at least one long of bits
+     * Safety from rep exposure:
+     *    all fields are private and final, and no array is returned
+     */
+
+    private BlockSummary(int size, int blockSize, int hashes, int[] offsets, long[] bits) {
+        this.size = size;
+        this.blockSize = blockSize;
+        this.hashes = hashes;
+        this.offsets = offsets;
+        this.bits = bits;
+    }
+
+    /**
+     * Summarize a list of tweets.
+     *
+     * @param tweets
+     *            list of tweets, not modified by this method
+     * @param blockSize
+     *            number of tweets in each block (but the last), positive
+     * @param falsePositiveRate
+     *            target probability that a block without any of the words of
+     *            a query is scanned anyway, 0 < falsePositiveRate < 1
+     * @return a summary of the words of the tweets
+     */
+    public static BlockSummary of(List<Tweet> tweets, int blockSize, double falsePositiveRate) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        int hashes = Math.max(1, (int) Math.round(-Math.log(falsePositiveRate) / Math.log(2)));
+        double bitsPerWord = hashes / Math.log(2);
+        int blocks = (tweets.size() + blockSize - 1) / blockSize;
+        int[] offsets = new int[blocks + 1];
+        List<long[]> filters = new ArrayList<>(blocks);
+
+        WordHasher hasher = new WordHasher();
+        TextAnalyzer analyzer = new TextAnalyzer().onWord(hasher);
+        int inBlock = 0;
+        for (CharSequence text : Extract.texts(tweets)) {
+            analyzer.analyze(text);
+            if (++inBlock == blockSize) {
+                filters.add(hasher.filter(hashes, bitsPerWord));
+                inBlock = 0;
+            }
+        }
+        if (inBlock > 0) {
+            filters.add(hasher.filter(hashes, bitsPerWord));
+        }
+
+        for (int b = 0; b < blocks; b++) {
+            offsets[b + 1] = offsets[b] + filters.get(b).length;
+        }
+        long[] bits = new long[offsets[blocks]];
+        for (int b = 0; b < blocks; b++) {
+            System.arraycopy(filters.get(b), 0, bits, offsets[b], filters.get(b).length);
+        }
+        return new BlockSummary(tweets.size(), blockSize, hashes, offsets, bits);
+    }
+
+    /*
+     * Collects the hashes of the words of one block after another.
+     */
+    private static class WordHasher implements TextAnalyzer.TokenConsumer {
+        private final boolean localeFolds = WordSet.localeFolds(Locale.getDefault());
+        private long[] blockHashes = new long[64];
+        private int count = 0;
+
+        @Override public void accept(CharSequence text, int start, int end) {
+            if (count == blockHashes.length) {
+                blockHashes = Arrays.copyOf(blockHashes, count * 2);
+            }
+            blockHashes[count++] = hashWord(text, start, end, localeFolds);
+        }
+
+        /*
+         * @return the Bloom filter of the distinct words since the last
+         *         block, and start the next block
+         */
+        long[] filter(int hashes, double bitsPerWord) {
+            Arrays.sort(blockHashes, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || blockHashes[i] != blockHashes[distinct - 1]) {
+                    blockHashes[distinct++] = blockHashes[i];
+                }
+            }
+            long[] filter = new long[(int) Math.ceil(distinct * bitsPerWord / 64)];
+            for (int i = 0; i < distinct; i++) {
+                long bitCount = filter.length * 64L;
+                long h1 = blockHashes[i] & 0xFFFFFFFFL;
+                long h2 = (blockHashes[i] >>> 32) | 1;
+                for (int k = 0; k < hashes; k++) {
+                    long bit = (h1 + k * h2) % bitCount;
+                    filter[(int) (bit >>> 6)] |= 1L << bit;
+                }
+            }
+            count = 0;
+            return filter;
+        }
+    }
+
+    /*
+     * @return a well-mixed 64-bit hash of text[start..end) lower-cased as by
+     *         String.toLowerCase() in the default locale, where localeFolds
+     *         is WordSet.localeFolds() of that locale
+     */
+    private static long hashWord(CharSequence text, int start, int end, boolean localeFolds) {
+        if (localeFolds || !WordSet.foldsByChar(text, start, end)) {
+            String lowered = text.subSequence(start, end).toString().toLowerCase();
+            return hashChars(lowered, 0, lowered.length(), false);
+        }
+        return hashChars(text, start, end, true);
+    }
+
+    /*
+     * FNV-1a over the chars, lower-cased char by char if fold is true, then
+     * the MurmurHash3 finalizer, as in HyperLogLog.
+     */
+    private static long hashChars(CharSequence text, int start, int end, boolean fold) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            hash = (hash ^ (fold ? WordSet.fold(c) : c)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * @return the number of tweets summarized
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of tweets in each block but the last
+     */
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /**
+     * @return the number of blocks
+     */
+    public int blockCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the number of bytes of Bloom filter bits in this summary
+     */
+    public long filterBytes() {
+        return bits.length * 8L;
+    }
+
+    /**
+     * @param block
+     *            a block, 0 <= block < blockCount()
+     * @param word
+     *            a word, in any case
+     * @return false if no tweet in block has word (compared as by
+     *         Filter.containing()); true if some tweet might
+     */
+    public boolean mightContain(int block, String word) {
+        if (block < 0 || block >= blockCount()) {
+            throw new IndexOutOfBoundsException("block " + block + " of " + blockCount());
+        }
+        String lowered = word.toLowerCase();
+        return mightContain(block, hashChars(lowered, 0, lowered.length(), false));
+    }
+
+    private boolean mightContain(int block, long hash) {
+        int start = offsets[block];
+        long bitCount = (offsets[block + 1] - start) * 64L;
+        if (bitCount == 0) {
+            return false;
+        }
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = (hash >>> 32) | 1;
+        for (int k = 0; k < hashes; k++) {
+            long bit = (h1 + k * h2) % bitCount;
+            if ((bits[start + (int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param words
+     *            a list of words, as for Filter.containing()
+     * @return the set of blocks that might have a tweet containing at least
+     *         one of the words; it includes every block that has one
+     */
+    public BitSet candidateBlocks(List<String> words) {
+        long[] wordHashes = new long[words.size()];
+        for (int i = 0; i < wordHashes.length; i++) {
+            String lowered = words.get(i).toLowerCase();
+            wordHashes[i] = hashChars(lowered, 0, lowered.length(), false);
+        }
+        BitSet candidates = new BitSet(blockCount());
+        for (int block = 0; block < blockCount(); block++) {
+            for (long hash : wordHashes) {
+                if (mightContain(block, hash)) {
+                    candidates.set(block);
+                    break;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Find tweets that contain certain words, scanning only the blocks that
+     * might have them.
+     *
+     * @param tweets
+     *            the list of tweets this summary was made from (or an equal
+     *            list, such as one read back from a snapshot of it), not
+     *            modified by this method
+     * @param words
+     *            a list of words to search for in the tweets, as for
+     *            Filter.containing()
+     * @return the same list as Filter.containing(tweets, words)
+     * @throws IllegalArgumentException if tweets is not the size this summary
+     *                                  was made for
+     */
+    public List<Tweet> containing(List<Tweet> tweets, List<String> words) {
+        if (tweets.size() != size) {
+            throw new IllegalArgumentException("summary of " + size + " tweets used for " + tweets.size());
+        }
+        List<Tweet> result = new ArrayList<>();
+        if (words.isEmpty()) {
+            return result;
+        }
+        BitSet candidates = candidateBlocks(words);
+        TextAnalyzer analyzer = new TextAnalyzer();
+        Filter.WordMatch match = new Filter.WordMatch(words).stopping(analyzer);
+        analyzer.onWord(match);
+        TweetStore store = tweets instanceof TweetStore ? (TweetStore) tweets : null;
+        for (int block = candidates.nextSetBit(0); block >= 0; block = candidates.nextSetBit(block + 1)) {
+            int end = Math.min(size, (block + 1) * blockSize);
+            for (int i = block * blockSize; i < end; i++) {
+                match.reset();
+                // scan a stored text in place, and only make a Tweet for a match
+                analyzer.analyze(store != null ? store.textView(i) : tweets.get(i).getText());
+                if (match.matched()) {
+                    result.add(tweets.get(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param snapshot
+     *            path of a TweetSnapshot file
+     * @return the path at which to keep the summary of the snapshot's tweets:
+     *         the snapshot's path with ".blocks" appended
+     */
+    public static Path pathFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".blocks");
+    }
+
+    /**
+     * Write this summary in a compact binary form.
+     *
+     * @param out
+     *            stream to write to; not closed
+     * @throws IOException if out cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(size);
+        data.writeInt(blockSize);
+        data.writeInt(hashes);
+        for (int offset : offsets) {
+            data.writeInt(offset);
+        }
+        for (long word : bits) {
+            data.writeLong(word);
+        }
+        data.flush();
+    }
+
+    /**
+     * Read a summary written by writeTo().
+     *
+     * @param in
+     *            stream to read from; not closed
+     * @return the summary
+     * @throws IOException if in cannot be read or does not hold a summary
+     */
+    public static BlockSummary readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        try {
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                throw new IOException("not a block summary, or an unsupported version");
+            }
+            int size = data.readInt();
+            int blockSize = data.readInt();
+            int hashes = data.readInt();
+            if (size < 0 || blockSize <= 0 || hashes <= 0) {
+                throw new IOException("not a block summary: bad header");
+            }
+            int[] offsets = new int[(int) ((size + (long) blockSize - 1) / blockSize) + 1];
+            for (int b = 0; b < offsets.length; b++) {
+                offsets[b] = data.readInt();
+                if (b == 0 ? offsets[b] != 0 : offsets[b] < offsets[b - 1]) {
+                    throw new IOException("not a block summary: bad block offset " + offsets[b]);
+                }
+            }
+            long[] bits = new long[offsets[offsets.length - 1]];
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = data.readLong();
+            }
+            return new BlockSummary(size, blockSize, hashes, offsets, bits);
+        } catch (EOFException e) {
+            throw new IOException("not a block summary: truncated", e);
+        }
+    }
+}
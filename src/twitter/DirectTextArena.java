@@ -0,0 +1,334 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * DirectTextArena is a TextArena that keeps its texts outside the Java heap,
+ * UTF-8 encoded in direct ByteBuffers or in pages of a memory-mapped file.
+ * The heap only holds a few numbers per text, so the garbage collector never
+ * has to trace or copy the texts themselves.
+ *
+ * Views read UTF-8 in place. A text that is pure ASCII is read by index; any
+ * other text is decoded from a cursor that moves forward with each charAt(),
+ * so a left-to-right scan costs the same as a scan of a String. The cursor
+ * records a checkpoint every 64 chars it passes, so moving it backwards only
+ * re-decodes from the nearest checkpoint rather than from the start.
+ *
+ * Each char is encoded on its own, except that a surrogate pair becomes one
+ * 4-byte sequence; so an unpaired surrogate survives as a 3-byte sequence and
+ * every text reads back exactly as it was added.
+ */
+final class DirectTextArena implements TextArena {
+
+    private static final int PAGE_BITS = 24;
+    private static final int MAX_PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MIN_PAGE_SIZE = 1 << 10;
+
+    private final Path file;
+    private long fileSize = 0;
+    private ByteBuffer[] pages = new ByteBuffer[0];
+    private int pageFill = 0;
+    private int nextPageSize;
+    private long[] starts = new long[16];
+    private int[] byteLengths = new int[16];
+    private int[] charLengths = new int[16];
+    private int size = 0;
+    /* Rep invariant:
+     *    text i is the bytes pages[starts[i] >>> PAGE_BITS][starts[i] & (MAX_PAGE_SIZE-1) ..+ byteLengths[i]],
+     *    which decode to charLengths[i] chars
+     *    byteLengths[i] == charLengths[i] iff text i is ASCII
+     *    no text spans two pages; a text longer than MAX_PAGE_SIZE bytes has a page to itself
+     *    pageFill is the number of bytes used in the last page
+     *    starts[i] & (MAX_PAGE_SIZE-1) == the offset of text i in its page, so
+     *      every text starts below MAX_PAGE_SIZE in its page
+     *    each page is at most MAX_PAGE_SIZE bytes, or holds a single longer text
+     *    MIN_PAGE_SIZE <= nextPageSize <= MAX_PAGE_SIZE
+     *    if file != null, pages are consecutive mapped regions of it, fileSize bytes in all
+     *    no FileChannel is held open between calls; a mapping stays valid after
+     *      the channel it was made from is closed
+     */
+
+    /*
+     * Make an arena in direct buffers, whose first page is sized for
+     * expectedBytes of text; later pages double in size up to MAX_PAGE_SIZE.
+     */
+    DirectTextArena(long expectedBytes) {
+        this.file = null;
+        this.nextPageSize = firstPageSize(expectedBytes);
+    }
+
+    /*
+     * Make an arena in a memory-mapped file, which is created or overwritten,
+     * whose first page is sized for expectedBytes of text; later pages double
+     * in size up to MAX_PAGE_SIZE.
+     */
+    DirectTextArena(Path path, long expectedBytes) throws IOException {
+        this.nextPageSize = firstPageSize(expectedBytes);
+        this.file = path;
+        FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                         StandardOpenOption.WRITE).close();
+    }
+
+    @Override public int add(CharSequence text) {
+        int charLength = text.length();
+        int byteLength = encodedLength(text);
+        // a text must start below MAX_PAGE_SIZE for its offset to fit in starts
+        if (pages.length == 0 || byteLength > pages[pages.length - 1].capacity() - pageFill
+                || pageFill >= MAX_PAGE_SIZE) {
+            newPage(Math.max(nextPageSize, byteLength));
+            nextPageSize = Math.min(MAX_PAGE_SIZE, nextPageSize * 2);
+        }
+        ByteBuffer page = pages[pages.length - 1];
+        encode(text, page, pageFill);
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            byteLengths = Arrays.copyOf(byteLengths, size * 2);
+            charLengths = Arrays.copyOf(charLengths, size * 2);
+        }
+        starts[size] = ((long) (pages.length - 1) << PAGE_BITS) | pageFill;
+        byteLengths[size] = byteLength;
+        charLengths[size] = charLength;
+        pageFill += byteLength;
+        return size++;
+    }
+
+    @Override public int size() {
+        return size;
+    }
+
+    @Override public String get(int index) {
+        return view(index).toString();
+    }
+
+    @Override public CharSequence view(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " of " + size);
+        }
+        ByteBuffer page = pages[(int) (starts[index] >>> PAGE_BITS)];
+        int offset = (int) (starts[index] & (MAX_PAGE_SIZE - 1));
+        if (byteLengths[index] == charLengths[index]) {
+            return new AsciiView(page, offset, charLengths[index]);
+        }
+        return new Utf8View(page, offset, charLengths[index]);
+    }
+
+    private static int firstPageSize(long expectedBytes) {
+        return (int) Math.min(MAX_PAGE_SIZE, Math.max(MIN_PAGE_SIZE, expectedBytes));
+    }
+
+    private void newPage(int bytes) {
+        ByteBuffer page;
+        if (file == null) {
+            page = ByteBuffer.allocateDirect(bytes);
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                page = channel.map(FileChannel.MapMode.READ_WRITE, fileSize, bytes);
+                fileSize += bytes;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        pages = Arrays.copyOf(pages, pages.length + 1);
+        pages[pages.length - 1] = page;
+        pageFill = 0;
+    }
+
+    private static int encodedLength(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                       && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static void encode(CharSequence text, ByteBuffer page, int at) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                page.put(at++, (byte) c);
+            } else if (c < 0x800) {
+                page.put(at++, (byte) (0xc0 | c >> 6));
+                page.put(at++, (byte) (0x80 | c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                       && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                page.put(at++, (byte) (0xf0 | codePoint >> 18));
+                page.put(at++, (byte) (0x80 | codePoint >> 12 & 0x3f));
+                page.put(at++, (byte) (0x80 | codePoint >> 6 & 0x3f));
+                page.put(at++, (byte) (0x80 | codePoint & 0x3f));
+            } else {
+                page.put(at++, (byte) (0xe0 | c >> 12));
+                page.put(at++, (byte) (0x80 | c >> 6 & 0x3f));
+                page.put(at++, (byte) (0x80 | c & 0x3f));
+            }
+        }
+    }
+
+    /*
+     * A view of an ASCII text: one byte per char.
+     */
+    private static final class AsciiView implements CharSequence {
+        private final ByteBuffer page;
+        private final int offset;
+        private final int length;
+
+        AsciiView(ByteBuffer page, int offset, int length) {
+            this.page = page;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override public int length() {
+            return length;
+        }
+
+        @Override public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + " of " + length);
+            }
+            return (char) page.get(offset + index);
+        }
+
+        @Override public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("range " + start + ".." + end + " of " + length);
+            }
+            return new AsciiView(page, offset + start, end - start);
+        }
+
+        @Override public String toString() {
+            byte[] bytes = new byte[length];
+            page.get(offset, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /*
+     * A view of a text with non-ASCII chars, decoded from a forward cursor.
+     */
+    private static final class Utf8View implements CharSequence {
+        private static final int CHECKPOINT_BITS = 6;
+
+        private final ByteBuffer page;
+        private final int offset;
+        private final int length;
+        // the char index and byte offset (relative to offset) of the next code point to decode
+        private int cursorChar = 0;
+        private int cursorByte = 0;
+        // checkpoint k > 0 is the first code point boundary at or after char k << CHECKPOINT_BITS,
+        // as a char index and byte offset; checkpoint 0 is (0, 0) and is not stored
+        private int[] checkpointChars = null;
+        private int[] checkpointBytes = null;
+        private int checkpoints = 1;
+
+        Utf8View(ByteBuffer page, int offset, int length) {
+            this.page = page;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override public int length() {
+            return length;
+        }
+
+        @Override public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + " of " + length);
+            }
+            if (index < cursorChar) {
+                seek(index);
+            }
+            while (true) {
+                int at = offset + cursorByte;
+                int b = page.get(at) & 0xff;
+                int codePoint;
+                int bytes;
+                if (b < 0x80) {
+                    codePoint = b;
+                    bytes = 1;
+                } else if (b < 0xe0) {
+                    codePoint = (b & 0x1f) << 6 | page.get(at + 1) & 0x3f;
+                    bytes = 2;
+                } else if (b < 0xf0) {
+                    codePoint = (b & 0x0f) << 12 | (page.get(at + 1) & 0x3f) << 6 | page.get(at + 2) & 0x3f;
+                    bytes = 3;
+                } else {
+                    codePoint = (b & 0x07) << 18 | (page.get(at + 1) & 0x3f) << 12
+                            | (page.get(at + 2) & 0x3f) << 6 | page.get(at + 3) & 0x3f;
+                    bytes = 4;
+                }
+                int units = bytes == 4 ? 2 : 1;
+                if (index < cursorChar + units) {
+                    if (units == 1) {
+                        return (char) codePoint;
+                    }
+                    return index == cursorChar ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+                }
+                cursorChar += units;
+                cursorByte += bytes;
+                if (cursorChar >= checkpoints << CHECKPOINT_BITS && cursorChar < length) {
+                    addCheckpoint();
+                }
+            }
+        }
+
+        /*
+         * Move the cursor back to the last checkpoint at or before index.
+         */
+        private void seek(int index) {
+            int k = Math.min(index >>> CHECKPOINT_BITS, checkpoints - 1);
+            while (k > 0 && checkpointChars[k] > index) {
+                k--;
+            }
+            cursorChar = k == 0 ? 0 : checkpointChars[k];
+            cursorByte = k == 0 ? 0 : checkpointBytes[k];
+        }
+
+        private void addCheckpoint() {
+            if (checkpointChars == null) {
+                int capacity = (length >>> CHECKPOINT_BITS) + 1;
+                checkpointChars = new int[capacity];
+                checkpointBytes = new int[capacity];
+            }
+            checkpointChars[checkpoints] = cursorChar;
+            checkpointBytes[checkpoints] = cursorByte;
+            checkpoints++;
+        }
+
+        @Override public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("range " + start + ".." + end + " of " + length);
+            }
+            return toString().substring(start, end);
+        }
+
+        @Override public String toString() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
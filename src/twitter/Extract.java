@@ -4,11 +4,18 @@
 package twitter;
 
 import java.time.Instant;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Extract consists of methods that extract information from a list of tweets.
@@ -19,6 +26,12 @@ import java.util.regex.Pattern;
  */
 public class Extract {
 
+    // Lists at least this long are processed in parallel by getTimespan() and getMentionedUsers().
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    // Approximate number of tweets processed by one fork-join task.
+    private static final int CHUNK_SIZE = 1 << 12;
+
     /**
      * Get the time period spanned by tweets.
      *
@@ -28,27 +41,20 @@ public class Extract {
      *         every tweet in the list.
      */
     public static Timespan getTimespan(List<Tweet> tweets) {
-        if (tweets.isEmpty()) {
-            // Spec is underdetermined for empty list
-            Instant epoch = Instant.EPOCH;
-            return new Timespan(epoch, epoch);
+        if (worthParallel(tweets)) {
+            return getTimespanParallel(tweets);
         }
-
-        Instant start = tweets.get(0).getTimestamp();
-        Instant end = tweets.get(0).getTimestamp();
-
-        for (Tweet tweet : tweets) {
-            Instant timestamp = tweet.getTimestamp();
-
-            if (timestamp.isBefore(start)) {
-                start = timestamp;
-            }
-            if (timestamp.isAfter(end)) {
-                end = timestamp;
+        // for an empty list, where the spec is underdetermined, this is the empty span at the epoch
+        TimespanAccumulator span = new TimespanAccumulator();
+        if (tweets instanceof TweetStore) {
+            TweetStore store = (TweetStore) tweets;
+            for (int i = 0; i < store.size(); i++) {
+                span.add(store.timestamp(i));
             }
+        } else {
+            tweets.forEach(span);
         }
-
-        return new Timespan(start, end);
+        return span.timespan();
     }
 
     /**
@@ -67,23 +73,210 @@ public class Extract {
      *         include a username at most once.
      */
     public static Set<String> getMentionedUsers(List<Tweet> tweets) {
-        Set<String> mentionedUsers = new HashSet<>();
+        if (worthParallel(tweets)) {
+            return getMentionedUsersParallel(tweets);
+        }
+        MentionAccumulator mentioned = new MentionAccumulator();
+        for (CharSequence text : texts(tweets)) {
+            mentioned.add(text);
+        }
+        return mentioned.mentions();
+    }
 
-        // Regular expression pattern for matching valid @mentions
-        String mentionPattern = "(?:^|[^A-Za-z0-9_-])@([A-Za-z0-9_-]+)(?=[^A-Za-z0-9_-]|$)";
-        Pattern pattern = Pattern.compile(mentionPattern);
+    /**
+     * Get the most-mentioned usernames in a list of tweets, approximately, in
+     * memory that does not grow with the number of distinct usernames.
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param k
+     *            number of usernames wanted, at least 0
+     * @param maxError
+     *            largest error allowed in the mention counts the result is
+     *            ranked by, as a fraction of all mentions in the tweets;
+     *            0 < maxError <= 1
+     * @return at most k usernames, in lowercase, in descending order of
+     *         estimated number of mentions (see TopMentions). Every username
+     *         mentioned more than maxError times the number of mentions is
+     *         ranked, and none is ranked above one mentioned more than
+     *         maxError times the number of mentions more often.
+     */
+    public static List<String> getMostMentionedUsers(List<Tweet> tweets, int k, double maxError) {
+        TopMentions mentions = TopMentions.withMaxError(maxError);
+        for (CharSequence text : texts(tweets)) {
+            mentions.add(text);
+        }
+        return mentions.top(k);
+    }
 
+    /**
+     * Get the time period spanned by tweets, using all the processors of the
+     * common fork-join pool.
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method
+     *            or by any other thread while it runs.
+     * @return the same timespan as getTimespan(tweets)
+     */
+    public static Timespan getTimespanParallel(List<Tweet> tweets) {
+        List<Tweet> list = randomAccess(tweets);
+        return forkJoin(list, indexes -> {
+            TimespanAccumulator span = new TimespanAccumulator();
+            indexes.forEachRemaining((int i) -> span.add(timestamp(list, i)));
+            return span;
+        }, TimespanAccumulator::merge).timespan();
+    }
+
+    /**
+     * Get usernames mentioned in a list of tweets, using all the processors of
+     * the common fork-join pool.
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method
+     *            or by any other thread while it runs.
+     * @return the same set of usernames as getMentionedUsers(tweets)
+     */
+    public static Set<String> getMentionedUsersParallel(List<Tweet> tweets) {
+        List<Tweet> list = randomAccess(tweets);
+        return forkJoin(list, indexes -> {
+            MentionAccumulator mentioned = new MentionAccumulator();
+            indexes.forEachRemaining((int i) -> mentioned.add(text(list, i)));
+            return mentioned;
+        }, (left, right) -> left.size() < right.size() ? right.merge(left) : left.merge(right)).mentions();
+    }
+
+    /**
+     * Get the ids of usernames mentioned in a list of tweets.
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param usernames
+     *            dictionary in which the mentioned usernames are interned
+     * @return the set of ids in usernames of the usernames that are mentioned
+     *         in the text of the tweets, as defined by getMentionedUsers()
+     */
+    public static BitSet getMentionedUserIds(List<Tweet> tweets, UsernameDictionary usernames) {
+        BitSet mentioned = new BitSet();
+        for (CharSequence text : texts(tweets)) {
+            mentionIds(text, usernames, mentioned::set);
+        }
+        return mentioned;
+    }
+
+    /*
+     * Intern each username mentioned in text, in order, and pass its id to sink.
+     */
+    static void mentionIds(CharSequence text, UsernameDictionary usernames, IntConsumer sink) {
+        MentionScanner.scan(text, (start, end) -> sink.accept(usernames.intern(text, start, end)));
+    }
+
+    /**
+     * Get the ids of the authors of a list of tweets, for answering many
+     * queries by author id, such as Filter.writtenBy(tweets, authorIds, userId).
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param usernames
+     *            dictionary in which the authors are interned
+     * @return a new array of the ids in usernames of the authors of the tweets,
+     *         in the same order as the tweets
+     */
+    public static int[] getAuthorIds(List<Tweet> tweets, UsernameDictionary usernames) {
+        int[] ids = new int[tweets.size()];
+        if (tweets instanceof TweetStore) {
+            // intern each distinct author once
+            TweetStore store = (TweetStore) tweets;
+            int[] storeAuthors = store.authorIdsIn(usernames);
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = storeAuthors[store.authorId(i)];
+            }
+            return ids;
+        }
+        int i = 0;
         for (Tweet tweet : tweets) {
-            String text = tweet.getText();
-            Matcher matcher = pattern.matcher(text);
+            ids[i++] = usernames.intern(tweet.getAuthor());
+        }
+        return ids;
+    }
+
+    /*
+     * @return true if tweets is long enough, and there are enough processors,
+     *         for a parallel computation to pay off
+     */
+    private static boolean worthParallel(List<Tweet> tweets) {
+        return tweets.size() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    private static List<Tweet> randomAccess(List<Tweet> tweets) {
+        return tweets instanceof RandomAccess ? tweets : new ArrayList<>(tweets);
+    }
 
-            while (matcher.find()) {
-                String username = matcher.group(1);
-                mentionedUsers.add(username.toLowerCase());
+    private static Instant timestamp(List<Tweet> tweets, int index) {
+        if (tweets instanceof TweetStore) {
+            return ((TweetStore) tweets).timestamp(index);
+        }
+        return tweets.get(index).getTimestamp();
+    }
+
+    private static CharSequence text(List<Tweet> tweets, int index) {
+        if (tweets instanceof TweetStore) {
+            return ((TweetStore) tweets).textView(index);
+        }
+        return tweets.get(index).getText();
+    }
+
+    /*
+     * Compute a partial result for each chunk of the indexes of a list, on the
+     * common fork-join pool, and merge the partial results.
+     *
+     * @param tweets a random-access list
+     * @param chunk computes the partial result for the tweets at the indexes
+     *              it is given
+     * @param merge combines the partial results of two adjacent runs of indexes
+     * @return the merged result for all the tweets
+     */
+    private static <R> R forkJoin(List<Tweet> tweets, Function<Spliterator.OfInt, R> chunk, BinaryOperator<R> merge) {
+        Spliterator.OfInt indexes = IntStream.range(0, tweets.size()).spliterator();
+        return ForkJoinPool.commonPool().invoke(new ChunkTask<>(indexes, chunk, merge));
+    }
+
+    /*
+     * Fork-join task that splits its indexes until they are about CHUNK_SIZE long.
+     */
+    private static class ChunkTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        // a task is never serialized; ForkJoinTask is Serializable only by inheritance
+        private final transient Spliterator.OfInt indexes;
+        private final transient Function<Spliterator.OfInt, R> chunk;
+        private final transient BinaryOperator<R> merge;
+
+        ChunkTask(Spliterator.OfInt indexes, Function<Spliterator.OfInt, R> chunk, BinaryOperator<R> merge) {
+            this.indexes = indexes;
+            this.chunk = chunk;
+            this.merge = merge;
+        }
+
+        @Override protected R compute() {
+            Spliterator.OfInt prefix;
+            if (indexes.estimateSize() > CHUNK_SIZE && (prefix = indexes.trySplit()) != null) {
+                ChunkTask<R> left = new ChunkTask<>(prefix, chunk, merge);
+                left.fork();
+                R right = new ChunkTask<>(indexes, chunk, merge).compute();
+                return merge.apply(left.join(), right);
             }
+            return chunk.apply(indexes);
         }
+    }
 
-        return mentionedUsers;
+    /*
+     * @return the texts of the tweets, read in place if tweets is a TweetStore
+     */
+    static Iterable<CharSequence> texts(List<Tweet> tweets) {
+        if (tweets instanceof TweetStore) {
+            return ((TweetStore) tweets).textViews();
+        }
+        return () -> tweets.stream().<CharSequence>map(Tweet::getText).iterator();
     }
 
 }
\ No newline at end of file
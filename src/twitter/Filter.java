@@ -5,9 +5,8 @@ package twitter;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.RandomAccess;
 
 
 /**
@@ -32,9 +31,64 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
+        // fold the query once and compare each author with it in place
+        String canonical = UsernameDictionary.canonical(username);
         List<Tweet> result = new ArrayList<>();
+        if (tweets instanceof TweetStore) {
+            // compare each distinct author once, and only make Tweets for matches
+            TweetStore store = (TweetStore) tweets;
+            List<String> authors = store.authors();
+            boolean[] matches = new boolean[authors.size()];
+            for (int a = 0; a < matches.length; a++) {
+                matches[a] = UsernameDictionary.sameUsername(canonical, authors.get(a));
+            }
+            for (int i = 0; i < store.size(); i++) {
+                if (matches[store.authorId(i)]) {
+                    result.add(store.get(i));
+                }
+            }
+            return result;
+        }
+        for (Tweet t : tweets) {
+            if (UsernameDictionary.sameUsername(canonical, t.getAuthor())) {
+                result.add(t);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find tweets written by a particular user, given by id.
+     *
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param authorIds
+     *            the ids of the authors of the tweets, in the same order, as
+     *            from Extract.getAuthorIds(tweets, usernames); not modified by
+     *            this method
+     * @param userId
+     *            id in the same dictionary of a Twitter username
+     * @return all and only the tweets in the list whose author has id userId,
+     *         in the same order as in the input list.
+     * @throws IllegalArgumentException if authorIds is not as long as tweets
+     */
+    public static List<Tweet> writtenBy(List<Tweet> tweets, int[] authorIds, int userId) {
+        if (authorIds.length != tweets.size()) {
+            throw new IllegalArgumentException(authorIds.length + " author ids for " + tweets.size() + " tweets");
+        }
+        List<Tweet> result = new ArrayList<>();
+        if (tweets instanceof RandomAccess) {
+            // only make Tweets for matches, in case the list builds them on demand
+            for (int i = 0; i < authorIds.length; i++) {
+                if (authorIds[i] == userId) {
+                    result.add(tweets.get(i));
+                }
+            }
+            return result;
+        }
+        int i = 0;
         for (Tweet t : tweets) {
-            if (t.getAuthor().equalsIgnoreCase(username)) {
+            if (authorIds[i++] == userId) {
                 result.add(t);
             }
         }
@@ -83,20 +137,101 @@ public class Filter {
         List<Tweet> result = new ArrayList<>();
         if (words.isEmpty()) return result;
 
-        Set<String> lowered = new HashSet<>();
-        for (String w : words) {
-            lowered.add(w.toLowerCase());
+        TextAnalyzer analyzer = new TextAnalyzer();
+        WordMatch match = new WordMatch(words).stopping(analyzer);
+        analyzer.onWord(match);
+
+        if (tweets instanceof TweetStore) {
+            // scan the stored texts in place, and only make Tweets for matches
+            TweetStore store = (TweetStore) tweets;
+            for (int i = 0; i < store.size(); i++) {
+                match.reset();
+                analyzer.analyze(store.textView(i));
+                if (match.matched()) {
+                    result.add(store.get(i));
+                }
+            }
+            return result;
         }
 
         for (Tweet t : tweets) {
-            String[] textWords = t.getText().toLowerCase().split("\\s+");
-            for (String w : textWords) {
-                if (lowered.contains(w)) {
-                    result.add(t);
-                    break; // avoid duplicates if multiple matches
-                }
+            match.reset();
+            analyzer.analyze(t.getText());
+            if (match.matched()) {
+                result.add(t);
             }
         }
         return result;
     }
+
+    /**
+     * WordMatch is a consumer of the words of a tweet text, as reported by a
+     * TextAnalyzer, that records whether any of them is one of a list of
+     * words, compared as by containing(). It lets containing()'s test share a
+     * scan of each text with other extractors, or, when it is the only
+     * consumer, stop the scan at the first match.
+     */
+    public static class WordMatch implements TextAnalyzer.TokenConsumer {
+        private final WordSet words;
+        private boolean matched = false;
+        private TextAnalyzer stopping = null;
+
+        /**
+         * Make a WordMatch that has not matched.
+         *
+         * @param words
+         *            the words to look for, as for containing()
+         */
+        public WordMatch(List<String> words) {
+            this.words = new WordSet(words);
+        }
+
+        /**
+         * Make this WordMatch stop an analyzer's scan of a text as soon as it
+         * has matched, for when no other consumer of the analyzer needs the
+         * rest of the text.
+         *
+         * @param analyzer
+         *            the analyzer this WordMatch is registered with
+         * @return this WordMatch
+         */
+        public WordMatch stopping(TextAnalyzer analyzer) {
+            this.stopping = analyzer;
+            return this;
+        }
+
+        /**
+         * Check one word of a text.
+         *
+         * @param text
+         *            a tweet text
+         * @param start
+         *            index in text of the first character of the word
+         * @param end
+         *            index in text after the last character of the word
+         */
+        @Override public void accept(CharSequence text, int start, int end) {
+            if (!matched && words.contains(text, start, end)) {
+                matched = true;
+                if (stopping != null) {
+                    stopping.stop();
+                }
+            }
+        }
+
+        /**
+         * @return true iff some word checked since the last reset() is one of
+         *         the words looked for
+         */
+        public boolean matched() {
+            return matched;
+        }
+
+        /**
+         * Forget the words checked so far, before starting the next text.
+         */
+        public void reset() {
+            matched = false;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * FollowsGraphBuilder builds the social network guessed by
+ * SocialNetwork.guessFollowsGraph() from tweets given to it one at a time,
+ * without keeping the tweets: the author of a tweet follows everyone the
+ * tweet mentions, except themselves.
+ *
+ * Each author's follows are kept in an IdSet, so memory grows with the number
+ * of (author, mentioned user) pairs rather than with the number of authors
+ * times the number of users.
+ *
+ * A tweet is given either whole, by accept(), or in parts: startTweet() with
+ * its author, then addMention() for each of its mentions, such as the mention
+ * spans reported by a TextAnalyzer that other extractors share.
+ */
+public class FollowsGraphBuilder implements Consumer<Tweet> {
+
+    private final UsernameDictionary usernames;
+    private final Map<Integer, IdSet> follows = new HashMap<>();
+    private int author = -1;
+    private IdSet authorFollows = null;
+    /* Rep invariant:
+     *    every key and every member of a value of follows is an id in usernames
+     *    no follows.get(a) contains a
+     *    author == -1 and authorFollows == null before the first tweet;
+     *      otherwise authorFollows == follows.get(author)
+     */
+
+    /**
+     * Make a builder that has seen no tweets, with its own username dictionary.
+     */
+    public FollowsGraphBuilder() {
+        this(new UsernameDictionary());
+    }
+
+    /**
+     * Make a builder that has seen no tweets.
+     *
+     * @param usernames
+     *            dictionary in which to intern authors and mentioned usernames
+     */
+    public FollowsGraphBuilder(UsernameDictionary usernames) {
+        this.usernames = usernames;
+    }
+
+    /**
+     * Add a tweet's evidence.
+     *
+     * @param tweet
+     *            a tweet
+     */
+    @Override public void accept(Tweet tweet) {
+        startTweet(tweet.getAuthor());
+        addMentions(tweet.getText());
+    }
+
+    /**
+     * Start a tweet, whose mentions are then given by addMention().
+     *
+     * @param authorName
+     *            author of the tweet
+     */
+    public void startTweet(CharSequence authorName) {
+        startTweet(usernames.intern(authorName));
+    }
+
+    /**
+     * Start a tweet, whose mentions are then given by addMention().
+     *
+     * @param authorId
+     *            id of the author of the tweet in this builder's dictionary
+     */
+    public void startTweet(int authorId) {
+        author = authorId;
+        authorFollows = follows.computeIfAbsent(authorId, a -> new IdSet());
+    }
+
+    /**
+     * Add a mention in the tweet last started. Has the signature of a
+     * TextAnalyzer.TokenConsumer.
+     *
+     * @param text
+     *            text of the tweet
+     * @param start
+     *            index in text of the first character of the mentioned username
+     * @param end
+     *            index in text after the last character of the mentioned username
+     */
+    public void addMention(CharSequence text, int start, int end) {
+        if (authorFollows == null) {
+            throw new IllegalStateException("no tweet started");
+        }
+        int mentioned = usernames.intern(text, start, end);
+        if (mentioned != author) {
+            authorFollows.add(mentioned);
+        }
+    }
+
+    /**
+     * Add every mention in the text of the tweet last started.
+     *
+     * @param text
+     *            text of the tweet
+     */
+    public void addMentions(CharSequence text) {
+        MentionScanner.scan(text, (start, end) -> addMention(text, start, end));
+    }
+
+    /**
+     * @return the dictionary in which authors and mentioned usernames are interned
+     */
+    public UsernameDictionary usernames() {
+        return usernames;
+    }
+
+    /**
+     * @return a new social network of the evidence seen so far, with each user
+     *         given by id in usernames(): map[A] is the set of ids that user A
+     *         follows. Every author seen is a key.
+     */
+    public Map<Integer, IdSet> idGraph() {
+        Map<Integer, IdSet> graph = new HashMap<>();
+        for (Map.Entry<Integer, IdSet> entry : follows.entrySet()) {
+            graph.put(entry.getKey(), entry.getValue().copy());
+        }
+        return graph;
+    }
+
+    /**
+     * @return a new social network, as defined by SocialNetwork, of the
+     *         evidence seen so far, with usernames in lowercase. Every author
+     *         seen is a key.
+     */
+    public Map<String, Set<String>> graph() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (Map.Entry<Integer, IdSet> entry : follows.entrySet()) {
+            Set<String> followed = new HashSet<>();
+            for (int id : entry.getValue().toArray()) {
+                followed.add(usernames.name(id));
+            }
+            graph.put(usernames.name(entry.getKey()), followed);
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,134 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/*
+ * HeapTextArena is an append-only sequence of texts packed into large shared
+ * char arrays, instead of one String object per text. The first page is sized
+ * for the texts expected, and each later page is twice as large as the one
+ * before, so a small arena takes little memory and a large one few pages.
+ */
+final class HeapTextArena implements TextArena {
+
+    private static final int PAGE_BITS = 24;
+    private static final int MAX_PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MIN_PAGE_SIZE = 1 << 10;
+
+    private char[][] pages = new char[0][];
+    private int pageFill = 0;
+    private int nextPageSize;
+    private long[] starts = new long[16];
+    private int[] lengths = new int[16];
+    private int size = 0;
+    /* Rep invariant:
+     *    text i is pages[starts[i] >>> PAGE_BITS][starts[i] & (MAX_PAGE_SIZE-1) ..+ lengths[i]]
+     *    no text spans two pages; a text longer than MAX_PAGE_SIZE has a page to itself
+     *    pageFill is the number of chars used in the last page
+     *    starts[i] & (MAX_PAGE_SIZE-1) == the offset of text i in its page, so
+     *      every text starts below MAX_PAGE_SIZE in its page
+     *    each page is at most MAX_PAGE_SIZE chars, or holds a single longer text
+     *    MIN_PAGE_SIZE <= nextPageSize <= MAX_PAGE_SIZE
+     */
+
+    /*
+     * Make an empty arena.
+     *
+     * @param expectedChars
+     *            total length of the texts expected to be added, used to size
+     *            the first page; later pages double in size up to MAX_PAGE_SIZE
+     */
+    HeapTextArena(long expectedChars) {
+        nextPageSize = (int) Math.min(MAX_PAGE_SIZE, Math.max(MIN_PAGE_SIZE, expectedChars));
+    }
+
+    @Override public int add(CharSequence text) {
+        int length = text.length();
+        // a text must start below MAX_PAGE_SIZE for its offset to fit in starts
+        if (pages.length == 0 || length > pages[pages.length - 1].length - pageFill || pageFill >= MAX_PAGE_SIZE) {
+            pages = Arrays.copyOf(pages, pages.length + 1);
+            pages[pages.length - 1] = new char[Math.max(nextPageSize, length)];
+            nextPageSize = Math.min(MAX_PAGE_SIZE, nextPageSize * 2);
+            pageFill = 0;
+        }
+        char[] page = pages[pages.length - 1];
+        for (int i = 0; i < length; i++) {
+            page[pageFill + i] = text.charAt(i);
+        }
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+        }
+        starts[size] = ((long) (pages.length - 1) << PAGE_BITS) | pageFill;
+        lengths[size] = length;
+        pageFill += length;
+        return size++;
+    }
+
+    @Override public int size() {
+        return size;
+    }
+
+    @Override public String get(int index) {
+        checkIndex(index);
+        return new String(page(index), offset(index), lengths[index]);
+    }
+
+    @Override public CharSequence view(int index) {
+        checkIndex(index);
+        return new View(page(index), offset(index), lengths[index]);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " of " + size);
+        }
+    }
+
+    private char[] page(int index) {
+        return pages[(int) (starts[index] >>> PAGE_BITS)];
+    }
+
+    private int offset(int index) {
+        return (int) (starts[index] & (MAX_PAGE_SIZE - 1));
+    }
+
+    /*
+     * A window onto part of a page.
+     */
+    private static final class View implements CharSequence {
+        private final char[] chars;
+        private final int offset;
+        private final int length;
+
+        View(char[] chars, int offset, int length) {
+            this.chars = chars;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override public int length() {
+            return length;
+        }
+
+        @Override public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + " of " + length);
+            }
+            return chars[offset + index];
+        }
+
+        @Override public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("range " + start + ".." + end + " of " + length);
+            }
+            return new View(chars, offset + start, end - start);
+        }
+
+        @Override public String toString() {
+            return new String(chars, offset, length);
+        }
+    }
+}
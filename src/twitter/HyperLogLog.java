@@ -0,0 +1,256 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * HyperLogLog estimates the number of distinct Twitter usernames it has been
+ * given, in a fixed amount of memory: 2^precision bytes, whether it has seen
+ * ten usernames or ten billion. Usernames are case-insensitive, as in
+ * SocialNetwork, so "ernie" and "ERNie" count once.
+ *
+ * The estimate has a standard error of about 1.04 / sqrt(2^precision): for
+ * the default precision of 14, 16 KiB and 0.8%. Small counts, up to a few
+ * times 2^precision, are estimated much more closely.
+ *
+ * Sketches of different parts of a stream, built on different threads or from
+ * different files, can be combined with merge(), in any grouping, into the
+ * sketch of the whole stream. A sketch can be written to a stream and read
+ * back. A sketch is not safe for use by several threads at once.
+ */
+public class HyperLogLog {
+
+    /** Precision used by the constructor with no arguments. */
+    public static final int DEFAULT_PRECISION = 14;
+
+    /** Smallest allowed precision. */
+    public static final int MIN_PRECISION = 4;
+
+    /** Largest allowed precision. */
+    public static final int MAX_PRECISION = 18;
+
+    private static final int MAGIC = 0x54574C4C; // "TWLL"
+    private static final int VERSION = 1;
+
+    private final int precision;
+    private final byte[] registers;
+    /* Abstraction function:
+     *    represents the set of usernames (lower-cased) whose hashes have been
+     *    recorded in registers
+     * Rep invariant:
+     *    MIN_PRECISION <= precision <= MAX_PRECISION
+     *    registers.length == 2^precision
+     *    0 <= registers[i] <= 64 - precision + 1
+     */
+
+    /**
+     * Make an empty sketch with the default precision.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param precision
+     *            log2 of the number of registers, between MIN_PRECISION and
+     *            MAX_PRECISION. Each extra bit doubles the memory and divides
+     *            the error by about sqrt(2).
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be in [" + MIN_PRECISION + ", " + MAX_PRECISION + "]: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Add a username.
+     *
+     * @param username
+     *            a username, in any case
+     */
+    public void add(CharSequence username) {
+        add(username, 0, username.length());
+    }
+
+    /**
+     * Add a username that is part of a text, such as a mention.
+     *
+     * @param text
+     *            text containing the username
+     * @param start
+     *            index of the first character of the username in text
+     * @param end
+     *            index after the last character of the username in text;
+     *            requires 0 <= start <= end <= text.length()
+     */
+    public void add(CharSequence text, int start, int end) {
+        long hash = hash(text, start, end);
+        int index = (int) (hash >>> (64 - precision));
+        // the rank of the first 1 bit of the rest of the hash, with a sentinel bit so it is at most 64 - precision + 1
+        long rest = (hash << precision) | (1L << (precision - 1));
+        int rank = Long.numberOfLeadingZeros(rest) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Add every username mentioned in a text, as defined by
+     * Extract.getMentionedUsers().
+     *
+     * @param text
+     *            text of a tweet, not kept by this sketch
+     */
+    public void addMentions(CharSequence text) {
+        MentionScanner.scan(text, (start, end) -> add(text, start, end));
+    }
+
+    /**
+     * Add everything another sketch has seen.
+     *
+     * @param other
+     *            sketch with the same precision, not modified by this method
+     * @return this sketch
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("cannot merge precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the precision of this sketch
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * @return an estimate of the number of distinct usernames added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // few registers are set, so count the empty ones instead (linear counting)
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+        case 16: return 0.673;
+        case 32: return 0.697;
+        case 64: return 0.709;
+        default: return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * Write this sketch in a compact binary form.
+     *
+     * @param out
+     *            stream to write to; not closed
+     * @throws IOException if out cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(precision);
+        data.write(registers);
+        data.flush();
+    }
+
+    /**
+     * Read a sketch written by writeTo().
+     *
+     * @param in
+     *            stream to read from; not closed
+     * @return the sketch
+     * @throws IOException if in cannot be read or does not hold a sketch
+     */
+    public static HyperLogLog readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        try {
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                throw new IOException("not a HyperLogLog sketch, or an unsupported version");
+            }
+            int precision = data.readInt();
+            if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+                throw new IOException("not a HyperLogLog sketch: bad precision " + precision);
+            }
+            HyperLogLog sketch = new HyperLogLog(precision);
+            data.readFully(sketch.registers);
+            for (byte register : sketch.registers) {
+                if (register < 0 || register > 64 - precision + 1) {
+                    throw new IOException("not a HyperLogLog sketch: bad register " + register);
+                }
+            }
+            return sketch;
+        } catch (EOFException e) {
+            throw new IOException("not a HyperLogLog sketch: truncated", e);
+        }
+    }
+
+    /*
+     * @return a well-mixed 64-bit hash of text[start..end) lower-cased
+     */
+    private static long hash(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) >= 0x80) {
+                String folded = text.subSequence(start, end).toString().toLowerCase(Locale.ROOT);
+                return hashFolded(folded, 0, folded.length());
+            }
+        }
+        return hashFolded(text, start, end);
+    }
+
+    /*
+     * FNV-1a over the chars with ASCII letters lower-cased, then the MurmurHash3
+     * finalizer, so that every bit of the result depends on every char.
+     */
+    private static long hashFolded(CharSequence text, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            hash = (hash ^ c) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
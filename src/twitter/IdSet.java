@@ -0,0 +1,182 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * IdSet is a mutable set of ids given out by a UsernameDictionary (or any
+ * other non-negative ints), whose memory is proportional to its size rather
+ * than to its largest id. It suits many small sets drawn from a large id
+ * space, such as the users each author follows, where a BitSet per set would
+ * take memory proportional to the whole dictionary.
+ */
+public class IdSet {
+
+    private static final int MIN_SLOTS = 4;
+
+    private int[] slots;
+    private int size = 0;
+    /* Rep invariant:
+     *    slots.length is a power of two and at least MIN_SLOTS and 2 * size
+     *    slots is an open-addressing hash table with linear probing: each
+     *      member id is stored as id + 1 in exactly one slot, at or after
+     *      hash(id) & (slots.length - 1), with no empty slot (0) in between
+     *    size is the number of used slots
+     */
+
+    /**
+     * Make an empty set.
+     */
+    public IdSet() {
+        slots = new int[MIN_SLOTS];
+    }
+
+    /**
+     * Make a set of the given ids.
+     *
+     * @param ids
+     *            ids, each >= 0, possibly repeated
+     * @return a new set containing exactly ids
+     */
+    public static IdSet of(int... ids) {
+        IdSet set = new IdSet();
+        for (int id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+    /**
+     * Add an id to this set.
+     *
+     * @param id
+     *            an id >= 0
+     * @return true if id was not in this set before
+     */
+    public boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("negative id " + id);
+        }
+        int slot = slot(id);
+        if (slots[slot] != 0) {
+            return false;
+        }
+        slots[slot] = id + 1;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * @param id
+     *            an id
+     * @return true iff id is in this set
+     */
+    public boolean contains(int id) {
+        return id >= 0 && slots[slot(id)] != 0;
+    }
+
+    /**
+     * @return the number of ids in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true iff this set has no ids
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the ids in this set, in ascending order, as a new array
+     */
+    public int[] toArray() {
+        int[] ids = new int[size];
+        int n = 0;
+        for (int stored : slots) {
+            if (stored != 0) {
+                ids[n++] = stored - 1;
+            }
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * @return a new set with the same ids as this one
+     */
+    public IdSet copy() {
+        IdSet copy = new IdSet();
+        copy.slots = slots.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * @return true iff that is an IdSet with the same ids as this one
+     */
+    @Override public boolean equals(Object that) {
+        if (!(that instanceof IdSet)) {
+            return false;
+        }
+        IdSet other = (IdSet) that;
+        if (other.size != size) {
+            return false;
+        }
+        for (int stored : slots) {
+            if (stored != 0 && !other.contains(stored - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override public int hashCode() {
+        int sum = 0;
+        for (int stored : slots) {
+            sum += stored;
+        }
+        return sum;
+    }
+
+    /**
+     * @return the ids in this set in ascending order, as in "[1, 5, 42]"
+     */
+    @Override public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /*
+     * @return the slot holding id, or the empty slot where it would go
+     */
+    private int slot(int id) {
+        int mask = slots.length - 1;
+        int slot = hash(id) & mask;
+        while (slots[slot] != 0 && slots[slot] != id + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(int id) {
+        int hash = id * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private void rehash() {
+        int[] old = slots;
+        slots = new int[old.length * 2];
+        for (int stored : old) {
+            if (stored != 0) {
+                slots[slot(stored - 1)] = stored;
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ package twitter;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,7 +37,10 @@ public class Main {
      * Main method of the program. Fetches a sample of tweets and prints some
      * facts about it.
      * 
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments: "--approximate" to estimate the
+     *             number of users with HyperLogLog sketches, and rank users by
+     *             approximate mention counts, instead of collecting every
+     *             username
      */
     public static void main(String[] args) {
         try {
@@ -54,14 +58,29 @@ public class Main {
         // display some characteristics about the tweets
         System.err.println("fetched " + tweets.size() + " tweets");
         
-        final Timespan span = Extract.getTimespan(tweets);
-        System.err.println("ranging from " + span.getStart() + " to " + span.getEnd());
+        if (Arrays.asList(args).contains("--approximate")) {
+            printApproximately(tweets);
+            return;
+        }
+        
+        // extract everything in one pass, reading each text once
+        final TimespanAccumulator span = new TimespanAccumulator();
+        final MentionAccumulator mentionedUsers = new MentionAccumulator();
+        final FollowsGraphBuilder graphBuilder = new FollowsGraphBuilder();
+        final TextAnalyzer analyzer = new TextAnalyzer()
+                .onMention(mentionedUsers::addMention)
+                .onMention(graphBuilder::addMention);
+        for (Tweet tweet : tweets) {
+            span.accept(tweet);
+            graphBuilder.startTweet(tweet.getAuthor());
+            analyzer.analyze(tweet.getText());
+        }
         
-        final Set<String> mentionedUsers = Extract.getMentionedUsers(tweets);
+        printTimespan(span.timespan());
         System.err.println("covers " + mentionedUsers.size() + " Twitter users");
         
         // infer the follows graph
-        final Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+        final Map<String, Set<String>> followsGraph = graphBuilder.graph();
         System.err.println("follows graph has " + followsGraph.size() + " nodes");
         
         // print the top-N influencers
@@ -72,4 +91,38 @@ public class Main {
         }
     }
     
+    private static void printTimespan(Timespan span) {
+        System.err.println("ranging from " + span.getStart() + " to " + span.getEnd());
+    }
+    
+    /*
+     * Print the same facts as main(), estimated in memory that does not grow
+     * with the number of distinct users.
+     */
+    private static void printApproximately(List<Tweet> tweets) {
+        final TimespanAccumulator span = new TimespanAccumulator();
+        final HyperLogLog mentionedUsers = new HyperLogLog();
+        final HyperLogLog authors = new HyperLogLog();
+        final TopMentions mentions = TopMentions.withMaxError(0.001);
+        final TextAnalyzer analyzer = new TextAnalyzer()
+                .onMention(mentionedUsers::add)
+                .onMention(mentions::addMention);
+        for (Tweet tweet : tweets) {
+            span.accept(tweet);
+            authors.add(tweet.getAuthor());
+            analyzer.analyze(tweet.getText());
+        }
+        printTimespan(span.timespan());
+        System.err.println("covers about " + mentionedUsers.estimate() + " Twitter users");
+        
+        // every author is a node of the follows graph
+        System.err.println("follows graph has about " + authors.estimate() + " nodes");
+        
+        // print the top-N most-mentioned users, standing in for the influencers
+        final int count = 10;
+        for (String username : mentions.top(count)) {
+            System.out.println(username);
+        }
+    }
+    
 }
@@ -0,0 +1,264 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import javax.json.JsonException;
+
+/*
+ * MappedTweetFile reads a file holding a JSON array of tweet objects by mapping
+ * it into memory, finding where each top-level object starts and ends with a
+ * single byte scan, and parsing runs of whole objects in parallel on a
+ * fork-join pool.
+ *
+ * The byte scan only tracks brace depth and string literals, which is enough
+ * to find object boundaries because '{', '}' and '"' never occur inside UTF-8
+ * multibyte sequences. The parser checks everything else.
+ */
+class MappedTweetFile {
+
+    // Size of each mapped region; a file larger than this is mapped in pieces.
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    // Approximate number of bytes of tweet objects parsed by one task.
+    private static final long CHUNK_SIZE = 1L << 22;
+
+    private static final byte[] OPEN = { '[' };
+    private static final byte[] CLOSE = { ']' };
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+    /* Rep invariant:
+     *    segments[i] maps bytes [i*SEGMENT_SIZE, min(size, (i+1)*SEGMENT_SIZE)) of the file
+     */
+
+    private MappedTweetFile(FileChannel channel) throws IOException {
+        this.size = channel.size();
+        int count = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        this.segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = i * SEGMENT_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+        }
+    }
+
+    /*
+     * Read all the tweets in a file.
+     *
+     * @param path file containing a JSON array of tweet objects, encoded in UTF-8
+     * @return the tweets in the file, in file order
+     * @throws IOException if the file cannot be read
+     * @throws JsonException if the file is not a JSON array of tweet objects
+     */
+    static List<Tweet> readTweets(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedTweetFile file = new MappedTweetFile(channel);
+            long[] chunks = file.findChunks();
+            if (chunks.length == 0) {
+                return new ArrayList<>();
+            }
+            return ForkJoinPool.commonPool().invoke(file.new ParseTask(chunks, 0, chunks.length / 2));
+        }
+    }
+
+    private byte get(long position) {
+        return segments[(int) (position / SEGMENT_SIZE)].get((int) (position % SEGMENT_SIZE));
+    }
+
+    /*
+     * Scan the top-level array and group its objects into chunks of about
+     * CHUNK_SIZE bytes.
+     *
+     * @return pairs (start, end) of byte offsets, each the range from the first
+     *         byte of a chunk's first object to just after its last object,
+     *         in file order
+     */
+    private long[] findChunks() {
+        long position = skipWhitespace(0);
+        if (position == size || get(position) != '[') {
+            throw new JsonException("Expected a JSON array at offset " + position);
+        }
+        position++;
+
+        long[] chunks = new long[16];
+        int count = 0;
+        long chunkStart = -1;
+        long objectEnd = -1;
+        boolean expectObject = true;
+        while (true) {
+            position = skipWhitespace(position);
+            if (position == size) {
+                throw new JsonException("Unexpected end of file");
+            }
+            byte b = get(position);
+            if (b == ']' && (!expectObject || objectEnd < 0)) {
+                break;
+            } else if (b == ',' && !expectObject) {
+                expectObject = true;
+                position++;
+            } else if (b == '{' && expectObject) {
+                if (chunkStart < 0) {
+                    chunkStart = position;
+                }
+                objectEnd = skipObject(position);
+                position = objectEnd;
+                expectObject = false;
+                if (objectEnd - chunkStart >= CHUNK_SIZE) {
+                    chunks = addChunk(chunks, count, chunkStart, objectEnd);
+                    count += 2;
+                    chunkStart = -1;
+                }
+            } else {
+                throw new JsonException("Expected a tweet object at offset " + position);
+            }
+        }
+        if (chunkStart >= 0) {
+            chunks = addChunk(chunks, count, chunkStart, objectEnd);
+            count += 2;
+        }
+        return Arrays.copyOf(chunks, count);
+    }
+
+    private static long[] addChunk(long[] chunks, int count, long start, long end) {
+        if (count + 2 > chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        chunks[count] = start;
+        chunks[count + 1] = end;
+        return chunks;
+    }
+
+    /*
+     * @param position offset of a '{'
+     * @return the offset just after the matching '}'
+     */
+    private long skipObject(long position) {
+        int depth = 0;
+        boolean inString = false;
+        while (position < size) {
+            byte b = get(position++);
+            if (inString) {
+                if (b == '\\') {
+                    position++;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    return position;
+                }
+            }
+        }
+        throw new JsonException("Unexpected end of file inside a tweet object");
+    }
+
+    private long skipWhitespace(long position) {
+        while (position < size) {
+            byte b = get(position);
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    /*
+     * Parse the chunks in [from, to), splitting the range in half until it is
+     * a single chunk.
+     */
+    private class ParseTask extends RecursiveTask<List<Tweet>> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] chunks;
+        private final int from;
+        private final int to;
+
+        ParseTask(long[] chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected List<Tweet> compute() {
+            if (to - from == 1) {
+                return parse(chunks[2 * from], chunks[2 * from + 1]);
+            }
+            int middle = (from + to) >>> 1;
+            ParseTask left = new ParseTask(chunks, from, middle);
+            left.fork();
+            List<Tweet> right = new ParseTask(chunks, middle, to).compute();
+            List<Tweet> result = left.join();
+            result.addAll(right);
+            return result;
+        }
+
+        /*
+         * Parse the comma-separated objects in bytes [start, end) as if they
+         * were a whole array.
+         */
+        private List<Tweet> parse(long start, long end) {
+            InputStream objects = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                    new ByteArrayInputStream(OPEN),
+                    new RangeInputStream(start, end),
+                    new ByteArrayInputStream(CLOSE))));
+            List<Tweet> tweets = new ArrayList<>();
+            TweetStreamReader.readTweets(new InputStreamReader(objects, StandardCharsets.UTF_8), tweets::add);
+            return tweets;
+        }
+    }
+
+    /*
+     * Stream over bytes [position, end) of the mapped file.
+     */
+    private class RangeInputStream extends InputStream {
+        private long position;
+        private final long end;
+
+        RangeInputStream(long start, long end) {
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override public int read() {
+            return position < end ? get(position++) & 0xff : -1;
+        }
+
+        @Override public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            MappedByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)];
+            int inSegment = (int) (position % SEGMENT_SIZE);
+            int n = (int) Math.min(length, Math.min(end - position, segment.limit() - inSegment));
+            segment.get(inSegment, buffer, offset, n);
+            position += n;
+            return n;
+        }
+    }
+}
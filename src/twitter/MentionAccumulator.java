@@ -0,0 +1,96 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * MentionAccumulator collects the usernames mentioned in tweets that are
+ * given to it one at a time, such as tweets streamed from a server, without
+ * keeping the tweets. It holds one lowercase String per distinct username.
+ * Mentions are as defined by Extract.getMentionedUsers().
+ *
+ * Accumulators over different parts of a stream of tweets can be combined
+ * with merge(), in any grouping, to get the accumulator for the whole stream;
+ * so separate threads or shards can each fill their own accumulator. An
+ * accumulator is not safe for use by several threads at once.
+ */
+public class MentionAccumulator implements Consumer<Tweet> {
+
+    private final UsernameDictionary mentioned = new UsernameDictionary();
+    /* Rep invariant:
+     *    mentioned holds exactly the usernames mentioned so far
+     */
+
+    /**
+     * Make an accumulator that has seen no tweets.
+     */
+    public MentionAccumulator() {
+    }
+
+    /**
+     * Add the mentions in a tweet.
+     *
+     * @param tweet
+     *            a tweet
+     */
+    @Override public void accept(Tweet tweet) {
+        add(tweet.getText());
+    }
+
+    /**
+     * Add the mentions in the text of a tweet.
+     *
+     * @param text
+     *            text of a tweet, not kept by this accumulator
+     */
+    public void add(CharSequence text) {
+        MentionScanner.scan(text, (start, end) -> addMention(text, start, end));
+    }
+
+    /**
+     * Add one mention. Has the signature of a TextAnalyzer.TokenConsumer.
+     *
+     * @param text
+     *            text of a tweet, not kept by this accumulator
+     * @param start
+     *            index in text of the first character of the mentioned username
+     * @param end
+     *            index in text after the last character of the mentioned username
+     */
+    public void addMention(CharSequence text, int start, int end) {
+        mentioned.intern(text, start, end);
+    }
+
+    /**
+     * Add everything another accumulator has seen.
+     *
+     * @param other
+     *            accumulator, not modified by this method
+     * @return this accumulator
+     */
+    public MentionAccumulator merge(MentionAccumulator other) {
+        for (int id = 0; id < other.mentioned.size(); id++) {
+            mentioned.intern(other.mentioned.name(id));
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of distinct usernames mentioned so far
+     */
+    public int size() {
+        return mentioned.size();
+    }
+
+    /**
+     * @return a new set of the usernames mentioned so far, in lowercase, each
+     *         at most once
+     */
+    public Set<String> mentions() {
+        return new HashSet<>(mentioned.names());
+    }
+}
@@ -0,0 +1,121 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MentionScanner finds username-mentions in tweet texts, as defined by
+ * Extract.getMentionedUsers(): "@" followed by a Twitter username, neither
+ * immediately preceded nor immediately followed by a character valid in a
+ * Twitter username.
+ *
+ * The scanner reads each character of a text once and allocates nothing, so
+ * texts without mentions cost only the scan. Mentions are reported as spans
+ * of the text (the username, without its "@"), to be turned into Strings,
+ * or interned in a UsernameDictionary, only by callers that need to.
+ */
+public class MentionScanner {
+
+    /**
+     * A receiver of the spans of mentioned usernames.
+     */
+    @FunctionalInterface
+    public interface SpanConsumer {
+
+        /**
+         * Receive one mention.
+         *
+         * @param start
+         *            index in the text of the first character of the username
+         * @param end
+         *            index in the text after the last character of the username
+         */
+        void accept(int start, int end);
+    }
+
+    /**
+     * Report every username-mention in a text, in order.
+     *
+     * @param text
+     *            text to scan
+     * @param sink
+     *            receives the span of each mentioned username, not including
+     *            the "@"
+     */
+    public static void scan(CharSequence text, SpanConsumer sink) {
+        for (int start = find(text, 0); start >= 0; ) {
+            int end = usernameEnd(text, start);
+            sink.accept(start, end);
+            start = find(text, end);
+        }
+    }
+
+    /**
+     * Get the username-mentions in a text.
+     *
+     * @param text
+     *            text to scan
+     * @return the mentioned usernames, without their "@", in the order and
+     *         case they appear in text, including repeats
+     */
+    public static List<String> mentions(CharSequence text) {
+        List<String> mentions = new ArrayList<>();
+        scan(text, (start, end) -> mentions.add(text.subSequence(start, end).toString()));
+        return mentions;
+    }
+
+    /**
+     * Find the next username-mention in a text.
+     *
+     * @param text
+     *            text to scan
+     * @param from
+     *            index at which to start looking; requires that from is 0, or
+     *            the end of a mention found before, or an index whose
+     *            preceding character is not valid in a username
+     * @return index of the first character of the next mentioned username at
+     *         or after from (the index after its "@"), or -1 if there is none
+     */
+    public static int find(CharSequence text, int from) {
+        int length = text.length();
+        // a username starts after an "@" that does not follow a username character
+        boolean afterUsernameChar = from > 0 && isUsernameChar(text.charAt(from - 1));
+        for (int i = from; i < length - 1; i++) {
+            char c = text.charAt(i);
+            if (c == '@' && !afterUsernameChar && isUsernameChar(text.charAt(i + 1))) {
+                return i + 1;
+            }
+            afterUsernameChar = isUsernameChar(c);
+        }
+        return -1;
+    }
+
+    /**
+     * @param text
+     *            text containing a mention
+     * @param start
+     *            index of the first character of a mentioned username, as
+     *            returned by find()
+     * @return index after the last character of that username
+     */
+    public static int usernameEnd(CharSequence text, int start) {
+        int end = start;
+        while (end < text.length() && isUsernameChar(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * @param c
+     *            a character
+     * @return true iff c may appear in a Twitter username, as defined by
+     *         Tweet.getAuthor()'s spec: a letter A-Z or a-z, digit, "_" or "-"
+     */
+    public static boolean isUsernameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+    }
+}
@@ -0,0 +1,457 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * PositionBitmap is an immutable set of nonnegative ints, such as the positions
+ * in a list of the tweets that match a query, compressed so that both sparse
+ * and dense sets are small and fast to combine.
+ *
+ * The ints are grouped into chunks of 2^16 by their high 16 bits. A chunk
+ * with few members keeps them as a sorted array of their low 16 bits; a
+ * chunk with many keeps a 2^16-bit bitmap. Empty chunks take no space. (This
+ * is the layout of Roaring bitmaps.)
+ */
+public class PositionBitmap {
+
+    // a chunk with more members than this is kept as a bitmap
+    private static final int ARRAY_MAX = 4096;
+    private static final int CHUNK_WORDS = (1 << 16) / 64;
+
+    // operations of combine()
+    private static final int AND = 0;
+    private static final int OR = 1;
+    private static final int AND_NOT = 2;
+
+    private static final PositionBitmap EMPTY = new PositionBitmap(new char[0], new Chunk[0]);
+
+    private final char[] keys;
+    private final Chunk[] chunks;
+    private final int cardinality;
+    /* Abstraction function:
+     *    represents the set of (keys[i] << 16 | low) for every i and every
+     *    low in chunks[i]
+     * Rep invariant:
+     *    keys.length == chunks.length, keys is strictly increasing
+     *    every chunk is nonempty; an ArrayChunk has at most ARRAY_MAX members
+     *      and a BitsChunk more
+     *    cardinality is the total number of members of chunks
+     * Safety from rep exposure:
+     *    all fields are private and final, chunks are never mutated after
+     *    construction, and no array is returned
+     */
+
+    private PositionBitmap(char[] keys, Chunk[] chunks) {
+        this.keys = keys;
+        this.chunks = chunks;
+        int cardinality = 0;
+        for (Chunk chunk : chunks) {
+            cardinality += chunk.cardinality();
+        }
+        this.cardinality = cardinality;
+    }
+
+    /*
+     * The members of a bitmap that share their high 16 bits, given by their
+     * low 16 bits.
+     */
+    private static abstract class Chunk {
+        abstract int cardinality();
+        abstract boolean contains(char low);
+        // a new array of CHUNK_WORDS words with bit low set iff low is a member
+        abstract long[] bits();
+        // report (high << 16 | low) for each member low, in increasing order
+        abstract void forEach(int high, IntConsumer action);
+    }
+
+    private static class ArrayChunk extends Chunk {
+        // sorted, distinct, nonempty
+        private final char[] lows;
+
+        ArrayChunk(char[] lows) {
+            this.lows = lows;
+        }
+
+        @Override int cardinality() {
+            return lows.length;
+        }
+
+        @Override boolean contains(char low) {
+            return Arrays.binarySearch(lows, low) >= 0;
+        }
+
+        @Override long[] bits() {
+            long[] words = new long[CHUNK_WORDS];
+            for (char low : lows) {
+                words[low >>> 6] |= 1L << low;
+            }
+            return words;
+        }
+
+        @Override void forEach(int high, IntConsumer action) {
+            for (char low : lows) {
+                action.accept(high << 16 | low);
+            }
+        }
+    }
+
+    private static class BitsChunk extends Chunk {
+        // CHUNK_WORDS words, with more than ARRAY_MAX bits set
+        private final long[] words;
+        private final int cardinality;
+
+        BitsChunk(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override int cardinality() {
+            return cardinality;
+        }
+
+        @Override boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override long[] bits() {
+            return words.clone();
+        }
+
+        @Override void forEach(int high, IntConsumer action) {
+            for (int w = 0; w < words.length; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    action.accept(high << 16 | w << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+    }
+
+    /*
+     * @param words CHUNK_WORDS words, not used by the caller afterwards
+     * @return the chunk whose members are the bits set in words, or null if
+     *         there are none
+     */
+    private static Chunk fromBits(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality == 0) {
+            return null;
+        }
+        if (cardinality > ARRAY_MAX) {
+            return new BitsChunk(words, cardinality);
+        }
+        char[] lows = new char[cardinality];
+        int n = 0;
+        for (int w = 0; w < words.length; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                lows[n++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return new ArrayChunk(lows);
+    }
+
+    /*
+     * @return the chunk of the members of chunk that are (if keepIfInOther)
+     *         or are not (otherwise) members of other, or null if there are none
+     */
+    private static Chunk filter(ArrayChunk chunk, Chunk other, boolean keepIfInOther) {
+        char[] lows = new char[chunk.lows.length];
+        int n = 0;
+        for (char low : chunk.lows) {
+            if (other.contains(low) == keepIfInOther) {
+                lows[n++] = low;
+            }
+        }
+        return n == 0 ? null : new ArrayChunk(n == lows.length ? lows : Arrays.copyOf(lows, n));
+    }
+
+    private static Chunk and(Chunk a, Chunk b) {
+        if (a instanceof ArrayChunk) {
+            return filter((ArrayChunk) a, b, true);
+        }
+        if (b instanceof ArrayChunk) {
+            return filter((ArrayChunk) b, a, true);
+        }
+        long[] words = a.bits();
+        long[] other = ((BitsChunk) b).words;
+        for (int w = 0; w < words.length; w++) {
+            words[w] &= other[w];
+        }
+        return fromBits(words);
+    }
+
+    private static Chunk or(Chunk a, Chunk b) {
+        if (a instanceof ArrayChunk && b instanceof ArrayChunk
+                && a.cardinality() + b.cardinality() <= ARRAY_MAX) {
+            char[] x = ((ArrayChunk) a).lows;
+            char[] y = ((ArrayChunk) b).lows;
+            char[] lows = new char[x.length + y.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < x.length || j < y.length) {
+                if (j == y.length || (i < x.length && x[i] < y[j])) {
+                    lows[n++] = x[i++];
+                } else if (i == x.length || y[j] < x[i]) {
+                    lows[n++] = y[j++];
+                } else {
+                    lows[n++] = x[i++];
+                    j++;
+                }
+            }
+            return new ArrayChunk(n == lows.length ? lows : Arrays.copyOf(lows, n));
+        }
+        long[] words = a.bits();
+        long[] other = b.bits();
+        for (int w = 0; w < words.length; w++) {
+            words[w] |= other[w];
+        }
+        return fromBits(words);
+    }
+
+    private static Chunk andNot(Chunk a, Chunk b) {
+        if (a instanceof ArrayChunk) {
+            return filter((ArrayChunk) a, b, false);
+        }
+        long[] words = a.bits();
+        long[] other = b.bits();
+        for (int w = 0; w < words.length; w++) {
+            words[w] &= ~other[w];
+        }
+        return fromBits(words);
+    }
+
+    /*
+     * Builds a bitmap from ints given in increasing order, one chunk at a time.
+     */
+    private static class Appender {
+        private char[] keys = new char[4];
+        private Chunk[] chunks = new Chunk[4];
+        private int size = 0;
+        private int high = -1;
+        private long[] words = new long[CHUNK_WORDS];
+
+        void add(int position) {
+            if (position >>> 16 != high) {
+                flush();
+                high = position >>> 16;
+            }
+            words[(position & 0xFFFF) >>> 6] |= 1L << position;
+        }
+
+        private void flush() {
+            if (high < 0) {
+                return;
+            }
+            Chunk chunk = fromBits(words);
+            if (chunk instanceof BitsChunk) {
+                words = new long[CHUNK_WORDS];
+            } else {
+                Arrays.fill(words, 0);
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                chunks = Arrays.copyOf(chunks, size * 2);
+            }
+            keys[size] = (char) high;
+            chunks[size++] = chunk;
+        }
+
+        PositionBitmap build() {
+            flush();
+            return new PositionBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(chunks, size));
+        }
+    }
+
+    /**
+     * @return the empty set
+     */
+    public static PositionBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param positions
+     *            nonnegative ints in strictly increasing order; not modified
+     *            by this method
+     * @return the set of positions
+     */
+    public static PositionBitmap of(int... positions) {
+        Appender appender = new Appender();
+        int previous = -1;
+        for (int position : positions) {
+            if (position <= previous) {
+                throw new IllegalArgumentException("positions not increasing at " + position);
+            }
+            appender.add(position);
+            previous = position;
+        }
+        return appender.build();
+    }
+
+    /**
+     * @param end
+     *            nonnegative int
+     * @return the set of 0 up to (but not including) end
+     */
+    public static PositionBitmap range(int end) {
+        Appender appender = new Appender();
+        for (int position = 0; position < end; position++) {
+            appender.add(position);
+        }
+        return appender.build();
+    }
+
+    /**
+     * @return the number of members of this set
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return true iff this set has no members
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * @param position
+     *            an int
+     * @return true iff position is a member of this set
+     */
+    public boolean contains(int position) {
+        if (position < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, (char) (position >>> 16));
+        return i >= 0 && chunks[i].contains((char) position);
+    }
+
+    /**
+     * @param other
+     *            a set
+     * @return the intersection of this set and other
+     */
+    public PositionBitmap and(PositionBitmap other) {
+        return combine(other, AND);
+    }
+
+    /**
+     * @param other
+     *            a set
+     * @return the union of this set and other
+     */
+    public PositionBitmap or(PositionBitmap other) {
+        return combine(other, OR);
+    }
+
+    /**
+     * @param other
+     *            a set
+     * @return the members of this set that are not members of other
+     */
+    public PositionBitmap andNot(PositionBitmap other) {
+        return combine(other, AND_NOT);
+    }
+
+    /*
+     * Merge the chunks of this and other by key.
+     *
+     * @param op AND, OR or AND_NOT
+     * @return this op other
+     */
+    private PositionBitmap combine(PositionBitmap other, int op) {
+        char[] newKeys = new char[keys.length + other.keys.length];
+        Chunk[] newChunks = new Chunk[newKeys.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            Chunk chunk;
+            char key;
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                key = keys[i];
+                chunk = op == AND ? null : chunks[i];
+                i++;
+            } else if (i == keys.length || other.keys[j] < keys[i]) {
+                key = other.keys[j];
+                chunk = op == OR ? other.chunks[j] : null;
+                j++;
+            } else {
+                key = keys[i];
+                switch (op) {
+                case AND: chunk = and(chunks[i], other.chunks[j]); break;
+                case OR: chunk = or(chunks[i], other.chunks[j]); break;
+                default: chunk = andNot(chunks[i], other.chunks[j]); break;
+                }
+                i++;
+                j++;
+            }
+            if (chunk != null) {
+                newKeys[n] = key;
+                newChunks[n++] = chunk;
+            }
+        }
+        return new PositionBitmap(Arrays.copyOf(newKeys, n), Arrays.copyOf(newChunks, n));
+    }
+
+    /**
+     * @param keep
+     *            predicate on members, called once per member in increasing order
+     * @return the members of this set for which keep is true
+     */
+    public PositionBitmap filter(IntPredicate keep) {
+        Appender appender = new Appender();
+        forEach(position -> {
+            if (keep.test(position)) {
+                appender.add(position);
+            }
+        });
+        return appender.build();
+    }
+
+    /**
+     * @param action
+     *            called with each member of this set, in increasing order
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i].forEach(keys[i], action);
+        }
+    }
+
+    /**
+     * @return a new array of the members of this set, in increasing order
+     */
+    public int[] toArray() {
+        int[] positions = new int[cardinality];
+        int[] n = { 0 };
+        forEach(position -> positions[n[0]++] = position);
+        return positions;
+    }
+
+    @Override public boolean equals(Object thatObject) {
+        if (!(thatObject instanceof PositionBitmap)) {
+            return false;
+        }
+        PositionBitmap that = (PositionBitmap) thatObject;
+        return cardinality == that.cardinality && Arrays.equals(toArray(), that.toArray());
+    }
+
+    @Override public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,377 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * QueryCache answers Filter and SocialNetwork queries over a dataset of tweets,
+ * remembering recent results so that asking the same query again costs a map
+ * lookup. A dataset is loaded with load(), which gives it a new version and
+ * makes every result cached for an earlier version unreachable.
+ *
+ * Results are cached under the dataset version and the query normalized to
+ * the same form for every spelling with the same answer: usernames in
+ * lowercase, and words in lowercase, sorted and without duplicates. The
+ * cache is bounded by an estimate of the memory its results hold; when it is
+ * full, the least recently used results are evicted. Cached results are
+ * shared by every caller that asks for them, so they are unmodifiable.
+ *
+ * A QueryCache is safe for use by several threads at once. Results are
+ * computed without holding the cache's lock, so a slow query does not delay
+ * other threads' hits; threads that ask for a query already being computed
+ * wait for that computation instead of repeating it.
+ */
+public class QueryCache {
+
+    // estimated bytes of object header, reference, and per-entry map overhead
+    private static final long OBJECT_BYTES = 16;
+    private static final long REFERENCE_BYTES = 8;
+    private static final long ENTRY_BYTES = 64;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, CompletableFuture<Object>> computing = new HashMap<>();
+    private List<Tweet> tweets = Collections.emptyList();
+    private long version = 0;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    /* Rep invariant:
+     *    every key of entries has version == this.version
+     *    bytes is the sum of the bytes of entries, and bytes <= maxBytes
+     *    entries is in order of least to most recent use
+     *    no key is in both entries and computing; keys of computing may have
+     *      an earlier version, while their computation finishes
+     * Safety from rep exposure:
+     *    tweets is a private copy (or an immutable TweetStore); results are
+     *    unmodifiable and hold only immutable tweets and strings
+     * Thread safety argument:
+     *    all mutable fields are guarded by this object's lock; a result is
+     *    computed outside the lock from the dataset read under it, which is
+     *    never modified, and is cached only if its version is still current
+     */
+
+    /**
+     * Make an empty cache of an empty dataset.
+     *
+     * @param maxBytes
+     *            bound on the estimated bytes of cached results, nonnegative
+     */
+    public QueryCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("negative maxBytes " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Load a new dataset, invalidating every cached result.
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     *            The cache keeps its own copy, so later changes to the list do
+     *            not affect it.
+     * @return the version of the new dataset, greater than that of every
+     *         dataset loaded before
+     */
+    public synchronized long load(List<Tweet> tweets) {
+        this.tweets = tweets instanceof TweetStore ? tweets : new ArrayList<>(tweets);
+        entries.clear();
+        bytes = 0;
+        return ++version;
+    }
+
+    /**
+     * @return the version of the current dataset, 0 if none has been loaded
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return Filter.writtenBy(tweets, username) of the current dataset,
+     *         unmodifiable
+     */
+    public List<Tweet> writtenBy(String username) {
+        String normalized = username.toLowerCase(Locale.ROOT);
+        return cached("writtenBy", normalized, data -> Filter.writtenBy(data, normalized), QueryCache::tweetsBytes);
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return Filter.inTimespan(tweets, timespan) of the current dataset,
+     *         unmodifiable
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        return cached("inTimespan", timespan, data -> Filter.inTimespan(data, timespan), QueryCache::tweetsBytes);
+    }
+
+    /**
+     * @param words
+     *            a list of words, as for Filter.containing()
+     * @return Filter.containing(tweets, words) of the current dataset,
+     *         unmodifiable
+     */
+    public List<Tweet> containing(List<String> words) {
+        Set<String> normalized = new TreeSet<>();
+        for (String word : words) {
+            normalized.add(word.toLowerCase());
+        }
+        List<String> sorted = new ArrayList<>(normalized);
+        return cached("containing", sorted, data -> Filter.containing(data, sorted), QueryCache::tweetsBytes);
+    }
+
+    /**
+     * @return SocialNetwork.guessFollowsGraph(tweets) of the current dataset,
+     *         unmodifiable, as are its sets
+     */
+    public Map<String, Set<String>> followsGraph() {
+        return cached("followsGraph", "", data -> {
+            Map<String, Set<String>> graph = new HashMap<>();
+            for (Map.Entry<String, Set<String>> entry : SocialNetwork.guessFollowsGraph(data).entrySet()) {
+                graph.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+            }
+            return graph;
+        }, QueryCache::graphBytes);
+    }
+
+    /**
+     * @return SocialNetwork.influencers(followsGraph()) of the current
+     *         dataset, unmodifiable
+     */
+    public List<String> influencers() {
+        // compute from the data being cached, not from followsGraph(), which
+        // may already see a newer dataset than the one this result is for
+        return cached("influencers", "", data -> SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(data)),
+                QueryCache::stringsBytes);
+    }
+
+    /*
+     * Get the cached result of a query on the current dataset, or compute it,
+     * cache it if it fits and the dataset has not changed meanwhile, and
+     * return it. The lock is held only to look up and to insert, never while
+     * computing; a query already being computed by another thread is waited
+     * for rather than computed again.
+     *
+     * @param kind names the method asked
+     * @param query the normalized arguments of the query, immutable
+     * @param compute computes the result on a dataset
+     * @param size estimates the bytes of a result
+     * @return the result, unmodifiable
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String kind, Object query, Function<List<Tweet>, T> compute, ToLongFunction<T> size) {
+        Key key;
+        List<Tweet> data;
+        CompletableFuture<Object> future;
+        synchronized (this) {
+            key = new Key(version, kind, query);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return (T) entry.result;
+            }
+            future = computing.get(key);
+            if (future != null) {
+                hits++;
+                data = null;
+            } else {
+                misses++;
+                future = new CompletableFuture<>();
+                computing.put(key, future);
+                data = tweets;
+            }
+        }
+        if (data == null) {
+            return (T) await(future);
+        }
+
+        T result;
+        long resultBytes;
+        try {
+            result = unmodifiable(compute.apply(data));
+            resultBytes = ENTRY_BYTES + size.applyAsLong(result) + stringBytes(query.toString());
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                computing.remove(key);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            computing.remove(key);
+            if (key.version == version && resultBytes <= maxBytes) {
+                entries.put(key, new Entry(result, resultBytes));
+                bytes += resultBytes;
+                evict();
+            }
+        }
+        future.complete(result);
+        return result;
+    }
+
+    /*
+     * Wait for another thread's computation of a result.
+     *
+     * @return the result, or throws what the computation threw
+     */
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T unmodifiable(T result) {
+        if (result instanceof List) {
+            return (T) Collections.unmodifiableList((List<?>) result);
+        }
+        if (result instanceof Map) {
+            return (T) Collections.unmodifiableMap((Map<?, ?>) result);
+        }
+        return result;
+    }
+
+    /*
+     * Evict least recently used entries until the cache is within maxBytes.
+     */
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /*
+     * Estimates of the bytes held by cached results, not counting the tweets
+     * and strings that the dataset holds anyway.
+     */
+
+    private static long tweetsBytes(List<Tweet> tweets) {
+        return OBJECT_BYTES + REFERENCE_BYTES * tweets.size();
+    }
+
+    private static long stringsBytes(List<String> strings) {
+        long total = OBJECT_BYTES;
+        for (String s : strings) {
+            total += REFERENCE_BYTES + stringBytes(s);
+        }
+        return total;
+    }
+
+    private static long graphBytes(Map<String, Set<String>> graph) {
+        long total = OBJECT_BYTES;
+        for (Map.Entry<String, Set<String>> entry : graph.entrySet()) {
+            total += ENTRY_BYTES + stringBytes(entry.getKey()) + OBJECT_BYTES
+                    + (ENTRY_BYTES + REFERENCE_BYTES) * entry.getValue().size();
+        }
+        return total;
+    }
+
+    private static long stringBytes(String s) {
+        return OBJECT_BYTES + OBJECT_BYTES + 2L * s.length();
+    }
+
+    private static class Key {
+        private final long version;
+        private final String kind;
+        private final Object query;
+
+        Key(long version, String kind, Object query) {
+            this.version = version;
+            this.kind = kind;
+            this.query = query;
+        }
+
+        @Override public boolean equals(Object thatObject) {
+            if (!(thatObject instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) thatObject;
+            return version == that.version && kind.equals(that.kind) && query.equals(that.query);
+        }
+
+        @Override public int hashCode() {
+            return (Long.hashCode(version) * 31 + kind.hashCode()) * 31 + query.hashCode();
+        }
+    }
+
+    private static class Entry {
+        private final Object result;
+        private final long bytes;
+
+        Entry(Object result, long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * @return the number of results cached
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated bytes held by the results cached
+     */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of queries answered from the cache so far,
+     *         including those that waited for another thread to compute
+     *         the same query
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of queries computed because their result was not
+     *         cached so far
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of results evicted to stay within the bound so far
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
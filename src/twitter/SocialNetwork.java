@@ -39,28 +39,35 @@ public class SocialNetwork {
      *         either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
-        Map<String, Set<String>> followsGraph = new HashMap<>();
-
-        for (Tweet tweet : tweets) {
-            String author = tweet.getAuthor().toLowerCase();
-
-            // Get all mentioned users in this tweet
-            Set<String> mentioned = Extract.getMentionedUsers(Arrays.asList(tweet));
+        return build(tweets, new FollowsGraphBuilder()).graph();
+    }
 
-            // Ensure author has an entry in the graph
-            if (!followsGraph.containsKey(author)) {
-                followsGraph.put(author, new HashSet<>());
-            }
+    /**
+     * Guess who might follow whom, from evidence found in tweets, with users
+     * given by id.
+     *
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @param usernames
+     *            dictionary in which the authors and mentioned usernames are
+     *            interned
+     * @return the social network of guessFollowsGraph(tweets), with each
+     *         username replaced by its id in usernames: map[A] is the set of
+     *         ids that the user with id A follows. Every author is a key.
+     */
+    public static Map<Integer, IdSet> guessFollowsGraph(List<Tweet> tweets, UsernameDictionary usernames) {
+        return build(tweets, new FollowsGraphBuilder(usernames)).idGraph();
+    }
 
-            // Add all mentioned users to author's follows set (except self)
-            for (String mentionedUser : mentioned) {
-                if (!mentionedUser.equalsIgnoreCase(author)) {
-                    followsGraph.get(author).add(mentionedUser);
-                }
-            }
+    private static FollowsGraphBuilder build(List<Tweet> tweets, FollowsGraphBuilder builder) {
+        int[] authors = Extract.getAuthorIds(tweets, builder.usernames());
+        int i = 0;
+        for (CharSequence text : Extract.texts(tweets)) {
+            builder.startTweet(authors[i++]);
+            builder.addMentions(text);
         }
-
-        return followsGraph;
+        return builder;
     }
 
     /**
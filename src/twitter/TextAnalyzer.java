@@ -0,0 +1,264 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TextAnalyzer walks the characters of a tweet text once and reports, to
+ * consumers registered with it, the spans of
+ * - words: nonempty runs of nonspace characters, as in Filter.containing(),
+ *   where space characters are those matched by the regex \s;
+ * - mentions: the usernames of username-mentions (without the "@"), as in
+ *   Extract.getMentionedUsers();
+ * - hashtags: the tags of hashtags (without the "#"): "#" not preceded by a
+ *   letter, digit or "_", followed by a maximal nonempty run of letters,
+ *   digits and "_".
+ *
+ * Several extractors that need the same text, such as a MentionAccumulator,
+ * a FollowsGraphBuilder and a Filter.WordMatch, can share one analyzer, so
+ * that each text is read once for all of them and never copied. Spans are
+ * reported in order of their start within each kind; a consumer that needs a
+ * span after it returns must copy it.
+ *
+ * Only the kinds of span that have consumers are looked for, so an analyzer
+ * with only word consumers does no work for mentions or hashtags. A consumer
+ * that has seen enough of a text, such as one that has found a match, can
+ * call stop() to end the analysis of that text.
+ */
+public class TextAnalyzer {
+
+    /**
+     * A receiver of spans of a text.
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+
+        /**
+         * Receive one span.
+         *
+         * @param text
+         *            the text being analyzed, valid only during this call
+         * @param start
+         *            index in text of the first character of the span
+         * @param end
+         *            index in text after the last character of the span
+         */
+        void accept(CharSequence text, int start, int end);
+    }
+
+    private final List<TokenConsumer> words = new ArrayList<>();
+    private final List<TokenConsumer> mentions = new ArrayList<>();
+    private final List<TokenConsumer> hashtags = new ArrayList<>();
+    private boolean stopped = false;
+    /* Rep invariant:
+     *    stopped is false except while analyze() is running
+     */
+
+    /**
+     * Make an analyzer with no consumers.
+     */
+    public TextAnalyzer() {
+    }
+
+    /**
+     * Register a consumer of words.
+     *
+     * @param consumer
+     *            receives each word of each text analyzed from now on
+     * @return this analyzer
+     */
+    public TextAnalyzer onWord(TokenConsumer consumer) {
+        words.add(consumer);
+        return this;
+    }
+
+    /**
+     * Register a consumer of mentions.
+     *
+     * @param consumer
+     *            receives the username of each mention in each text analyzed
+     *            from now on
+     * @return this analyzer
+     */
+    public TextAnalyzer onMention(TokenConsumer consumer) {
+        mentions.add(consumer);
+        return this;
+    }
+
+    /**
+     * Register a consumer of hashtags.
+     *
+     * @param consumer
+     *            receives the tag of each hashtag in each text analyzed from
+     *            now on
+     * @return this analyzer
+     */
+    public TextAnalyzer onHashtag(TokenConsumer consumer) {
+        hashtags.add(consumer);
+        return this;
+    }
+
+    /**
+     * Report the words, mentions and hashtags of a text to the registered
+     * consumers.
+     *
+     * @param text
+     *            text of a tweet
+     */
+    public void analyze(CharSequence text) {
+        stopped = false;
+        try {
+            if (mentions.isEmpty() && hashtags.isEmpty()) {
+                analyzeWords(text);
+            } else {
+                analyzeAll(text);
+            }
+        } finally {
+            stopped = false;
+        }
+    }
+
+    /**
+     * Stop the analysis of the text being analyzed: no more of its spans are
+     * reported, to any consumer, and analyze() returns. Meant to be called by
+     * a consumer during analyze(); has no effect at other times.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private void analyzeWords(CharSequence text) {
+        for (int start = wordStart(text, 0); start >= 0 && !stopped; ) {
+            int end = wordEnd(text, start);
+            report(words, text, start, end);
+            start = wordStart(text, end);
+        }
+    }
+
+    private void analyzeAll(CharSequence text) {
+        boolean findWords = !words.isEmpty();
+        boolean findMentions = !mentions.isEmpty();
+        boolean findHashtags = !hashtags.isEmpty();
+        int length = text.length();
+        int wordStart = -1;
+        int mentionStart = -1;
+        int tagStart = -1;
+        boolean afterUsernameChar = false;
+        boolean afterTagChar = false;
+        for (int i = 0; i < length && !stopped; i++) {
+            char c = text.charAt(i);
+
+            if (!findWords) {
+                // no words wanted
+            } else if (isSpace(c)) {
+                if (wordStart >= 0) {
+                    report(words, text, wordStart, i);
+                    wordStart = -1;
+                }
+            } else if (wordStart < 0) {
+                wordStart = i;
+            }
+
+            if (findMentions) {
+                boolean usernameChar = MentionScanner.isUsernameChar(c);
+                if (mentionStart >= 0 && !usernameChar) {
+                    if (i > mentionStart) {
+                        report(mentions, text, mentionStart, i);
+                    }
+                    mentionStart = -1;
+                }
+                if (c == '@' && !afterUsernameChar) {
+                    mentionStart = i + 1;
+                }
+                afterUsernameChar = usernameChar;
+            }
+
+            if (findHashtags) {
+                boolean tagChar = isTagChar(c);
+                if (tagStart >= 0 && !tagChar) {
+                    if (i > tagStart) {
+                        report(hashtags, text, tagStart, i);
+                    }
+                    tagStart = -1;
+                }
+                if (c == '#' && !afterTagChar) {
+                    tagStart = i + 1;
+                }
+                afterTagChar = tagChar;
+            }
+        }
+        if (wordStart >= 0) {
+            report(words, text, wordStart, length);
+        }
+        if (mentionStart >= 0 && length > mentionStart) {
+            report(mentions, text, mentionStart, length);
+        }
+        if (tagStart >= 0 && length > tagStart) {
+            report(hashtags, text, tagStart, length);
+        }
+    }
+
+    private void report(List<TokenConsumer> consumers, CharSequence text, int start, int end) {
+        for (int i = 0; i < consumers.size() && !stopped; i++) {
+            consumers.get(i).accept(text, start, end);
+        }
+    }
+
+    /**
+     * Find the next word of a text, as reported to word consumers.
+     *
+     * @param text
+     *            a text
+     * @param from
+     *            index in text to start looking at
+     * @return the index of the first character of the first word of text that
+     *         starts at or after from, or -1 if there is none
+     */
+    public static int wordStart(CharSequence text, int from) {
+        int length = text.length();
+        for (int i = from; i < length; i++) {
+            if (!isSpace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param text
+     *            a text
+     * @param start
+     *            index in text of the first character of a word
+     * @return the index in text after the last character of that word
+     */
+    public static int wordEnd(CharSequence text, int start) {
+        int length = text.length();
+        int end = start;
+        while (end < length && !isSpace(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * @param c
+     *            a character
+     * @return true iff c is a space character, one matched by the regex \s:
+     *         space, tab, newline, vertical tab, form feed or carriage return
+     */
+    public static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * @param c
+     *            a character
+     * @return true iff c may appear in the tag of a hashtag: a letter, digit or "_"
+     */
+    public static boolean isTagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -0,0 +1,35 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/*
+ * A TextArena is an append-only sequence of texts held in bulk storage rather
+ * than as one String object per text. Texts are read back either as new
+ * Strings or as read-only CharSequence views onto the storage.
+ */
+interface TextArena {
+
+    /*
+     * Append a text.
+     *
+     * @return the index of the text
+     */
+    int add(CharSequence text);
+
+    /*
+     * @return the number of texts in the arena
+     */
+    int size();
+
+    /*
+     * @return the text at index, as a new String
+     */
+    String get(int index);
+
+    /*
+     * @return a read-only view of the text at index, reading the arena's
+     *         storage directly
+     */
+    CharSequence view(int index);
+}
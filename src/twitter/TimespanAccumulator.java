@@ -0,0 +1,101 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * TimespanAccumulator computes the time period spanned by tweets that are
+ * given to it one at a time, such as tweets streamed from a server, without
+ * keeping the tweets. It holds only the earliest and latest timestamp seen.
+ *
+ * Accumulators over different parts of a stream of tweets can be combined
+ * with merge(), in any grouping, to get the accumulator for the whole stream;
+ * so separate threads or shards can each fill their own accumulator. An
+ * accumulator is not safe for use by several threads at once.
+ */
+public class TimespanAccumulator implements Consumer<Tweet> {
+
+    private Instant start = null;
+    private Instant end = null;
+    private long count = 0;
+    /* Rep invariant:
+     *    start and end are both null iff count == 0
+     *    otherwise !start.isAfter(end)
+     */
+
+    /**
+     * Make an accumulator that has seen no tweets.
+     */
+    public TimespanAccumulator() {
+    }
+
+    /**
+     * Add a tweet's timestamp.
+     *
+     * @param tweet
+     *            a tweet
+     */
+    @Override public void accept(Tweet tweet) {
+        add(tweet.getTimestamp());
+    }
+
+    /**
+     * Add a timestamp.
+     *
+     * @param timestamp
+     *            date/time when a tweet was sent
+     */
+    public void add(Instant timestamp) {
+        if (count++ == 0) {
+            start = timestamp;
+            end = timestamp;
+        } else if (timestamp.isBefore(start)) {
+            start = timestamp;
+        } else if (timestamp.isAfter(end)) {
+            end = timestamp;
+        }
+    }
+
+    /**
+     * Add everything another accumulator has seen.
+     *
+     * @param other
+     *            accumulator, not modified by this method
+     * @return this accumulator
+     */
+    public TimespanAccumulator merge(TimespanAccumulator other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0 || other.start.isBefore(start)) {
+            start = other.start;
+        }
+        if (count == 0 || other.end.isAfter(end)) {
+            end = other.end;
+        }
+        count += other.count;
+        return this;
+    }
+
+    /**
+     * @return the number of timestamps seen
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return a minimum-length time interval that contains every timestamp
+     *         seen so far; if none has been seen, the empty interval at
+     *         Instant.EPOCH, as Extract.getTimespan() returns for no tweets
+     */
+    public Timespan timespan() {
+        if (count == 0) {
+            return new Timespan(Instant.EPOCH, Instant.EPOCH);
+        }
+        return new Timespan(start, end);
+    }
+}
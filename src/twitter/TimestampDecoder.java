@@ -0,0 +1,199 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * TimestampDecoder decodes the created_at timestamps of the Twitter API, like
+ * "Wed Feb 17 10:00:00 +0000 2016", with the same result as parsing them with
+ * FORMAT.
+ *
+ * Timestamps in the fixed 30-character layout are decoded straight from their
+ * characters without allocating. The decoder remembers the day-of-week,
+ * date, offset and year of the last timestamp it decoded, so a timestamp that
+ * shares them only needs its time of day decoded. Anything outside the fixed
+ * layout is handed to FORMAT.
+ *
+ * A TimestampDecoder is mutable and not safe for use by several threads at once.
+ */
+public class TimestampDecoder {
+
+    /** The created_at format of the Twitter API. */
+    public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US);
+
+    private static final int LENGTH = 30;
+    private static final String DAYS = "MonTueWedThuFriSatSun";
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    // characters of the last decoded timestamp, and its epoch second at midnight
+    private final char[] lastDate = new char[LENGTH];
+    private boolean hasLastDate = false;
+    private long lastMidnight;
+    /* Rep invariant:
+     *    hasLastDate implies lastDate holds a timestamp in the fixed layout whose
+     *    day-of-week, date, offset and year are valid, and lastMidnight is the
+     *    epoch second of 00:00:00 on that date at that offset
+     */
+
+    /**
+     * Decode a created_at timestamp.
+     *
+     * @param createdAt
+     *            timestamp in the form of FORMAT
+     * @return the epoch second of the timestamp
+     * @throws DateTimeParseException if createdAt cannot be parsed by FORMAT
+     */
+    public long decodeEpochSecond(CharSequence createdAt) {
+        if (createdAt.length() != LENGTH || !isLayout(createdAt)) {
+            return parseSlowly(createdAt);
+        }
+        int hour = twoDigits(createdAt, 11);
+        int minute = twoDigits(createdAt, 14);
+        int second = twoDigits(createdAt, 17);
+        if (hour > 23 || minute > 59 || second > 59) {
+            return parseSlowly(createdAt);
+        }
+        if (!sameDateAsLast(createdAt) && !decodeDate(createdAt)) {
+            return parseSlowly(createdAt);
+        }
+        return lastMidnight + hour * 3600 + minute * 60 + second;
+    }
+
+    /**
+     * Decode a created_at timestamp.
+     *
+     * @param createdAt
+     *            timestamp in the form of FORMAT
+     * @return the instant of the timestamp
+     * @throws DateTimeParseException if createdAt cannot be parsed by FORMAT
+     */
+    public Instant decode(CharSequence createdAt) {
+        return Instant.ofEpochSecond(decodeEpochSecond(createdAt));
+    }
+
+    /*
+     * @return true if the separators and digits of the fixed layout are where
+     *         they should be
+     */
+    private static boolean isLayout(CharSequence s) {
+        return s.charAt(3) == ' ' && s.charAt(7) == ' ' && s.charAt(10) == ' '
+                && s.charAt(13) == ':' && s.charAt(16) == ':' && s.charAt(19) == ' '
+                && (s.charAt(20) == '+' || s.charAt(20) == '-') && s.charAt(25) == ' '
+                && areDigits(s, 8, 10) && areDigits(s, 11, 13) && areDigits(s, 14, 16)
+                && areDigits(s, 17, 19) && areDigits(s, 21, 25) && areDigits(s, 26, 30);
+    }
+
+    private static boolean areDigits(CharSequence s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int twoDigits(CharSequence s, int at) {
+        return (s.charAt(at) - '0') * 10 + (s.charAt(at + 1) - '0');
+    }
+
+    /*
+     * @return true if createdAt has the same day-of-week, date, offset and year
+     *         as the last timestamp decoded
+     */
+    private boolean sameDateAsLast(CharSequence createdAt) {
+        if (!hasLastDate) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            if ((i < 11 || i > 18) && createdAt.charAt(i) != lastDate[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Decode the day-of-week, date, offset and year of a timestamp in the fixed
+     * layout and remember them.
+     *
+     * @return false, leaving the remembered date unchanged, if they are not
+     *         ones this decoder can vouch for
+     */
+    private boolean decodeDate(CharSequence s) {
+        int month = indexOfName(MONTHS, s, 4) + 1;
+        int dayOfWeek = indexOfName(DAYS, s, 0);
+        int day = twoDigits(s, 8);
+        int year = twoDigits(s, 26) * 100 + twoDigits(s, 28);
+        int offsetHours = twoDigits(s, 21);
+        int offsetMinutes = twoDigits(s, 23);
+        int offset = (offsetHours * 3600 + offsetMinutes * 60) * (s.charAt(20) == '-' ? -1 : 1);
+        if (month == 0 || dayOfWeek < 0 || year == 0 || day == 0 || day > monthLength(year, month)
+                || offsetMinutes > 59 || Math.abs(offset) > MAX_OFFSET_SECONDS) {
+            return false;
+        }
+        long epochDay = epochDay(year, month, day);
+        if (Math.floorMod(epochDay + 3, 7) != dayOfWeek) {
+            return false; // 1970-01-01 was a Thursday
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            lastDate[i] = s.charAt(i);
+        }
+        lastMidnight = epochDay * SECONDS_PER_DAY - offset;
+        hasLastDate = true;
+        return true;
+    }
+
+    /*
+     * @return the index of the 3-letter name at s[at..at+3) in names, or -1
+     */
+    private static int indexOfName(String names, CharSequence s, int at) {
+        for (int i = 0; i < names.length(); i += 3) {
+            if (names.charAt(i) == s.charAt(at) && names.charAt(i + 1) == s.charAt(at + 1)
+                    && names.charAt(i + 2) == s.charAt(at + 2)) {
+                return i / 3;
+            }
+        }
+        return -1;
+    }
+
+    private static int monthLength(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /*
+     * @return days from 1970-01-01 to a valid proleptic Gregorian date
+     */
+    private static long epochDay(int year, int month, int day) {
+        // shift the year to start in March, so the leap day is the last day of the year
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    private static long parseSlowly(CharSequence createdAt) {
+        return ZonedDateTime.parse(createdAt, FORMAT).toEpochSecond();
+    }
+}
@@ -0,0 +1,210 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TimestampIndex is an immutable index of the timestamps of a list of tweets,
+ * for answering many Filter.inTimespan() queries over the same list. The
+ * timestamps are kept sorted, so a query finds its range by binary search and
+ * costs time in proportion to the number of tweets it returns (times a log
+ * factor to put them back in list order), not the number of tweets in the
+ * list.
+ *
+ * The index is three primitive arrays with one entry per tweet.
+ */
+public class TimestampIndex {
+
+    private final List<Tweet> tweets;
+    private final long[] seconds;
+    private final int[] nanos;
+    private final int[] order;
+    /* Abstraction function:
+     *    represents the index of tweets in which the k-th earliest tweet is at
+     *    position order[k] in tweets, with timestamp
+     *    Instant.ofEpochSecond(seconds[k], nanos[k])
+     * Rep invariant:
+     *    seconds, nanos and order all have length tweets.size()
+     *    order is a permutation of 0 .. tweets.size()-1
+     *    (seconds[k], nanos[k]) is nondecreasing in k, and is the timestamp
+     *      of tweets.get(order[k])
+     * Safety from rep exposure:
+     *    tweets is a private copy (or an immutable TweetStore); arrays are
+     *    never returned
+     */
+
+    private TimestampIndex(List<Tweet> tweets, long[] seconds, int[] nanos, int[] order) {
+        this.tweets = tweets;
+        this.seconds = seconds;
+        this.nanos = nanos;
+        this.order = order;
+    }
+
+    /**
+     * Index a list of tweets.
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     *            The index keeps its own copy, so later changes to the list
+     *            do not affect it.
+     * @return an index of the timestamps of the tweets
+     */
+    public static TimestampIndex of(List<Tweet> tweets) {
+        return ofOwned(tweets instanceof TweetStore ? tweets : new ArrayList<>(tweets));
+    }
+
+    /*
+     * Index a list of tweets that no one else will change, and keep it.
+     */
+    static TimestampIndex ofOwned(List<Tweet> copy) {
+        int n = copy.size();
+        long[] unsortedSeconds = new long[n];
+        int[] unsortedNanos = new int[n];
+        for (int i = 0; i < n; i++) {
+            Instant timestamp = copy instanceof TweetStore
+                    ? ((TweetStore) copy).timestamp(i)
+                    : copy.get(i).getTimestamp();
+            unsortedSeconds[i] = timestamp.getEpochSecond();
+            unsortedNanos[i] = timestamp.getNano();
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        sort(order, unsortedSeconds, unsortedNanos);
+
+        long[] seconds = new long[n];
+        int[] nanos = new int[n];
+        for (int k = 0; k < n; k++) {
+            seconds[k] = unsortedSeconds[order[k]];
+            nanos[k] = unsortedNanos[order[k]];
+        }
+        return new TimestampIndex(copy, seconds, nanos, order);
+    }
+
+    /*
+     * Sort positions by the timestamps at those positions, with a bottom-up
+     * merge sort on primitive arrays.
+     */
+    private static void sort(int[] positions, long[] seconds, int[] nanos) {
+        int n = positions.length;
+        int[] from = positions;
+        int[] to = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (j >= hi || (i < mid && compare(seconds, nanos, from[i], from[j]) <= 0)) {
+                        to[k] = from[i++];
+                    } else {
+                        to[k] = from[j++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != positions) {
+            System.arraycopy(from, 0, positions, 0, n);
+        }
+    }
+
+    private static int compare(long[] seconds, int[] nanos, int a, int b) {
+        int bySecond = Long.compare(seconds[a], seconds[b]);
+        return bySecond != 0 ? bySecond : Integer.compare(nanos[a], nanos[b]);
+    }
+
+    /*
+     * @return the least k such that the k-th earliest timestamp is after
+     *         (epochSecond, nano), or is at or after it if inclusive;
+     *         size() if there is none
+     */
+    private int search(long epochSecond, int nano, boolean inclusive) {
+        int lo = 0;
+        int hi = seconds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = seconds[mid] != epochSecond
+                    ? Long.compare(seconds[mid], epochSecond)
+                    : Integer.compare(nanos[mid], nano);
+            if (cmp > 0 || (inclusive && cmp == 0)) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return the number of tweets indexed
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return the number of tweets sent during timespan, inclusive
+     */
+    public int count(Timespan timespan) {
+        return Math.max(0, end(timespan) - start(timespan));
+    }
+
+    private int start(Timespan timespan) {
+        Instant start = timespan.getStart();
+        return search(start.getEpochSecond(), start.getNano(), true);
+    }
+
+    private int end(Timespan timespan) {
+        Instant end = timespan.getEnd();
+        return search(end.getEpochSecond(), end.getNano(), false);
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return the positions, in increasing order, of the tweets sent during
+     *         timespan, inclusive
+     */
+    public int[] positionsInTimespan(Timespan timespan) {
+        int start = start(timespan);
+        int end = end(timespan);
+        if (end <= start) {
+            return new int[0];
+        }
+        int[] positions = Arrays.copyOfRange(order, start, end);
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan.
+     *
+     * @param timespan
+     *            timespan
+     * @return the same list as Filter.inTimespan(tweets, timespan), where
+     *         tweets is the list this index was made from: all and only the
+     *         tweets sent during the timespan, inclusive, in the same order as
+     *         in that list
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        int[] positions = positionsInTimespan(timespan);
+        List<Tweet> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(tweets.get(position));
+        }
+        return result;
+    }
+}
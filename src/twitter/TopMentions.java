@@ -0,0 +1,414 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * TopMentions estimates how often the most-mentioned usernames are mentioned
+ * in tweets given to it one at a time, in memory that is fixed however many
+ * distinct usernames appear. Mentions are as defined by
+ * Extract.getMentionedUsers(), and every mention counts, even if it repeats a
+ * username already mentioned in the same tweet.
+ *
+ * It is a Space-Saving summary: it counts at most capacity usernames, and
+ * when a new username comes along while it is full, the new username takes
+ * over the counter of the least-counted one. So, if n mentions have been seen,
+ * - the estimated count of a username is never below its true count, and at
+ *   most n / capacity above it;
+ * - every username mentioned more than n / capacity times is counted.
+ *
+ * Counters are looked up by case-folding and hashing a mention in place, as
+ * UsernameDictionary does, so counting a mention of a username already
+ * counted makes no String; a name is only made when a counter is given to a
+ * new username.
+ *
+ * Summaries of different parts of a stream of tweets can be combined with
+ * merge(), in any grouping, keeping the same guarantees for the whole stream.
+ * A summary is not safe for use by several threads at once.
+ */
+public class TopMentions implements Consumer<Tweet> {
+
+    // highest count first, then alphabetical
+    private static final Comparator<Counter> BY_COUNT =
+            Comparator.comparingLong((Counter counter) -> counter.count).reversed()
+                      .thenComparing(counter -> counter.name);
+
+    private final int capacity;
+    private Counter[] table = new Counter[16];
+    private Counter[] heap;
+    private int size = 0;
+    private long total = 0;
+    /* Rep invariant:
+     *    0 <= size <= heap.length <= capacity, and heap[0..size) are not null
+     *    table.length is a power of two and greater than 2 * size
+     *    table is an open-addressing hash table with linear probing of
+     *      heap[0..size): each heap[i] is in exactly one slot, at or after
+     *      heap[i].hash & (table.length - 1), with no empty slot (null) in
+     *      between, and table holds no other counters
+     *    heap[i].name is canonical, as by UsernameDictionary.canonical(), and
+     *      heap[i].hash == UsernameDictionary.hash(heap[i].name)
+     *    the names of heap[0..size) are distinct
+     *    heap[0..size) is a min-heap by count, and heap[i].position == i
+     *    0 <= heap[i].error < heap[i].count <= total
+     */
+
+    /*
+     * One counted username. count overestimates its true count by at most error.
+     */
+    private static final class Counter {
+        String name;
+        int hash;
+        long count;
+        long error;
+        int position;
+
+        Counter(String name, long count, long error) {
+            rename(name);
+            this.count = count;
+            this.error = error;
+        }
+
+        void rename(String name) {
+            this.name = name;
+            this.hash = UsernameDictionary.hash(name, 0, name.length());
+        }
+    }
+
+    /**
+     * Make an empty summary.
+     *
+     * @param capacity
+     *            number of usernames to count, at least 1. Estimated counts
+     *            are at most (mentions seen) / capacity too high.
+     */
+    public TopMentions(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        // grown as names are counted, so a large capacity costs nothing until used
+        this.heap = new Counter[Math.min(capacity, 16)];
+    }
+
+    /**
+     * Make an empty summary with a given error bound.
+     *
+     * @param maxError
+     *            largest error of an estimated count, as a fraction of the
+     *            number of mentions seen; 0 < maxError <= 1
+     * @return a summary with capacity ceil(1 / maxError)
+     */
+    public static TopMentions withMaxError(double maxError) {
+        if (!(maxError > 0 && maxError <= 1)) {
+            throw new IllegalArgumentException("maxError must be in (0, 1]: " + maxError);
+        }
+        return new TopMentions((int) Math.min(Integer.MAX_VALUE - 8, Math.ceil(1 / maxError)));
+    }
+
+    /**
+     * Count the mentions in a tweet.
+     *
+     * @param tweet
+     *            a tweet
+     */
+    @Override public void accept(Tweet tweet) {
+        add(tweet.getText());
+    }
+
+    /**
+     * Count the mentions in the text of a tweet.
+     *
+     * @param text
+     *            text of a tweet, not kept by this summary
+     */
+    public void add(CharSequence text) {
+        MentionScanner.scan(text, (start, end) -> addMention(text, start, end));
+    }
+
+    /**
+     * Count one mention. Has the signature of a TextAnalyzer.TokenConsumer.
+     *
+     * @param text
+     *            text of a tweet, not kept by this summary
+     * @param start
+     *            index in text of the first character of the mentioned username
+     * @param end
+     *            index in text after the last character of the mentioned username
+     */
+    public void addMention(CharSequence text, int start, int end) {
+        count(text, start, end, 1);
+    }
+
+    /**
+     * Count mentions of a username.
+     *
+     * @param username
+     *            a username, in any case
+     * @param times
+     *            number of mentions, at least 1
+     */
+    public void add(String username, long times) {
+        if (times < 1) {
+            throw new IllegalArgumentException("times must be positive: " + times);
+        }
+        count(username, 0, username.length(), times);
+    }
+
+    /*
+     * Count mentions of the username text[start..end), in any case.
+     */
+    private void count(CharSequence text, int start, int end, long times) {
+        total += times;
+        Counter counter = find(text, start, end);
+        if (counter != null) {
+            counter.count += times;
+            siftDown(counter.position);
+        } else if (size < capacity) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(capacity, 2L * heap.length));
+            }
+            counter = new Counter(UsernameDictionary.canonical(text, start, end), times, 0);
+            place(counter, size++);
+            insert(counter);
+            siftUp(size - 1);
+        } else {
+            // the new name may have been mentioned as often as the one it evicts
+            counter = heap[0];
+            remove(counter);
+            counter.rename(UsernameDictionary.canonical(text, start, end));
+            counter.error = counter.count;
+            counter.count += times;
+            insert(counter);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Add everything another summary has seen.
+     *
+     * @param other
+     *            summary with the same capacity, not modified by this method
+     * @return this summary
+     */
+    public TopMentions merge(TopMentions other) {
+        if (other.capacity != capacity) {
+            throw new IllegalArgumentException("cannot merge capacity " + other.capacity + " into " + capacity);
+        }
+        // a name one side does not count may have been seen as often as that side's minimum
+        long thisMissing = untrackedBound();
+        long otherMissing = other.untrackedBound();
+        Map<String, Counter> merged = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Counter counter = heap[i];
+            merged.put(counter.name, new Counter(counter.name, counter.count + otherMissing, counter.error + otherMissing));
+        }
+        for (int i = 0; i < other.size; i++) {
+            Counter counter = other.heap[i];
+            Counter mine = merged.get(counter.name);
+            if (mine == null) {
+                merged.put(counter.name, new Counter(counter.name, counter.count + thisMissing, counter.error + thisMissing));
+            } else {
+                mine.count += counter.count - otherMissing;
+                mine.error += counter.error - otherMissing;
+            }
+        }
+
+        List<Counter> kept = new ArrayList<>(merged.values());
+        kept.sort(BY_COUNT);
+        size = Math.min(capacity, kept.size());
+        heap = new Counter[Math.max(size, Math.min(capacity, 16))];
+        table = new Counter[16];
+        for (int i = 0; i < size; i++) {
+            // an array in ascending order of count is a min-heap
+            Counter counter = kept.get(i);
+            place(counter, size - 1 - i);
+            insert(counter);
+        }
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * @return the number of mentions seen
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @return the number of usernames this summary counts at most
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @param username
+     *            a username, in any case
+     * @return an upper bound on the number of times username has been
+     *         mentioned, within total() / capacity() of the truth
+     */
+    public long estimate(String username) {
+        Counter counter = find(username, 0, username.length());
+        return counter != null ? counter.count : untrackedBound();
+    }
+
+    /**
+     * @param username
+     *            a username, in any case
+     * @return a lower bound on the number of times username has been mentioned
+     */
+    public long guaranteed(String username) {
+        Counter counter = find(username, 0, username.length());
+        return counter != null ? counter.count - counter.error : 0;
+    }
+
+    /**
+     * Get the most-mentioned usernames.
+     *
+     * @param k
+     *            number of usernames wanted; requires 0 <= k. At most
+     *            capacity() usernames are ever returned.
+     * @return the (at most) k usernames with the highest estimated counts, in
+     *         lowercase, in descending order of estimated count, and then in
+     *         alphabetical order
+     */
+    public List<String> top(int k) {
+        List<Counter> sorted = new ArrayList<>(Arrays.asList(heap).subList(0, size));
+        sorted.sort(BY_COUNT);
+        List<String> names = new ArrayList<>();
+        for (Counter counter : sorted.subList(0, Math.min(k, sorted.size()))) {
+            names.add(counter.name);
+        }
+        return names;
+    }
+
+    /*
+     * @return the most times a username that is not counted can have been mentioned
+     */
+    private long untrackedBound() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    /*
+     * @return the counter of the username text[start..end), in any case, or
+     *         null if it is not counted
+     */
+    private Counter find(CharSequence text, int start, int end) {
+        if (!UsernameDictionary.isAscii(text, start, end)) {
+            // not a valid username, so rare: fold it the slow way
+            String name = UsernameDictionary.canonical(text, start, end);
+            text = name;
+            start = 0;
+            end = name.length();
+        }
+        int hash = UsernameDictionary.hash(text, start, end);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            Counter counter = table[slot];
+            if (counter.hash == hash && UsernameDictionary.sameName(counter.name, text, start, end)) {
+                return counter;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Add a counter, which is already in the heap, to the table.
+     */
+    private void insert(Counter counter) {
+        if (size * 2 >= table.length) {
+            rehash();
+        }
+        int mask = table.length - 1;
+        int slot = counter.hash & mask;
+        while (table[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = counter;
+    }
+
+    private void rehash() {
+        int length = table.length * 2;
+        while (size * 2 >= length) {
+            length *= 2;
+        }
+        Counter[] old = table;
+        table = new Counter[length];
+        int mask = length - 1;
+        for (Counter counter : old) {
+            if (counter != null) {
+                int slot = counter.hash & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = counter;
+            }
+        }
+    }
+
+    /*
+     * Remove a counter from the table, shifting back the counters after it
+     * that would otherwise be cut off from their home slot.
+     */
+    private void remove(Counter counter) {
+        int mask = table.length - 1;
+        int gap = counter.hash & mask;
+        while (table[gap] != counter) {
+            gap = (gap + 1) & mask;
+        }
+        for (int slot = (gap + 1) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            int home = table[slot].hash & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+        }
+        table[gap] = null;
+    }
+
+    private void place(Counter counter, int position) {
+        heap[position] = counter;
+        counter.position = position;
+    }
+
+    private void siftUp(int position) {
+        Counter counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(counter, position);
+    }
+
+    private void siftDown(int position) {
+        Counter counter = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(counter, position);
+    }
+}
@@ -0,0 +1,366 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * TweetCompression recognizes compressed tweet dumps and decompresses them as
+ * a stream, so they can be parsed without first being expanded on disk.
+ *
+ * Two layouts are recognized by their first bytes:
+ *  - gzip, including several gzip members concatenated, decompressed on the
+ *    calling thread;
+ *  - block gzip, the splittable layout written by blockCompressed(): a series
+ *    of gzip members of at most 64 KiB each, whose headers carry their own
+ *    compressed size in a "BC" extra field, ending with an empty block that
+ *    marks the end of the stream (the BGZF layout). Since every
+ *    block can be found without inflating the ones before it, blocks are
+ *    inflated on several threads at once while the caller reads earlier ones.
+ * Anything else is passed through unchanged.
+ */
+public class TweetCompression {
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int FEXTRA = 4;
+
+    // gzip header of a block: magic, CM, FLG, MTIME, XFL, OS, XLEN, then the BC subfield
+    private static final int BLOCK_HEADER_BYTES = 18;
+    private static final int BLOCK_FOOTER_BYTES = 8;
+    private static final int MAX_BLOCK_BYTES = 1 << 16;
+    // uncompressed bytes per block, leaving room for incompressible input
+    private static final int BLOCK_INPUT_BYTES = 0xff00;
+
+    /**
+     * Open a possibly compressed stream for reading.
+     *
+     * @param in
+     *            stream of bytes that may be gzip or block gzip compressed;
+     *            closed when the returned stream is closed.
+     * @return a stream of the uncompressed bytes of in
+     * @throws IOException if in cannot be read, or starts like gzip but has a
+     *                     malformed header
+     */
+    public static InputStream decompress(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, BLOCK_HEADER_BYTES);
+        byte[] header = new byte[BLOCK_HEADER_BYTES];
+        int length = pushback.readNBytes(header, 0, header.length);
+        pushback.unread(header, 0, length);
+
+        if (length < 2 || (header[0] & 0xff) != GZIP_MAGIC_1 || (header[1] & 0xff) != GZIP_MAGIC_2) {
+            return pushback;
+        }
+        if (isBlockHeader(header, length)) {
+            return new BlockInputStream(pushback, ForkJoinPool.getCommonPoolParallelism() * 2);
+        }
+        return new GZIPInputStream(pushback, 1 << 16);
+    }
+
+    /*
+     * @return true if the file starts like a gzip stream
+     */
+    static boolean isCompressed(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        }
+    }
+
+    /**
+     * Compress into the splittable block gzip layout. The result is also a
+     * valid multi-member gzip stream, readable by any gzip tool.
+     *
+     * @param out
+     *            stream to write compressed bytes to; closed when the returned
+     *            stream is closed.
+     * @return a stream that compresses the bytes written to it into out
+     */
+    public static OutputStream blockCompressed(OutputStream out) {
+        return new BlockOutputStream(out);
+    }
+
+    /*
+     * @return true if header starts a gzip member with a "BC" extra subfield in
+     *         the position the block layout puts it
+     */
+    private static boolean isBlockHeader(byte[] header, int length) {
+        return length == BLOCK_HEADER_BYTES
+                && (header[3] & FEXTRA) != 0
+                && (header[10] & 0xff) == 6 && header[11] == 0
+                && header[12] == 'B' && header[13] == 'C'
+                && header[14] == 2 && header[15] == 0;
+    }
+
+    /*
+     * Reads block gzip, inflating up to `window` blocks ahead of the reader on
+     * the common fork-join pool.
+     */
+    private static class BlockInputStream extends InputStream {
+        private final InputStream in;
+        private final int window;
+        private final Queue<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+        private boolean endOfInput = false;
+        private boolean sawEndBlock = false;
+        private byte[] current = new byte[0];
+        private int position = 0;
+        /* Rep invariant:
+         *    pending holds the inflated contents of the blocks after `current`, in order
+         *    sawEndBlock iff the last block read was empty, as the end-of-file block is
+         *    0 <= position <= current.length
+         */
+
+        BlockInputStream(InputStream in, int window) {
+            this.in = in;
+            this.window = Math.max(2, window);
+        }
+
+        @Override public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return current[position++] & 0xff;
+        }
+
+        @Override public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, n);
+            position += n;
+            return n;
+        }
+
+        @Override public void close() throws IOException {
+            for (CompletableFuture<byte[]> block : pending) {
+                block.cancel(false);
+            }
+            pending.clear();
+            in.close();
+        }
+
+        /*
+         * Make sure current has unread bytes, unless the input is exhausted.
+         *
+         * @return false at the end of the uncompressed stream
+         */
+        private boolean fill() throws IOException {
+            while (position == current.length) {
+                while (!endOfInput && pending.size() < window) {
+                    byte[] block = readBlock();
+                    if (block == null) {
+                        endOfInput = true;
+                    } else {
+                        pending.add(CompletableFuture.supplyAsync(() -> inflate(block), ForkJoinPool.commonPool()));
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return false;
+                }
+                try {
+                    current = pending.remove().join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof UncheckedIOException) {
+                        throw ((UncheckedIOException) e.getCause()).getCause();
+                    }
+                    throw e;
+                }
+                position = 0;
+            }
+            return true;
+        }
+
+        /*
+         * @return the compressed bytes of the next block, or null at the end
+         *         of the input
+         */
+        private byte[] readBlock() throws IOException {
+            byte[] header = new byte[BLOCK_HEADER_BYTES];
+            int length = in.readNBytes(header, 0, header.length);
+            if (length == 0) {
+                if (!sawEndBlock) {
+                    throw new EOFException("block gzip stream has no end-of-file block");
+                }
+                return null;
+            }
+            if (!isBlockHeader(header, length)) {
+                throw new IOException("malformed block gzip header");
+            }
+            int size = ((header[16] & 0xff) | (header[17] & 0xff) << 8) + 1;
+            if (size < BLOCK_HEADER_BYTES + BLOCK_FOOTER_BYTES) {
+                throw new IOException("malformed block gzip size");
+            }
+            byte[] block = new byte[size];
+            System.arraycopy(header, 0, block, 0, BLOCK_HEADER_BYTES);
+            if (in.readNBytes(block, BLOCK_HEADER_BYTES, size - BLOCK_HEADER_BYTES) != size - BLOCK_HEADER_BYTES) {
+                throw new EOFException("truncated block gzip block");
+            }
+            sawEndBlock = littleEndianInt(block, size - 4) == 0;
+            return block;
+        }
+    }
+
+    /*
+     * Inflate one block and check it against its CRC and length.
+     */
+    private static byte[] inflate(byte[] block) {
+        int footer = block.length - BLOCK_FOOTER_BYTES;
+        int crc = littleEndianInt(block, footer);
+        int size = littleEndianInt(block, footer + 4);
+        if (size < 0 || size > MAX_BLOCK_BYTES) {
+            throw new UncheckedIOException(new IOException("malformed block gzip length"));
+        }
+        byte[] data = new byte[size];
+        Inflater inflater = new Inflater(true);
+        try {
+            // the footer stays in the input: raw inflation needs a byte past the deflate data
+            inflater.setInput(block, BLOCK_HEADER_BYTES, block.length - BLOCK_HEADER_BYTES);
+            byte[] overflow = new byte[1];
+            int n = 0;
+            while (!inflater.finished()) {
+                int inflated = n < size ? inflater.inflate(data, n, size - n) : inflater.inflate(overflow);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("truncated block gzip data");
+                }
+                if (n == size && inflated > 0) {
+                    throw new IOException("block gzip length mismatch");
+                }
+                n += inflated;
+            }
+            if (n != size) {
+                throw new IOException("block gzip length mismatch");
+            }
+        } catch (DataFormatException | IOException e) {
+            throw new UncheckedIOException(e instanceof IOException ? (IOException) e : new IOException(e));
+        } finally {
+            inflater.end();
+        }
+        CRC32 check = new CRC32();
+        check.update(data);
+        if ((int) check.getValue() != crc) {
+            throw new UncheckedIOException(new IOException("block gzip CRC mismatch"));
+        }
+        return data;
+    }
+
+    private static int littleEndianInt(byte[] bytes, int at) {
+        return (bytes[at] & 0xff) | (bytes[at + 1] & 0xff) << 8
+                | (bytes[at + 2] & 0xff) << 16 | (bytes[at + 3] & 0xff) << 24;
+    }
+
+    /*
+     * Writes block gzip: each BLOCK_INPUT_BYTES of input becomes one gzip
+     * member, and an empty member marks the end.
+     */
+    private static class BlockOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BLOCK_INPUT_BYTES];
+        private final byte[] compressed = new byte[MAX_BLOCK_BYTES - BLOCK_HEADER_BYTES - BLOCK_FOOTER_BYTES];
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private int length = 0;
+        private boolean closed = false;
+
+        BlockOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override public void write(int b) throws IOException {
+            if (length == buffer.length) {
+                writeBlock();
+            }
+            buffer[length++] = (byte) b;
+        }
+
+        @Override public void write(byte[] bytes, int offset, int count) throws IOException {
+            while (count > 0) {
+                if (length == buffer.length) {
+                    writeBlock();
+                }
+                int n = Math.min(count, buffer.length - length);
+                System.arraycopy(bytes, offset, buffer, length, n);
+                length += n;
+                offset += n;
+                count -= n;
+            }
+        }
+
+        @Override public void flush() throws IOException {
+            if (length > 0) {
+                writeBlock();
+            }
+            out.flush();
+        }
+
+        @Override public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (length > 0) {
+                    writeBlock();
+                }
+                writeBlock(); // empty end-of-file marker block
+                out.close();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            deflater.reset();
+            deflater.setInput(buffer, 0, length);
+            deflater.finish();
+            int size = 0;
+            while (!deflater.finished()) {
+                size += deflater.deflate(compressed, size, compressed.length - size);
+                if (size == compressed.length && !deflater.finished()) {
+                    throw new IOException("block did not fit after compression");
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer, 0, length);
+
+            int blockSize = BLOCK_HEADER_BYTES + size + BLOCK_FOOTER_BYTES;
+            ByteArrayOutputStream block = new ByteArrayOutputStream(blockSize);
+            block.write(new byte[] {
+                (byte) GZIP_MAGIC_1, (byte) GZIP_MAGIC_2, 8, FEXTRA, 0, 0, 0, 0, 0, (byte) 0xff,
+                6, 0, 'B', 'C', 2, 0, (byte) (blockSize - 1), (byte) ((blockSize - 1) >> 8),
+            });
+            block.write(compressed, 0, size);
+            writeLittleEndianInt(block, (int) crc.getValue());
+            writeLittleEndianInt(block, length);
+            block.writeTo(out);
+            length = 0;
+        }
+
+        private static void writeLittleEndianInt(ByteArrayOutputStream out, int value) {
+            out.write(value);
+            out.write(value >> 8);
+            out.write(value >> 16);
+            out.write(value >> 24);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * TweetFetcher fetches tweets from many servers at once, such as the mirrors
+ * and shards of a sample server, and merges them into one stream of distinct
+ * tweets.
+ *
+ * Each server is fetched on its own virtual thread. Every fetch must finish
+ * within a timeout, and the response bodies held in memory at once, from
+ * being read until they have been parsed, never add up to more than a byte
+ * budget. A response is compressed or not, as recognized by TweetCompression.
+ *
+ * A fetch waits for budget only once, before reading its body: for the whole
+ * body if its length is known, otherwise for a fixed first buffer. A body of
+ * unknown length that outgrows its buffer takes more budget only if it is free
+ * at once, and fails otherwise, so fetches never wait on each other while each
+ * holds part of the budget. The budget covers every buffer a body is held in,
+ * including both buffers while one is copied into a larger one.
+ */
+public class TweetFetcher {
+
+    // first buffer, and so first reservation, for a body of unknown length
+    private static final int UNKNOWN_LENGTH_BYTES = 1 << 16;
+    // largest body that fits in one byte array
+    private static final int MAX_BODY_BYTES = Integer.MAX_VALUE - 8;
+
+    private final Duration timeout;
+    private final ByteBudget budget;
+    /* Rep invariant:
+     *    timeout is positive
+     */
+
+    /**
+     * Make a TweetFetcher.
+     *
+     * @param timeout
+     *            time allowed for each fetch, from connecting to having parsed
+     *            the response; must be positive.
+     * @param maxInFlightBytes
+     *            largest total size of the responses read but not yet parsed;
+     *            must be positive. A response larger than this fails, as
+     *            does a response of unknown length whose buffer must grow
+     *            while too little of the budget is free.
+     */
+    public TweetFetcher(Duration timeout, long maxInFlightBytes) {
+        if (timeout.isNegative() || timeout.isZero() || maxInFlightBytes <= 0) {
+            throw new IllegalArgumentException("requires a positive timeout and byte budget");
+        }
+        this.timeout = timeout;
+        this.budget = new ByteBudget(maxInFlightBytes);
+    }
+
+    /**
+     * Fetch tweets from several servers concurrently.
+     *
+     * @param urls
+     *            URLs of servers that respond with a JSON array of tweet objects
+     * @return the distinct tweets (by id) fetched from all the servers. Tweets
+     *         from one server keep that server's order, and servers appear in
+     *         the order their fetches finished.
+     * @throws IOException if any fetch fails or times out; the exception has
+     *                     the failure of every other failed fetch suppressed.
+     */
+    public List<Tweet> fetchAll(List<URL> urls) throws IOException {
+        List<Tweet> tweets = new ArrayList<>();
+        fetchAll(urls, tweets::add);
+        return tweets;
+    }
+
+    /**
+     * Fetch tweets from several servers concurrently, handing out each
+     * server's tweets as soon as its fetch finishes.
+     *
+     * @param urls
+     *            URLs of servers that respond with a JSON array of tweet objects
+     * @param sink
+     *            receives, on the calling thread, each distinct tweet (by id)
+     *            fetched from any server. Tweets from one server keep that
+     *            server's order, and servers are handed out in the order their
+     *            fetches finished.
+     * @throws IOException after every fetch has finished, failed or timed out,
+     *                     if any of them failed or timed out. The tweets of the
+     *                     successful fetches have been handed to sink; the
+     *                     exception has the failure of every other failed fetch
+     *                     suppressed.
+     */
+    public void fetchAll(List<URL> urls, Consumer<? super Tweet> sink) throws IOException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Set<Long> seen = new HashSet<>();
+        IOException failure = null;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ExecutorCompletionService<List<Tweet>> fetches = new ExecutorCompletionService<>(executor);
+            List<Future<List<Tweet>>> running = new ArrayList<>();
+            for (URL url : urls) {
+                running.add(fetches.submit(() -> fetch(url, deadline)));
+            }
+
+            for (int done = 0; done < running.size(); done++) {
+                Future<List<Tweet>> fetch;
+                try {
+                    fetch = fetches.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running.forEach(f -> f.cancel(true));
+                    throw new InterruptedIOException("interrupted while fetching tweets");
+                }
+                if (fetch == null) {
+                    int unfinished = 0;
+                    for (Future<List<Tweet>> f : running) {
+                        if (f.cancel(true)) {
+                            unfinished++;
+                        }
+                    }
+                    // every fetch is now done; hand out those that finished
+                    // before they could be cancelled but were not yet polled
+                    for (Future<List<Tweet>> finished = fetches.poll(); finished != null; finished = fetches.poll()) {
+                        if (!finished.isCancelled()) {
+                            failure = deliver(finished, seen, sink, failure);
+                        }
+                    }
+                    failure = addFailure(failure, new IOException(
+                            unfinished + " fetches did not finish within " + timeout));
+                    break;
+                }
+                failure = deliver(fetch, seen, sink, failure);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /*
+     * Hand the tweets of a finished, uncancelled fetch not seen before to
+     * sink, adding their ids to seen.
+     * @return failure, with the fetch's failure added if it failed
+     */
+    private static IOException deliver(Future<List<Tweet>> fetch, Set<Long> seen, Consumer<? super Tweet> sink,
+            IOException failure) {
+        try {
+            for (Tweet tweet : fetch.get()) {
+                if (seen.add(tweet.getId())) {
+                    sink.accept(tweet);
+                }
+            }
+            return failure;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            return addFailure(failure, cause instanceof IOException
+                    ? (IOException) cause : new IOException(cause));
+        } catch (InterruptedException | CancellationException e) {
+            throw new AssertionError("a finished fetch cannot block or be cancelled", e);
+        }
+    }
+
+    private static IOException addFailure(IOException first, IOException next) {
+        if (first == null) {
+            return next;
+        }
+        first.addSuppressed(next);
+        return first;
+    }
+
+    /*
+     * Fetch and parse one server's response, holding its body within the budget.
+     */
+    private List<Tweet> fetch(URL url, long deadline) throws IOException, InterruptedException {
+        URLConnection connection = url.openConnection();
+        int millis = (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        connection.setConnectTimeout(millis);
+        connection.setReadTimeout(millis);
+        long reserved = 0;
+        try (InputStream in = connection.getInputStream()) {
+            if (connection instanceof HttpURLConnection) {
+                int status = ((HttpURLConnection) connection).getResponseCode();
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new IOException(url + " responded with status " + status);
+                }
+            }
+
+            // wait for budget only here, before holding any, so that fetches
+            // cannot each hold part of the budget while waiting for the rest
+            long length = connection.getContentLengthLong();
+            if (length > MAX_BODY_BYTES) {
+                throw new IOException("response from " + url + " is too large: " + length + " bytes");
+            }
+            int first = length >= 0 ? (int) length : (int) Math.min(UNKNOWN_LENGTH_BYTES, budget.capacity());
+            reserved = budget.acquire(first, deadline, url);
+            byte[] body = new byte[first];
+            int size = 0;
+            while (true) {
+                if (size == body.length) {
+                    // only grow for a body that really goes on
+                    int next = in.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    if (length >= 0) {
+                        throw new IOException("response from " + url + " is longer than its length of " + length + " bytes");
+                    }
+                    int old = body.length;
+                    int capacity = (int) Math.min(MAX_BODY_BYTES, old * 2L);
+                    if (capacity == old || !budget.tryAcquire(capacity)) {
+                        throw new IOException("response from " + url + " outgrew the " + reserved
+                                + " in-flight bytes it could take of the limit of " + budget.capacity() + " bytes");
+                    }
+                    reserved += capacity;
+                    body = Arrays.copyOf(body, capacity);
+                    budget.release(old);
+                    reserved -= old;
+                    body[size++] = (byte) next;
+                }
+                int n = in.read(body, size, body.length - size);
+                if (n < 0) {
+                    break;
+                }
+                size += n;
+            }
+
+            List<Tweet> tweets = new ArrayList<>();
+            InputStream decompressed = TweetCompression.decompress(new ByteArrayInputStream(body, 0, size));
+            TweetStreamReader.readTweets(new InputStreamReader(decompressed, StandardCharsets.UTF_8), tweets::add);
+            return tweets;
+        } finally {
+            budget.release(reserved);
+            if (connection instanceof HttpURLConnection) {
+                ((HttpURLConnection) connection).disconnect();
+            }
+        }
+    }
+
+    /*
+     * A pool of bytes shared by all fetches of one fetcher. Waiting uses a
+     * ReentrantLock rather than a monitor, so that a waiting virtual thread
+     * does not pin its carrier thread.
+     */
+    private static class ByteBudget {
+        private final long capacity;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private long available;
+        /* Rep invariant:
+         *    0 <= available <= capacity
+         * Thread safety argument:
+         *    available is guarded by lock
+         */
+
+        ByteBudget(long capacity) {
+            this.capacity = capacity;
+            this.available = capacity;
+        }
+
+        long capacity() {
+            return capacity;
+        }
+
+        /*
+         * Wait until bytes are available and take them.
+         *
+         * @return bytes, the amount taken
+         * @throws IOException if bytes exceeds the capacity, or is not available
+         *                     by the deadline
+         */
+        long acquire(long bytes, long deadline, URL url) throws IOException, InterruptedException {
+            if (bytes > capacity) {
+                throw new IOException("response from " + url + " exceeds the in-flight limit of " + capacity + " bytes");
+            }
+            lock.lockInterruptibly();
+            try {
+                while (available < bytes) {
+                    long wait = deadline - System.nanoTime();
+                    if (wait <= 0) {
+                        throw new IOException("timed out waiting for in-flight bytes for " + url);
+                    }
+                    released.awaitNanos(wait);
+                }
+                available -= bytes;
+                return bytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /*
+         * Take bytes if they are available now, without waiting.
+         *
+         * @return true if bytes were taken
+         */
+        boolean tryAcquire(long bytes) {
+            lock.lock();
+            try {
+                if (available < bytes) {
+                    return false;
+                }
+                available -= bytes;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(long bytes) {
+            lock.lock();
+            try {
+                available += bytes;
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
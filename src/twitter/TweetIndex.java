@@ -0,0 +1,203 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TweetIndex is an immutable inverted index of the words of a list of
+ * tweets, for answering many Filter.containing() queries over the same list.
+ * Each lowercase word maps to the sorted positions in the list of the tweets
+ * whose text has that word, so a query costs time in proportion to the number
+ * of tweets it matches, not the number of tweets in the list.
+ *
+ * Words are as defined by Filter.containing(): nonempty runs of nonspace
+ * characters, compared case-insensitively.
+ */
+public class TweetIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final List<Tweet> tweets;
+    private final Map<String, int[]> postings;
+    /* Abstraction function:
+     *    represents the index of tweets in which the tweet at position i has
+     *    word w (lower-cased) iff postings.get(w) contains i
+     * Rep invariant:
+     *    every postings value is nonempty, strictly increasing, and within
+     *    [0, tweets.size())
+     * Safety from rep exposure:
+     *    tweets is a private copy (or an immutable TweetStore); postings
+     *    arrays are copied before being returned
+     */
+
+    private TweetIndex(List<Tweet> tweets, Map<String, int[]> postings) {
+        this.tweets = tweets;
+        this.postings = postings;
+    }
+
+    /**
+     * Index a list of tweets.
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     *            The index keeps its own copy, so later changes to the list
+     *            do not affect it.
+     * @return an index of the words of the tweets
+     */
+    public static TweetIndex of(List<Tweet> tweets) {
+        return ofOwned(tweets instanceof TweetStore ? tweets : new ArrayList<>(tweets));
+    }
+
+    /*
+     * Index a list of tweets that no one else will change, and keep it.
+     */
+    static TweetIndex ofOwned(List<Tweet> copy) {
+
+        PostingsBuilder builder = new PostingsBuilder();
+        TextAnalyzer analyzer = new TextAnalyzer().onWord(builder);
+        for (CharSequence text : Extract.texts(copy)) {
+            analyzer.analyze(text);
+            builder.position++;
+        }
+        return new TweetIndex(copy, builder.build());
+    }
+
+    /*
+     * Collects the posting lists of the words of one tweet after another.
+     */
+    private static class PostingsBuilder implements TextAnalyzer.TokenConsumer {
+        // growable posting lists, each with its length in element 0
+        private final Map<String, int[]> lists = new HashMap<>();
+        // position of the tweet whose words are being reported
+        int position = 0;
+
+        @Override public void accept(CharSequence text, int start, int end) {
+            String word = text.subSequence(start, end).toString().toLowerCase();
+            int[] list = lists.get(word);
+            if (list == null) {
+                list = new int[4];
+                lists.put(word, list);
+            } else if (list[list[0]] == position) {
+                return; // the word repeats in this tweet
+            }
+            if (list[0] + 1 == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+                lists.put(word, list);
+            }
+            list[++list[0]] = position;
+        }
+
+        Map<String, int[]> build() {
+            Map<String, int[]> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+            for (Map.Entry<String, int[]> entry : lists.entrySet()) {
+                int[] list = entry.getValue();
+                postings.put(entry.getKey(), Arrays.copyOfRange(list, 1, list[0] + 1));
+            }
+            return postings;
+        }
+    }
+
+    /**
+     * @return the number of tweets indexed
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return the number of distinct lowercase words in the tweets
+     */
+    public int wordCount() {
+        return postings.size();
+    }
+
+    /**
+     * @param word
+     *            a word, in any case
+     * @return the number of tweets whose text has word
+     */
+    public int frequency(String word) {
+        return postings.getOrDefault(word.toLowerCase(), NO_POSITIONS).length;
+    }
+
+    /**
+     * @param word
+     *            a word, in any case
+     * @return the positions, in increasing order, of the tweets whose text
+     *         has word
+     */
+    public int[] positions(String word) {
+        return postings.getOrDefault(word.toLowerCase(), NO_POSITIONS).clone();
+    }
+
+    /**
+     * Find the positions of tweets that contain certain words.
+     *
+     * @param words
+     *            a list of words to search for, as for Filter.containing()
+     * @return the positions, in increasing order and without duplicates, of
+     *         the tweets whose text has at least one of the words
+     */
+    public int[] positionsContaining(List<String> words) {
+        List<int[]> lists = new ArrayList<>();
+        int total = 0;
+        for (String word : words) {
+            int[] list = postings.get(word.toLowerCase());
+            if (list != null) {
+                lists.add(list);
+                total += list.length;
+            }
+        }
+        if (lists.size() == 1) {
+            return lists.get(0).clone();
+        }
+        int[] positions = new int[total];
+        int at = 0;
+        for (int[] list : lists) {
+            System.arraycopy(list, 0, positions, at, list.length);
+            at += list.length;
+        }
+        Arrays.sort(positions);
+        int distinct = 0;
+        for (int i = 0; i < positions.length; i++) {
+            if (distinct == 0 || positions[i] != positions[distinct - 1]) {
+                positions[distinct++] = positions[i];
+            }
+        }
+        return Arrays.copyOf(positions, distinct);
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     *
+     * @param words
+     *            a list of words to search for in the tweets, as for
+     *            Filter.containing()
+     * @return the same list as Filter.containing(tweets, words), where tweets
+     *         is the list this index was made from: all and only the tweets
+     *         whose text includes at least one of the words, compared
+     *         case-insensitively, in the same order as in that list
+     */
+    public List<Tweet> containing(List<String> words) {
+        return tweetsAt(positionsContaining(words));
+    }
+
+    /**
+     * @param positions
+     *            positions in the list of tweets this index was made from
+     * @return the tweets at those positions, in the same order
+     */
+    public List<Tweet> tweetsAt(int[] positions) {
+        List<Tweet> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(tweets.get(position));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,175 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable set of key paths to keep when parsing a JSON object, like "id" or
+ * "user.screen_name". A key path names a member by the keys leading to it from
+ * the top of the object, separated by dots. Every member whose key path is not
+ * in the projection, and is not a prefix of one, can be skipped without being
+ * parsed into a value.
+ *
+ * A key path is matched both through nested objects and through flat keys
+ * that contain dots, so "user.screen_name" matches {"user": {"screen_name": x}}
+ * as well as {"user.screen_name": x}. Key paths name scalar members; members
+ * inside arrays are never matched.
+ */
+public final class TweetProjection {
+
+    /** The key paths needed to build a Tweet. */
+    public static final TweetProjection TWEET = of("id", "user.screen_name", "text", "created_at");
+
+    private final List<String> keyPaths;
+    private final Node root;
+    /* Rep invariant:
+     *    keyPaths is nonempty and has no duplicates
+     *    root is the trie of the dot-separated segments of keyPaths, and the node
+     *    reached by keyPaths.get(i) has slot i
+     */
+
+    private TweetProjection(List<String> keyPaths) {
+        this.keyPaths = Collections.unmodifiableList(keyPaths);
+        this.root = new Node("");
+        for (int i = 0; i < keyPaths.size(); i++) {
+            Node node = root;
+            for (String segment : keyPaths.get(i).split("\\.", -1)) {
+                node = node.childOrAdd(segment);
+            }
+            node.slot = i;
+        }
+    }
+
+    /**
+     * Make a TweetProjection.
+     *
+     * @param keyPaths
+     *            nonempty, distinct key paths, each a nonempty sequence of
+     *            nonempty keys separated by dots.
+     * @return a projection keeping exactly the given key paths
+     */
+    public static TweetProjection of(String... keyPaths) {
+        return of(Arrays.asList(keyPaths));
+    }
+
+    /**
+     * Make a TweetProjection.
+     *
+     * @param keyPaths
+     *            nonempty, distinct key paths, each a nonempty sequence of
+     *            nonempty keys separated by dots.
+     * @return a projection keeping exactly the given key paths
+     */
+    public static TweetProjection of(Collection<String> keyPaths) {
+        List<String> paths = new ArrayList<>();
+        for (String path : keyPaths) {
+            if (path.isEmpty() || path.startsWith(".") || path.endsWith(".") || path.contains("..")) {
+                throw new IllegalArgumentException("malformed key path: " + path);
+            }
+            if (paths.contains(path)) {
+                throw new IllegalArgumentException("duplicate key path: " + path);
+            }
+            paths.add(path);
+        }
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("requires at least one key path");
+        }
+        return new TweetProjection(paths);
+    }
+
+    /**
+     * @return the key paths kept by this projection, in the order given when it
+     *         was made. A key path's position in this list is its slot.
+     */
+    public List<String> keyPaths() {
+        return keyPaths;
+    }
+
+    /**
+     * @param keyPath a key path
+     * @return the slot of keyPath in this projection, or -1 if it is not kept
+     */
+    public int slot(String keyPath) {
+        return keyPaths.indexOf(keyPath);
+    }
+
+    /*
+     * @return the root of the key trie, whose children are the first segments
+     *         of the key paths
+     */
+    Node root() {
+        return root;
+    }
+
+    /*
+     * One segment of one or more key paths.
+     */
+    static final class Node {
+        private final String name;
+        private final List<Node> children = new ArrayList<>(2);
+        private int slot = -1;
+
+        private Node(String name) {
+            this.name = name;
+        }
+
+        /*
+         * @return the slot of the key path ending at this node, or -1 if no key
+         *         path ends here
+         */
+        int slot() {
+            return slot;
+        }
+
+        /*
+         * @return true if some key path continues below this node
+         */
+        boolean hasChildren() {
+            return !children.isEmpty();
+        }
+
+        /*
+         * Follow a member key, which may itself contain dots, down from this node.
+         *
+         * @return the node reached, or null if no key path starts with key
+         */
+        Node find(String key) {
+            Node node = this;
+            int from = 0;
+            while (true) {
+                int dot = key.indexOf('.', from);
+                int end = dot < 0 ? key.length() : dot;
+                node = node.child(key, from, end);
+                if (node == null || dot < 0) {
+                    return node;
+                }
+                from = dot + 1;
+            }
+        }
+
+        private Node child(String key, int from, int end) {
+            int length = end - from;
+            for (Node child : children) {
+                if (child.name.length() == length && key.regionMatches(from, child.name, 0, length)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private Node childOrAdd(String segment) {
+            Node child = child(segment, 0, segment.length());
+            if (child == null) {
+                child = new Node(segment);
+                children.add(child);
+            }
+            return child;
+        }
+    }
+}
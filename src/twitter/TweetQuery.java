@@ -0,0 +1,319 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * TweetQuery is an immutable condition on tweets, built from the conditions of
+ * Filter's methods with and, or and not. A query can be tested on one tweet,
+ * or answered over a whole list of tweets by a TweetSearch, which uses its
+ * indexes to plan and evaluate the query without scanning the list.
+ *
+ * For example, the tweets of a list written by alyssa during a timespan and
+ * not containing "spam" are
+ *     TweetSearch.of(tweets).find(TweetQuery.and(
+ *         TweetQuery.writtenBy("alyssa"),
+ *         TweetQuery.inTimespan(timespan),
+ *         TweetQuery.not(TweetQuery.containing(Arrays.asList("spam")))))
+ */
+public abstract class TweetQuery implements Predicate<Tweet> {
+
+    // an and tests the tweets it has left against a condition, instead of
+    // evaluating the condition from the indexes, once the condition is
+    // estimated to match at least this many times as many tweets
+    private static final int TEST_RATIO = 16;
+
+    /* Abstraction function (of every variant):
+     *    represents the condition test() decides
+     * Safety from rep exposure:
+     *    all fields are private, final and immutable, or are unmodifiable
+     *    lists of immutable queries
+     */
+
+    /**
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return the query for tweets written by username, as by Filter.writtenBy()
+     */
+    public static TweetQuery writtenBy(String username) {
+        return new WrittenBy(username);
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return the query for tweets sent during timespan, as by Filter.inTimespan()
+     */
+    public static TweetQuery inTimespan(Timespan timespan) {
+        return new InTimespan(timespan);
+    }
+
+    /**
+     * @param words
+     *            a list of words, as for Filter.containing()
+     * @return the query for tweets containing at least one of the words, as by
+     *         Filter.containing()
+     */
+    public static TweetQuery containing(List<String> words) {
+        return new Containing(words);
+    }
+
+    /**
+     * @param queries
+     *            queries
+     * @return the query for tweets that match all of the queries; every tweet
+     *         matches the and of no queries
+     */
+    public static TweetQuery and(TweetQuery... queries) {
+        return new And(Arrays.asList(queries));
+    }
+
+    /**
+     * @param queries
+     *            queries
+     * @return the query for tweets that match at least one of the queries; no
+     *         tweet matches the or of no queries
+     */
+    public static TweetQuery or(TweetQuery... queries) {
+        return new Or(Arrays.asList(queries));
+    }
+
+    /**
+     * @param query
+     *            a query
+     * @return the query for tweets that do not match query
+     */
+    public static TweetQuery not(TweetQuery query) {
+        return new Not(query);
+    }
+
+    /**
+     * @param tweet
+     *            a tweet
+     * @return true iff tweet matches this query
+     */
+    @Override public abstract boolean test(Tweet tweet);
+
+    /*
+     * @return an estimate of the number of tweets of search that match this
+     *         query, between 0 and search.size()
+     */
+    abstract int estimate(TweetSearch search);
+
+    /*
+     * @return the positions of the tweets of search that match this query
+     */
+    abstract PositionBitmap evaluate(TweetSearch search);
+
+    private static class WrittenBy extends TweetQuery {
+        private final String username;
+
+        WrittenBy(String username) {
+            this.username = username;
+        }
+
+        @Override public boolean test(Tweet tweet) {
+            return tweet.getAuthor().equalsIgnoreCase(username);
+        }
+
+        @Override int estimate(TweetSearch search) {
+            return search.authors().count(username);
+        }
+
+        @Override PositionBitmap evaluate(TweetSearch search) {
+            return PositionBitmap.of(search.authors().positionsWrittenBy(username));
+        }
+
+        @Override public String toString() {
+            return "writtenBy(" + username + ")";
+        }
+    }
+
+    private static class InTimespan extends TweetQuery {
+        private final Timespan timespan;
+
+        InTimespan(Timespan timespan) {
+            this.timespan = timespan;
+        }
+
+        @Override public boolean test(Tweet tweet) {
+            Instant timestamp = tweet.getTimestamp();
+            return !timestamp.isBefore(timespan.getStart()) && !timestamp.isAfter(timespan.getEnd());
+        }
+
+        @Override int estimate(TweetSearch search) {
+            return search.timestamps().count(timespan);
+        }
+
+        @Override PositionBitmap evaluate(TweetSearch search) {
+            return PositionBitmap.of(search.timestamps().positionsInTimespan(timespan));
+        }
+
+        @Override public String toString() {
+            return "inTimespan(" + timespan + ")";
+        }
+    }
+
+    private static class Containing extends TweetQuery {
+        private final List<String> words;
+        private final WordMatcher matcher;
+
+        Containing(List<String> words) {
+            this.words = Collections.unmodifiableList(new ArrayList<>(words));
+            this.matcher = WordMatcher.compile(words);
+        }
+
+        @Override public boolean test(Tweet tweet) {
+            return matcher.matches(tweet.getText());
+        }
+
+        @Override int estimate(TweetSearch search) {
+            long total = 0;
+            for (String word : words) {
+                total += search.words().frequency(word);
+            }
+            return (int) Math.min(total, search.size());
+        }
+
+        @Override PositionBitmap evaluate(TweetSearch search) {
+            return PositionBitmap.of(search.words().positionsContaining(words));
+        }
+
+        @Override public String toString() {
+            return "containing(" + words + ")";
+        }
+    }
+
+    private static class And extends TweetQuery {
+        private final List<TweetQuery> queries;
+
+        And(List<TweetQuery> queries) {
+            this.queries = Collections.unmodifiableList(new ArrayList<>(queries));
+        }
+
+        @Override public boolean test(Tweet tweet) {
+            for (TweetQuery query : queries) {
+                if (!query.test(tweet)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override int estimate(TweetSearch search) {
+            int estimate = search.size();
+            for (TweetQuery query : queries) {
+                estimate = Math.min(estimate, query.estimate(search));
+            }
+            return estimate;
+        }
+
+        /*
+         * Evaluate the most selective query first, then narrow its result by
+         * each query in order of selectivity: by intersecting with the query's
+         * positions (or removing a not's), or, once few tweets are left
+         * compared to the query's estimate, by testing those tweets.
+         */
+        @Override PositionBitmap evaluate(TweetSearch search) {
+            int[] estimates = new int[queries.size()];
+            Integer[] order = new Integer[queries.size()];
+            for (int i = 0; i < queries.size(); i++) {
+                estimates[i] = queries.get(i).estimate(search);
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(estimates[a], estimates[b]));
+
+            PositionBitmap result = null;
+            for (int i : order) {
+                TweetQuery query = queries.get(i);
+                if (result == null) {
+                    result = query.evaluate(search);
+                } else if ((long) result.cardinality() * TEST_RATIO <= estimates[i]) {
+                    result = result.filter(position -> query.test(search.tweet(position)));
+                } else if (query instanceof Not) {
+                    result = result.andNot(((Not) query).query.evaluate(search));
+                } else {
+                    result = result.and(query.evaluate(search));
+                }
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+            return result == null ? search.all() : result;
+        }
+
+        @Override public String toString() {
+            return queries.stream().map(Object::toString).collect(Collectors.joining(" and ", "(", ")"));
+        }
+    }
+
+    private static class Or extends TweetQuery {
+        private final List<TweetQuery> queries;
+
+        Or(List<TweetQuery> queries) {
+            this.queries = Collections.unmodifiableList(new ArrayList<>(queries));
+        }
+
+        @Override public boolean test(Tweet tweet) {
+            for (TweetQuery query : queries) {
+                if (query.test(tweet)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override int estimate(TweetSearch search) {
+            long estimate = 0;
+            for (TweetQuery query : queries) {
+                estimate += query.estimate(search);
+            }
+            return (int) Math.min(estimate, search.size());
+        }
+
+        @Override PositionBitmap evaluate(TweetSearch search) {
+            PositionBitmap result = PositionBitmap.empty();
+            for (TweetQuery query : queries) {
+                result = result.or(query.evaluate(search));
+            }
+            return result;
+        }
+
+        @Override public String toString() {
+            return queries.stream().map(Object::toString).collect(Collectors.joining(" or ", "(", ")"));
+        }
+    }
+
+    private static class Not extends TweetQuery {
+        private final TweetQuery query;
+
+        Not(TweetQuery query) {
+            this.query = query;
+        }
+
+        @Override public boolean test(Tweet tweet) {
+            return !query.test(tweet);
+        }
+
+        @Override int estimate(TweetSearch search) {
+            return search.size() - query.estimate(search);
+        }
+
+        @Override PositionBitmap evaluate(TweetSearch search) {
+            return search.all().andNot(query.evaluate(search));
+        }
+
+        @Override public String toString() {
+            return "not " + query;
+        }
+    }
+}
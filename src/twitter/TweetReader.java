@@ -4,36 +4,40 @@
 package twitter;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URL;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-
-import javax.json.Json;
-import javax.json.JsonArray;
-import javax.json.JsonException;
-import javax.json.JsonNumber;
-import javax.json.JsonObject;
-import javax.json.JsonReader;
-import javax.json.JsonString;
-import javax.json.JsonValue;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Read tweets from files or from a web server. Uses a simplified representation
  * for tweets (with fewer fields than the Twitter API).
  * 
- * DO NOT CHANGE THIS CLASS.
+ * Responses and files are JSON arrays of tweet objects, parsed as a stream by
+ * TweetStreamReader rather than built into a document first, and
+ * decompressed on the fly when TweetCompression recognizes them as
+ * compressed. Besides the original readTweetsFromWeb(URL), there are methods
+ * that hand out tweets one at a time to a Consumer instead of returning a
+ * list, that read only selected fields of each tweet, and that read an
+ * archived response from a local file.
+ * 
+ * The signatures and specifications of readTweetsFromWeb(URL) are fixed, as
+ * other code depends on them; the other public methods may gain overloads
+ * but should keep their specifications.
  */
 public class TweetReader {
     
     /**
-     * Get a list of tweets from a web server.
+     * Get a list of tweets from a web server. A compressed response, as
+     * recognized by TweetCompression, is decompressed as it is parsed.
      * 
      * @param url URL of server to retrieve tweets from
      * @return a list of tweets retrieved from the server.
@@ -41,80 +45,90 @@ public class TweetReader {
      *                     or some other network-related error occurs.
      */
     public static List<Tweet> readTweetsFromWeb(URL url) throws IOException {
-        return readTweets(new InputStreamReader(url.openStream()));
+        return readTweets(open(url));
     }
     
-    /*
-     * Read a list of tweets from a stream.
+    /**
+     * Get a list of tweets from a local file, such as an archived response of
+     * a web server. An uncompressed file is memory-mapped, and its tweets are
+     * parsed in parallel on the common fork-join pool. A compressed file, as
+     * recognized by TweetCompression, is decompressed as it is parsed.
      * 
-     * @return a list of tweets parsed out of the stream.
+     * @param path file containing a JSON array of tweet objects, encoded in
+     *             UTF-8 and optionally compressed
+     * @return a list of the tweets in the file, in the same order as in the file.
+     * @throws IOException if the file does not exist or cannot be read.
      */
-    private static List<Tweet> readTweets(Reader reader) {
-        JsonReader jsonReader = Json.createReader(reader);
-        JsonArray array = jsonReader.readArray();
-        ArrayList<Tweet> tweetList = new ArrayList<Tweet>();
-        for (int i = 0; i < array.size(); i++) {
-            Map<String, Object> map = constructTweetMap(array.get(i), null);
-            tweetList.add(createTweetFromMap(map));
+    public static List<Tweet> readTweetsFromFile(Path path) throws IOException {
+        if (!TweetCompression.isCompressed(path)) {
+            return MappedTweetFile.readTweets(path);
         }
-        return tweetList;
+        InputStream in = decompress(Files.newInputStream(path));
+        return readTweets(new InputStreamReader(in, StandardCharsets.UTF_8));
     }
     
-    /*
-     * Crawl recursively through the JSON tree representing a single tweet.
+    /**
+     * Read tweets from a web server one at a time, without keeping the whole
+     * response in memory.
      * 
-     * @return a map that maps key paths (like "id" and "user.screen_name") to values.
+     * @param url URL of server to retrieve tweets from
+     * @param sink receives each tweet, in the order the server sent them
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
      */
-    private static Map<String, Object> constructTweetMap(JsonValue tree, String key) {
-        Map<String, Object> tweetMap = new HashMap<String, Object>();
-        switch (tree.getValueType()) {
-        case OBJECT:
-            JsonObject object = (JsonObject) tree;
-            Map<String, Object> subMap = new HashMap<String, Object>();
-            for (String name : object.keySet()) {
-                subMap.putAll(constructTweetMap(object.get(name), name));
-            }
-            if (key == null) {
-                tweetMap.putAll(subMap);
-            } else {
-                tweetMap.put(key, subMap);
+    public static void readTweetsFromWeb(URL url, Consumer<? super Tweet> sink) throws IOException {
+        TweetStreamReader.readTweets(open(url), sink);
+    }
+    
+    /**
+     * Read selected fields of each tweet from a web server. Members of a tweet
+     * that are not on one of the key paths are skipped without being parsed.
+     * 
+     * @param url URL of server to retrieve tweets from
+     * @param keyPaths key paths to keep, like "id" or "user.screen_name", as
+     *                 defined by TweetProjection
+     * @param sink receives a map from key path to value for each tweet, in the
+     *             order the server sent them
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
+     */
+    public static void readFieldsFromWeb(URL url, Set<String> keyPaths,
+                                         Consumer<? super Map<String, String>> sink) throws IOException {
+        TweetStreamReader.readFields(open(url), TweetProjection.of(keyPaths), sink);
+    }
+    
+    /*
+     * Open a web server's response, decompressing it if it is compressed.
+     */
+    private static Reader open(URL url) throws IOException {
+        return new InputStreamReader(decompress(url.openStream()));
+    }
+    
+    /*
+     * Decompress a stream as TweetCompression.decompress() does, closing it
+     * if that fails, since the caller then has nothing to close.
+     */
+    private static InputStream decompress(InputStream raw) throws IOException {
+        try {
+            return TweetCompression.decompress(raw);
+        } catch (IOException | RuntimeException e) {
+            try {
+                raw.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
             }
-            break;
-        case ARRAY:
-            JsonArray array = (JsonArray) tree;
-            for (JsonValue val : array)
-                tweetMap.putAll(constructTweetMap(val, null));
-            break;
-        case STRING:
-            JsonString st = (JsonString) tree;
-            tweetMap.put(key, st.getString());
-            break;
-        case NUMBER:
-            JsonNumber num = (JsonNumber) tree;
-            tweetMap.put(key, num.toString());
-            break;
-        case TRUE:
-        case FALSE:
-        case NULL:
-            tweetMap.put(key, tree.getValueType().toString());
-            break;
-        default:
-            throw new JsonException("Unexpected value type " + tree.getValueType());
+            throw e;
         }
-        
-        return tweetMap;
     }
     
     /*
-     * Construct a Tweet from a map of (key,value) pairs parsed from JSON.
+     * Read a list of tweets from a stream.
+     * 
+     * @return a list of tweets parsed out of the stream.
      */
-    private static Tweet createTweetFromMap(Map<String, Object> tweetMap) {
-        // make the Tweet
-        Long id = Long.valueOf(tweetMap.get("id").toString());
-        String screenName = tweetMap.get("user.screen_name").toString();
-        String text = tweetMap.get("text").toString();
-        ZonedDateTime timestamp = ZonedDateTime.parse(tweetMap.get("created_at").toString(),
-                                                      DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US));
-        return new Tweet(id, screenName, text, timestamp.toInstant());
+    private static List<Tweet> readTweets(Reader reader) {
+        ArrayList<Tweet> tweetList = new ArrayList<Tweet>();
+        TweetStreamReader.readTweets(reader, tweetList::add);
+        return tweetList;
     }
 }
@@ -0,0 +1,117 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TweetSearch is an immutable searchable list of tweets, for answering many
+ * TweetQuery queries over the same list. It keeps a TweetIndex, an
+ * AuthorIndex and a TimestampIndex of the list, which give each condition of
+ * a query both its matching positions and an estimate of how many there are.
+ *
+ * A query is evaluated as PositionBitmaps of the positions it matches, so
+ * combining conditions never copies or rescans lists of tweets; an and
+ * evaluates its most selective conditions first. Only the final positions
+ * are turned into tweets, in list order.
+ */
+public class TweetSearch {
+
+    private final List<Tweet> tweets;
+    private final TweetIndex words;
+    private final AuthorIndex authors;
+    private final TimestampIndex timestamps;
+    /* Rep invariant:
+     *    words, authors and timestamps are indexes of tweets
+     * Safety from rep exposure:
+     *    tweets is a private copy (or an immutable TweetStore), and the
+     *    indexes are immutable
+     */
+
+    private TweetSearch(List<Tweet> tweets) {
+        this.tweets = tweets;
+        this.words = TweetIndex.ofOwned(tweets);
+        this.authors = AuthorIndex.ofOwned(tweets);
+        this.timestamps = TimestampIndex.ofOwned(tweets);
+    }
+
+    /**
+     * Index a list of tweets for search.
+     *
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     *            The search keeps its own copy, so later changes to the list
+     *            do not affect it.
+     * @return a search of the tweets
+     */
+    public static TweetSearch of(List<Tweet> tweets) {
+        return new TweetSearch(tweets instanceof TweetStore ? tweets : new ArrayList<>(tweets));
+    }
+
+    /**
+     * @return the number of tweets searched
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @param query
+     *            a query
+     * @return an estimate, from the indexes, of the number of tweets that
+     *         match query, between 0 and size()
+     */
+    public int estimate(TweetQuery query) {
+        return query.estimate(this);
+    }
+
+    /**
+     * @param query
+     *            a query
+     * @return the positions in the list of the tweets that match query
+     */
+    public PositionBitmap positions(TweetQuery query) {
+        return query.evaluate(this);
+    }
+
+    /**
+     * Find the tweets that match a query.
+     *
+     * @param query
+     *            a query
+     * @return all and only the tweets of the list that match query, in the
+     *         same order as in the list
+     */
+    public List<Tweet> find(TweetQuery query) {
+        PositionBitmap positions = positions(query);
+        List<Tweet> result = new ArrayList<>(positions.cardinality());
+        positions.forEach(position -> result.add(tweets.get(position)));
+        return result;
+    }
+
+    /*
+     * Indexes and tweets, for TweetQuery.
+     */
+
+    TweetIndex words() {
+        return words;
+    }
+
+    AuthorIndex authors() {
+        return authors;
+    }
+
+    TimestampIndex timestamps() {
+        return timestamps;
+    }
+
+    Tweet tweet(int position) {
+        return tweets.get(position);
+    }
+
+    PositionBitmap all() {
+        return PositionBitmap.range(tweets.size());
+    }
+}
@@ -0,0 +1,374 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TweetSnapshot writes lists of tweets to a compact binary file and reads them
+ * back, so that a list parsed once from JSON can be reloaded without parsing.
+ *
+ * A snapshot is columnar. All numbers are big-endian:
+ * <pre>
+ *   int    MAGIC, int VERSION, int n (number of tweets), int d (number of authors)
+ *   long[n]   ids
+ *   long[n]   epoch seconds of the timestamps
+ *   int[n]    nanosecond adjustments of the timestamps
+ *   int[n]    author of each tweet, as an index into the author dictionary
+ *   int[d+1]  start of each author in the dictionary bytes, then their total length
+ *   byte[]    dictionary: the distinct authors, UTF-8, concatenated
+ *   byte[]    texts: the texts of the tweets, UTF-8, concatenated
+ *   long[n+1] start of each text in the text bytes, then their total length
+ * </pre>
+ * The text offsets come last so that texts can be written in one pass; a
+ * reader finds them from the end of the file.
+ */
+public class TweetSnapshot {
+
+    private static final int MAGIC = 0x54574E53; // "TWNS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    // the longest text or author a byte array can hold
+    private static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+
+    /**
+     * Write a snapshot of a list of tweets, replacing any existing file.
+     *
+     * @param tweets
+     *            list of tweets, not modified by this method. Texts must be
+     *            well-formed UTF-16 to be reproduced exactly.
+     * @param path
+     *            file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(List<Tweet> tweets, Path path) throws IOException {
+        Map<String, Integer> authorIds = new HashMap<>();
+        List<byte[]> authors = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            if (!authorIds.containsKey(tweet.getAuthor())) {
+                authorIds.put(tweet.getAuthor(), authors.size());
+                authors.add(tweet.getAuthor().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(tweets.size());
+            out.writeInt(authors.size());
+            for (Tweet tweet : tweets) {
+                out.writeLong(tweet.getId());
+            }
+            for (Tweet tweet : tweets) {
+                out.writeLong(tweet.getTimestamp().getEpochSecond());
+            }
+            for (Tweet tweet : tweets) {
+                out.writeInt(tweet.getTimestamp().getNano());
+            }
+            for (Tweet tweet : tweets) {
+                out.writeInt(authorIds.get(tweet.getAuthor()));
+            }
+
+            int authorOffset = 0;
+            for (byte[] author : authors) {
+                out.writeInt(authorOffset);
+                authorOffset += author.length;
+            }
+            out.writeInt(authorOffset);
+            for (byte[] author : authors) {
+                out.write(author);
+            }
+
+            long[] textOffsets = new long[tweets.size() + 1];
+            int i = 0;
+            for (Tweet tweet : tweets) {
+                byte[] text = tweet.getText().getBytes(StandardCharsets.UTF_8);
+                out.write(text);
+                textOffsets[i + 1] = textOffsets[i] + text.length;
+                i++;
+            }
+            for (long offset : textOffsets) {
+                out.writeLong(offset);
+            }
+        }
+    }
+
+    /**
+     * Read a snapshot written by write().
+     *
+     * @param path
+     *            snapshot file
+     * @return the tweets in the snapshot, in the order they were written
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static List<Tweet> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Layout layout = new Layout(channel);
+            int n = layout.count;
+
+            MappedRegion ids = layout.ids();
+            MappedRegion seconds = layout.seconds();
+            MappedRegion nanos = layout.nanos();
+            MappedRegion authorIds = layout.authorIds();
+            MappedRegion texts = layout.texts();
+            MappedRegion textOffsets = layout.textOffsets();
+
+            String[] authors = layout.readAuthors();
+            List<Tweet> tweets = new ArrayList<>(n);
+            byte[] scratch = new byte[1024];
+            for (int i = 0; i < n; i++) {
+                long start = textOffsets.getLong(8L * i);
+                int length = layout.textLength(textOffsets, i);
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, 2 * scratch.length)];
+                }
+                texts.get(start, scratch, length);
+                Instant timestamp = Instant.ofEpochSecond(seconds.getLong(8L * i), nanos.getInt(4L * i));
+                tweets.add(new Tweet(ids.getLong(8L * i), authors[layout.authorId(authorIds, i)],
+                                     new String(scratch, 0, length, StandardCharsets.UTF_8), timestamp));
+            }
+            return tweets;
+        }
+    }
+
+    /**
+     * Read a snapshot written by write() into a TweetStore, without making a
+     * Tweet or a String for each tweet.
+     *
+     * @param path
+     *            snapshot file
+     * @return a store of the tweets in the snapshot, in the order they were written
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static TweetStore readStore(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Layout layout = new Layout(channel);
+            int n = layout.count;
+
+            MappedRegion ids = layout.ids();
+            MappedRegion seconds = layout.seconds();
+            MappedRegion nanos = layout.nanos();
+            MappedRegion authorIds = layout.authorIds();
+            MappedRegion texts = layout.texts();
+            MappedRegion textOffsets = layout.textOffsets();
+
+            String[] authors = layout.readAuthors();
+            TweetStore.Builder store = new TweetStore.Builder(n);
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            byte[] scratch = new byte[1024];
+            CharBuffer text = CharBuffer.allocate(1024);
+            for (int i = 0; i < n; i++) {
+                long start = textOffsets.getLong(8L * i);
+                int length = layout.textLength(textOffsets, i);
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, 2 * scratch.length)];
+                    text = CharBuffer.allocate(scratch.length);
+                }
+                texts.get(start, scratch, length);
+                text.clear();
+                decoder.reset();
+                decoder.decode(ByteBuffer.wrap(scratch, 0, length), text, true);
+                decoder.flush(text);
+                text.flip();
+                Instant timestamp = Instant.ofEpochSecond(seconds.getLong(8L * i), nanos.getInt(4L * i));
+                store.add(ids.getLong(8L * i), authors[layout.authorId(authorIds, i)], text, timestamp);
+            }
+            return store.build();
+        }
+    }
+
+    /*
+     * Positions of the sections of a snapshot file.
+     */
+    static final class Layout {
+        final FileChannel channel;
+        final int count;
+        final int authorCount;
+        final long idsAt;
+        final long secondsAt;
+        final long nanosAt;
+        final long authorIdsAt;
+        final long authorOffsetsAt;
+        final long authorBytesAt;
+        final long textsAt;
+        final long textOffsetsAt;
+
+        Layout(FileChannel channel) throws IOException {
+            this.channel = channel;
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("not a tweet snapshot: too short");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("not a tweet snapshot, or an unsupported version");
+            }
+            count = header.getInt(8);
+            authorCount = header.getInt(12);
+            idsAt = HEADER_BYTES;
+            secondsAt = idsAt + 8L * count;
+            nanosAt = secondsAt + 8L * count;
+            authorIdsAt = nanosAt + 4L * count;
+            authorOffsetsAt = authorIdsAt + 4L * count;
+            authorBytesAt = authorOffsetsAt + 4L * (authorCount + 1);
+            textOffsetsAt = size - 8L * (count + 1);
+            if (count < 0 || authorCount < 0 || textOffsetsAt < authorBytesAt) {
+                throw new IOException("not a tweet snapshot: truncated");
+            }
+            int authorBytes = map(authorOffsetsAt, 4L * (authorCount + 1)).getInt(4L * authorCount);
+            if (authorBytes < 0 || authorBytesAt + authorBytes > textOffsetsAt) {
+                throw new IOException("not a tweet snapshot: truncated");
+            }
+            textsAt = authorBytesAt + authorBytes;
+            if (textsAt + textOffsets().getLong(8L * count) != textOffsetsAt) {
+                throw new IOException("not a tweet snapshot: section sizes do not match");
+            }
+        }
+
+        MappedRegion ids() throws IOException {
+            return map(idsAt, 8L * count);
+        }
+
+        MappedRegion seconds() throws IOException {
+            return map(secondsAt, 8L * count);
+        }
+
+        MappedRegion nanos() throws IOException {
+            return map(nanosAt, 4L * count);
+        }
+
+        MappedRegion authorIds() throws IOException {
+            return map(authorIdsAt, 4L * count);
+        }
+
+        MappedRegion texts() throws IOException {
+            return map(textsAt, textOffsetsAt - textsAt);
+        }
+
+        MappedRegion textOffsets() throws IOException {
+            return map(textOffsetsAt, 8L * (count + 1));
+        }
+
+        /*
+         * @return the author id of tweet i, read from authorIds()
+         * @throws IOException if it is not the id of an author in the file
+         */
+        int authorId(MappedRegion authorIds, int i) throws IOException {
+            int id = authorIds.getInt(4L * i);
+            if (id < 0 || id >= authorCount) {
+                throw new IOException("not a tweet snapshot: tweet " + i + " has author " + id
+                        + " of " + authorCount);
+            }
+            return id;
+        }
+
+        /*
+         * @return the length in bytes of the text of tweet i, which starts at
+         *         textOffsets.getLong(8L * i), reading textOffsets()
+         * @throws IOException if the text does not lie within the texts
+         */
+        int textLength(MappedRegion textOffsets, int i) throws IOException {
+            long start = textOffsets.getLong(8L * i);
+            long end = textOffsets.getLong(8L * (i + 1));
+            if (start < 0 || end < start || end > textOffsetsAt - textsAt || end - start > MAX_BYTES) {
+                throw new IOException("not a tweet snapshot: text " + i + " at bad offsets " + start + ".." + end);
+            }
+            return (int) (end - start);
+        }
+
+        String[] readAuthors() throws IOException {
+            MappedRegion offsets = map(authorOffsetsAt, 4L * (authorCount + 1));
+            MappedRegion bytes = map(authorBytesAt, textsAt - authorBytesAt);
+            String[] authors = new String[authorCount];
+            byte[] scratch = new byte[0];
+            for (int i = 0; i < authorCount; i++) {
+                int start = offsets.getInt(4L * i);
+                int end = offsets.getInt(4L * (i + 1));
+                if (start < 0 || end < start || end > textsAt - authorBytesAt) {
+                    throw new IOException("not a tweet snapshot: author " + i + " at bad offsets " + start + ".." + end);
+                }
+                int length = end - start;
+                if (length > scratch.length) {
+                    scratch = new byte[length];
+                }
+                bytes.get(start, scratch, length);
+                authors[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            return authors;
+        }
+
+        private MappedRegion map(long start, long length) throws IOException {
+            return new MappedRegion(channel, start, length);
+        }
+    }
+
+    /*
+     * A read-only region of a file, mapped in pieces small enough for a
+     * MappedByteBuffer.
+     */
+    static final class MappedRegion {
+        // a multiple of 8, so that aligned longs and ints never straddle two pieces
+        private static final long PIECE_SIZE = 1L << 30;
+
+        private final MappedByteBuffer[] pieces;
+
+        MappedRegion(FileChannel channel, long start, long length) throws IOException {
+            int count = (int) ((length + PIECE_SIZE - 1) / PIECE_SIZE);
+            pieces = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long offset = i * PIECE_SIZE;
+                pieces[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + offset,
+                                        Math.min(PIECE_SIZE, length - offset));
+            }
+        }
+
+        /*
+         * Requires offset to be a multiple of 8.
+         */
+        long getLong(long offset) {
+            return pieces[(int) (offset / PIECE_SIZE)].getLong((int) (offset % PIECE_SIZE));
+        }
+
+        /*
+         * Requires offset to be a multiple of 4.
+         */
+        int getInt(long offset) {
+            return pieces[(int) (offset / PIECE_SIZE)].getInt((int) (offset % PIECE_SIZE));
+        }
+
+        /*
+         * Copy bytes [offset, offset+length) of the region into dst[0..length).
+         */
+        void get(long offset, byte[] dst, int length) {
+            int copied = 0;
+            while (copied < length) {
+                long at = offset + copied;
+                MappedByteBuffer piece = pieces[(int) (at / PIECE_SIZE)];
+                int inPiece = (int) (at % PIECE_SIZE);
+                int n = Math.min(length - copied, piece.limit() - inPiece);
+                piece.get(inPiece, dst, copied, n);
+                copied += n;
+            }
+        }
+    }
+}
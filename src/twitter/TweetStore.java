@@ -0,0 +1,340 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * TweetStore is an immutable list of tweets stored column by column: ids and
+ * timestamps in primitive arrays, authors as indexes into a dictionary of
+ * distinct author names, and texts packed into a shared character arena.
+ * Tweet objects are only made when elements of the list are read, so a large
+ * list costs a few dozen bytes per tweet beyond its text. Texts can also be
+ * kept outside the Java heap altogether (see Builder.offHeapTexts()).
+ *
+ * A TweetStore is a List<Tweet>, so it can be passed to every method that
+ * takes a list of tweets. get() returns a new Tweet each time, equal to (but
+ * not the same object as) the Tweet that was added. Modifying operations
+ * throw UnsupportedOperationException.
+ */
+public class TweetStore extends AbstractList<Tweet> implements RandomAccess {
+
+    // typical length of a tweet's text, used to size text storage for a Builder's expectedSize
+    private static final int EXPECTED_TEXT_LENGTH = 140;
+
+    private final long[] ids;
+    private final long[] seconds;
+    private final int[] nanos;
+    private final int[] authorIds;
+    private final String[] authors;
+    private final TextArena texts;
+    private final int size;
+    /* Abstraction function:
+     *    represents the list whose i-th tweet has id ids[i], author
+     *    authors[authorIds[i]], text texts.get(i), and timestamp
+     *    Instant.ofEpochSecond(seconds[i], nanos[i])
+     * Rep invariant:
+     *    ids, seconds, nanos, authorIds have at least size elements, and texts has size texts
+     *    0 <= authorIds[i] < authors.length for i < size
+     *    authors has no duplicates
+     * Safety from rep exposure:
+     *    all fields are private and never returned; texts are handed out as
+     *    Strings or read-only views
+     */
+
+    private TweetStore(Builder builder) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.seconds = builder.seconds;
+        this.nanos = builder.nanos;
+        this.authorIds = builder.authorIds;
+        this.authors = builder.authors.toArray(new String[0]);
+        this.texts = builder.texts;
+    }
+
+    /**
+     * Make a TweetStore holding a copy of a list of tweets.
+     *
+     * @param tweets
+     *            list of tweets, not modified by this method.
+     * @return a store with the same tweets in the same order
+     */
+    public static TweetStore of(List<Tweet> tweets) {
+        Builder builder = new Builder(tweets.size());
+        for (Tweet tweet : tweets) {
+            builder.add(tweet);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builder for a TweetStore, to which tweets are appended one at a time.
+     * A builder cannot be used after build().
+     */
+    public static class Builder {
+        private long[] ids;
+        private long[] seconds;
+        private int[] nanos;
+        private int[] authorIds;
+        private final List<String> authors = new ArrayList<>();
+        private final Map<String, Integer> authorIndex = new HashMap<>();
+        private final long expectedTextChars;
+        private TextArena texts;
+        private int size = 0;
+
+        /**
+         * Make an empty Builder.
+         */
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Make an empty Builder.
+         *
+         * @param expectedSize
+         *            number of tweets expected to be added, used to size the columns
+         *            and the first page of text storage
+         */
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            ids = new long[capacity];
+            seconds = new long[capacity];
+            nanos = new int[capacity];
+            authorIds = new int[capacity];
+            expectedTextChars = (long) capacity * EXPECTED_TEXT_LENGTH;
+            texts = new HeapTextArena(expectedTextChars);
+        }
+
+        /**
+         * Keep texts outside the Java heap, in direct buffers, so that they add
+         * nothing to garbage collection work. Must be called before any tweet
+         * is added.
+         *
+         * @return this builder
+         */
+        public Builder offHeapTexts() {
+            return useTexts(new DirectTextArena(expectedTextChars));
+        }
+
+        /**
+         * Keep texts outside the Java heap, in a memory-mapped file, so that
+         * they add nothing to garbage collection work and can be paged out by
+         * the operating system. Must be called before any tweet is added.
+         *
+         * @param path
+         *            file to hold the texts; created, or overwritten if it
+         *            exists. No file descriptor is kept open for it: each
+         *            page is mapped and its channel closed at once. The
+         *            caller may delete it once the store is no longer used.
+         * @return this builder
+         * @throws IOException if the file cannot be created
+         */
+        public Builder mappedTexts(Path path) throws IOException {
+            return useTexts(new DirectTextArena(path, expectedTextChars));
+        }
+
+        private Builder useTexts(TextArena arena) {
+            if (texts == null || size > 0) {
+                throw new IllegalStateException("text storage must be chosen before adding tweets");
+            }
+            texts = arena;
+            return this;
+        }
+
+        /**
+         * Append a tweet.
+         *
+         * @param tweet
+         *            tweet to add after those already added
+         * @return this builder
+         */
+        public Builder add(Tweet tweet) {
+            return add(tweet.getId(), tweet.getAuthor(), tweet.getText(), tweet.getTimestamp());
+        }
+
+        /**
+         * Append a tweet given by its fields, without making a Tweet.
+         *
+         * @param id
+         *            unique identifier for the tweet
+         * @param author
+         *            Twitter username who wrote the tweet, as for Tweet's constructor
+         * @param text
+         *            text of the tweet, as for Tweet's constructor
+         * @param timestamp
+         *            date/time when the tweet was sent
+         * @return this builder
+         */
+        public Builder add(long id, String author, CharSequence text, Instant timestamp) {
+            if (texts == null) {
+                throw new IllegalStateException("builder already built");
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                seconds = Arrays.copyOf(seconds, capacity);
+                nanos = Arrays.copyOf(nanos, capacity);
+                authorIds = Arrays.copyOf(authorIds, capacity);
+            }
+            Integer authorId = authorIndex.get(author);
+            if (authorId == null) {
+                authorId = authors.size();
+                authors.add(author);
+                authorIndex.put(author, authorId);
+            }
+            ids[size] = id;
+            seconds[size] = timestamp.getEpochSecond();
+            nanos[size] = timestamp.getNano();
+            authorIds[size] = authorId;
+            texts.add(text);
+            size++;
+            return this;
+        }
+
+        /**
+         * @return a store of the tweets added so far, in the order they were added
+         */
+        public TweetStore build() {
+            if (texts == null) {
+                throw new IllegalStateException("builder already built");
+            }
+            TweetStore store = new TweetStore(this);
+            texts = null;
+            return store;
+        }
+    }
+
+    @Override public int size() {
+        return size;
+    }
+
+    /**
+     * @param index position in this list
+     * @return a new Tweet equal to the one at index
+     */
+    @Override public Tweet get(int index) {
+        checkIndex(index);
+        return new Tweet(ids[index], authors[authorIds[index]], texts.get(index), timestamp(index));
+    }
+
+    /**
+     * @param index position in this list
+     * @return id of the tweet at index
+     */
+    public long id(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * @param index position in this list
+     * @return author of the tweet at index
+     */
+    public String author(int index) {
+        checkIndex(index);
+        return authors[authorIds[index]];
+    }
+
+    /**
+     * @param index position in this list
+     * @return position of the author of the tweet at index among authors()
+     */
+    public int authorId(int index) {
+        checkIndex(index);
+        return authorIds[index];
+    }
+
+    /**
+     * @return the distinct authors of the tweets, with the spelling each was
+     *         first added with, indexed by authorId()
+     */
+    public List<String> authors() {
+        return List.of(authors);
+    }
+
+    /**
+     * Intern the authors of this store.
+     *
+     * @param usernames
+     *            dictionary in which to intern the authors
+     * @return an array that maps each position in authors() to that author's
+     *         id in usernames. Authors that differ only in case have the same id.
+     */
+    public int[] authorIdsIn(UsernameDictionary usernames) {
+        int[] ids = new int[authors.length];
+        for (int i = 0; i < authors.length; i++) {
+            ids[i] = usernames.intern(authors[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * @param index position in this list
+     * @return epoch second of the timestamp of the tweet at index
+     */
+    public long epochSecond(int index) {
+        checkIndex(index);
+        return seconds[index];
+    }
+
+    /**
+     * @param index position in this list
+     * @return timestamp of the tweet at index
+     */
+    public Instant timestamp(int index) {
+        checkIndex(index);
+        return Instant.ofEpochSecond(seconds[index], nanos[index]);
+    }
+
+    /**
+     * @param index position in this list
+     * @return text of the tweet at index
+     */
+    public String text(int index) {
+        checkIndex(index);
+        return texts.get(index);
+    }
+
+    /**
+     * @param index position in this list
+     * @return a read-only view of the text of the tweet at index, which reads
+     *         the store's storage directly instead of copying it
+     */
+    public CharSequence textView(int index) {
+        checkIndex(index);
+        return texts.view(index);
+    }
+
+    /**
+     * @return a read-only list of views of the texts, as by textView(), in
+     *         the order of this list
+     */
+    public List<CharSequence> textViews() {
+        return new AbstractList<CharSequence>() {
+            @Override public CharSequence get(int index) {
+                return textView(index);
+            }
+
+            @Override public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " of " + size);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.Closeable;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+/**
+ * TweetStreamReader reads tweets one at a time from a JSON array of tweet
+ * objects, using a pull parser. Unlike reading the whole array into a JSON tree,
+ * only the fields needed to build a Tweet are kept, and each tweet is handed out
+ * as soon as its closing brace has been parsed.
+ *
+ * A tweet object must contain the key paths of TweetProjection.TWEET: "id",
+ * "user.screen_name", "text" and "created_at". Members off those key paths are
+ * skipped at the token level. readFields() applies the same parsing to any
+ * other projection.
+ */
+public class TweetStreamReader implements Iterator<Tweet>, Closeable {
+
+    // slots of the Tweet fields in TweetProjection.TWEET
+    private static final int ID = 0;
+    private static final int SCREEN_NAME = 1;
+    private static final int TEXT = 2;
+    private static final int CREATED_AT = 3;
+
+    private final JsonParser parser;
+    private final TimestampDecoder timestamps = new TimestampDecoder();
+    private final String[] tweetFields = new String[TweetProjection.TWEET.keyPaths().size()];
+    private boolean started = false;
+    private boolean finished = false;
+    private Tweet next = null;
+    /* Rep invariant:
+     *    next != null implies !finished
+     *    finished implies the closing bracket of the array has been consumed
+     */
+
+    /**
+     * Make a TweetStreamReader.
+     *
+     * @param reader
+     *            stream containing a JSON array of tweet objects. Closed when
+     *            this reader is closed.
+     */
+    public TweetStreamReader(Reader reader) {
+        this.parser = Json.createParser(reader);
+    }
+
+    /**
+     * Read every tweet in a stream, in order, without keeping them.
+     *
+     * @param reader
+     *            stream containing a JSON array of tweet objects, closed by
+     *            this method.
+     * @param sink
+     *            receives each tweet as soon as it has been parsed.
+     * @throws JsonException if the stream is not a JSON array of tweet objects.
+     */
+    public static void readTweets(Reader reader, Consumer<? super Tweet> sink) {
+        try (TweetStreamReader tweets = new TweetStreamReader(reader)) {
+            tweets.forEachRemaining(sink);
+        }
+    }
+
+    /**
+     * Read the projected members of every object in a stream, in order.
+     *
+     * @param reader
+     *            stream containing a JSON array of objects, closed by this method.
+     * @param projection
+     *            the key paths to keep; everything else is skipped unparsed.
+     * @param sink
+     *            receives, for each object, an unmodifiable map from each of its
+     *            projected key paths to the string form of the value found
+     *            there. Strings and numbers are given as written, true, false
+     *            and null as "TRUE", "FALSE" and "NULL". Key paths the object
+     *            lacks are absent from the map.
+     * @throws JsonException if the stream is not a JSON array of objects.
+     */
+    public static void readFields(Reader reader, TweetProjection projection,
+                                  Consumer<? super Map<String, String>> sink) {
+        List<String> keyPaths = projection.keyPaths();
+        String[] values = new String[keyPaths.size()];
+        try (TweetStreamReader objects = new TweetStreamReader(reader)) {
+            while (objects.nextObject(projection, values)) {
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        fields.put(keyPaths.get(i), values[i]);
+                    }
+                }
+                sink.accept(Collections.unmodifiableMap(fields));
+            }
+        }
+    }
+
+    /**
+     * @return true if there is another tweet in the array
+     * @throws JsonException if the stream is not a JSON array of tweet objects.
+     */
+    @Override public boolean hasNext() {
+        if (next == null && !finished) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    /**
+     * @return the next tweet in the array
+     * @throws NoSuchElementException if there are no more tweets
+     * @throws JsonException if the stream is not a JSON array of tweet objects.
+     */
+    @Override public Tweet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Tweet tweet = next;
+        next = null;
+        return tweet;
+    }
+
+    /**
+     * Close the underlying stream.
+     */
+    @Override public void close() {
+        parser.close();
+    }
+
+    /*
+     * Parse up to the end of the next tweet object.
+     *
+     * @return the next tweet, or null (and set finished) at the end of the array.
+     */
+    private Tweet advance() {
+        if (!nextObject(TweetProjection.TWEET, tweetFields)) {
+            return null;
+        }
+        return createTweet(tweetFields[ID], tweetFields[SCREEN_NAME], tweetFields[TEXT], tweetFields[CREATED_AT]);
+    }
+
+    /*
+     * Parse the next object of the array, keeping only the projected members.
+     *
+     * @param values filled with the string form of each projected member,
+     *               indexed by slot, or null for members the object lacks
+     * @return true if an object was parsed, false (and set finished) at the end
+     *         of the array
+     */
+    private boolean nextObject(TweetProjection projection, String[] values) {
+        if (!started) {
+            expect(Event.START_ARRAY, nextEvent());
+            started = true;
+        }
+        Event event = nextEvent();
+        switch (event) {
+        case START_OBJECT:
+            Arrays.fill(values, null);
+            readObject(projection.root(), values);
+            return true;
+        case END_ARRAY:
+            finished = true;
+            return false;
+        default:
+            throw new JsonException("Expected an object but found " + event);
+        }
+    }
+
+    /*
+     * Parse the members of an object whose START_OBJECT has been consumed.
+     * Members that are not on a projected key path are skipped at the token
+     * level; only projected scalars are turned into strings.
+     */
+    private void readObject(TweetProjection.Node node, String[] values) {
+        while (true) {
+            Event event = nextEvent();
+            if (event == Event.END_OBJECT) {
+                return;
+            }
+            TweetProjection.Node member = node.find(parser.getString());
+            event = nextEvent();
+            switch (event) {
+            case START_OBJECT:
+                if (member != null && member.hasChildren()) {
+                    readObject(member, values);
+                } else {
+                    skip();
+                }
+                break;
+            case START_ARRAY:
+                skip();
+                break;
+            default:
+                if (member != null && member.slot() >= 0) {
+                    values[member.slot()] = scalar(event);
+                }
+                break;
+            }
+        }
+    }
+
+    /*
+     * Skip the rest of an object or array whose start event has been consumed,
+     * without materializing any of its values.
+     */
+    private void skip() {
+        int depth = 1;
+        while (depth > 0) {
+            switch (nextEvent()) {
+            case START_OBJECT:
+            case START_ARRAY:
+                depth++;
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                depth--;
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    /*
+     * @return the value of the scalar at the current position, with the same
+     *         string form that a JSON tree of the tweet would give it.
+     */
+    private String scalar(Event event) {
+        switch (event) {
+        case VALUE_STRING:
+        case VALUE_NUMBER:
+            return parser.getString();
+        case VALUE_TRUE:
+            return "TRUE";
+        case VALUE_FALSE:
+            return "FALSE";
+        case VALUE_NULL:
+            return "NULL";
+        default:
+            throw new JsonException("Unexpected event " + event);
+        }
+    }
+
+    private Event nextEvent() {
+        if (!parser.hasNext()) {
+            throw new JsonException("Unexpected end of input");
+        }
+        return parser.next();
+    }
+
+    private static void expect(Event expected, Event actual) {
+        if (actual != expected) {
+            throw new JsonException("Expected " + expected + " but found " + actual);
+        }
+    }
+
+    /*
+     * Construct a Tweet from the string forms of its fields.
+     */
+    private Tweet createTweet(String id, String screenName, String text, String createdAt) {
+        requireField(id, "id");
+        requireField(screenName, "user.screen_name");
+        requireField(text, "text");
+        requireField(createdAt, "created_at");
+        return new Tweet(Long.valueOf(id), screenName, text, timestamps.decode(createdAt));
+    }
+
+    private static void requireField(String value, String keyPath) {
+        if (value == null) {
+            throw new JsonException("Tweet is missing " + keyPath);
+        }
+    }
+}
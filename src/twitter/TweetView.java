@@ -0,0 +1,150 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * TweetView is an immutable lazy view of the tweets of a list that meet
+ * conditions chained onto it, such as
+ *     TweetView.of(tweets).writtenBy("alyssa").inTimespan(timespan).anyMatch()
+ * It has the results of the corresponding Filter methods applied one after
+ * another, but nothing is computed until the view is iterated or streamed,
+ * and then each tweet of the list is tested against all the conditions in
+ * one pass, without building intermediate lists. Short-circuiting operations
+ * such as anyMatch(), first() and Stream.limit() stop reading the list as
+ * soon as they have their answer.
+ *
+ * The view reads the list each time it is iterated or streamed, so it sees
+ * changes made to the list in the meantime.
+ */
+public class TweetView implements Iterable<Tweet> {
+
+    private final List<Tweet> tweets;
+    private final List<TweetQuery> conditions;
+    private final TweetQuery condition;
+    /* Abstraction function:
+     *    represents the tweets of tweets that meet every one of conditions,
+     *    in the same order as in tweets
+     * Rep invariant:
+     *    condition is the and of conditions, in order
+     * Safety from rep exposure:
+     *    conditions is an unmodifiable list of immutable queries; tweets is
+     *    only read, as the spec says
+     */
+
+    private TweetView(List<Tweet> tweets, List<TweetQuery> conditions) {
+        this.tweets = tweets;
+        this.conditions = Collections.unmodifiableList(conditions);
+        this.condition = TweetQuery.and(conditions.toArray(new TweetQuery[0]));
+    }
+
+    /**
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this view
+     * @return a view of all the tweets of the list
+     */
+    public static TweetView of(List<Tweet> tweets) {
+        return new TweetView(tweets, new ArrayList<>());
+    }
+
+    /**
+     * @param query
+     *            a condition on tweets
+     * @return a view of the tweets of this view that match query
+     */
+    public TweetView where(TweetQuery query) {
+        List<TweetQuery> chained = new ArrayList<>(conditions);
+        chained.add(query);
+        return new TweetView(tweets, chained);
+    }
+
+    /**
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return a view of the tweets of this view written by username, as by
+     *         Filter.writtenBy()
+     */
+    public TweetView writtenBy(String username) {
+        return where(TweetQuery.writtenBy(username));
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return a view of the tweets of this view sent during timespan, as by
+     *         Filter.inTimespan()
+     */
+    public TweetView inTimespan(Timespan timespan) {
+        return where(TweetQuery.inTimespan(timespan));
+    }
+
+    /**
+     * @param words
+     *            a list of words, as for Filter.containing()
+     * @return a view of the tweets of this view that contain at least one of
+     *         the words, as by Filter.containing()
+     */
+    public TweetView containing(List<String> words) {
+        return where(TweetQuery.containing(words));
+    }
+
+    /**
+     * @return a sequential stream of the tweets of this view, in list order,
+     *         which reads the list only as far as its terminal operation needs
+     */
+    public Stream<Tweet> stream() {
+        return tweets.stream().filter(condition);
+    }
+
+    /**
+     * @return an iterator over the tweets of this view, in list order, which
+     *         reads the list only as far as it is advanced
+     */
+    @Override public Iterator<Tweet> iterator() {
+        return stream().iterator();
+    }
+
+    /**
+     * @return true iff this view has at least one tweet; reads the list only
+     *         up to the first
+     */
+    public boolean anyMatch() {
+        return stream().findFirst().isPresent();
+    }
+
+    /**
+     * @return the number of tweets in this view, counted without keeping them
+     */
+    public long count() {
+        return stream().count();
+    }
+
+    /**
+     * @param limit
+     *            maximum number of tweets, nonnegative
+     * @return a new list of the first limit tweets of this view (or all of
+     *         them, if there are fewer); reads the list only up to the last
+     */
+    public List<Tweet> first(int limit) {
+        return stream().limit(limit).collect(Collectors.toList());
+    }
+
+    /**
+     * @return a new list of the tweets of this view, in list order
+     */
+    public List<Tweet> toList() {
+        return stream().collect(Collectors.toList());
+    }
+
+    @Override public String toString() {
+        return "tweets where " + condition;
+    }
+}
@@ -0,0 +1,278 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * UsernameDictionary is a mutable mapping between Twitter usernames and dense
+ * int ids 0, 1, 2, ... Usernames are case-insensitive, so every spelling of a
+ * username has the same id, and each id stands for the username's canonical
+ * lowercase spelling.
+ *
+ * Interning a username case-folds, hashes and looks it up in one pass over its
+ * characters, without making a String, as long as the name is ASCII (as every
+ * valid username is, by Tweet.getAuthor()'s spec). Code that compares many
+ * usernames can therefore intern them once and compare ids instead.
+ */
+public class UsernameDictionary {
+
+    private static final int NO_ID = -1;
+
+    private String[] names = new String[16];
+    private int[] slots = new int[32];
+    private int[] hashes = new int[32];
+    private int size = 0;
+    /* Rep invariant:
+     *    names[0..size) are distinct and have no uppercase letters
+     *    slots.length is a power of two and at least 2 * size
+     *    slots is an open-addressing hash table with linear probing: each id
+     *      i < size is stored as i + 1 in exactly one slot, at or after
+     *      hash(names[i]) & (slots.length - 1), with no empty slot (0) in
+     *      between; hashes[s] == hash(names[slots[s] - 1]) for each used slot s
+     */
+
+    /**
+     * Make an empty dictionary.
+     */
+    public UsernameDictionary() {
+    }
+
+    /**
+     * Get the id of a username, giving it the next id if it has none yet.
+     *
+     * @param username
+     *            a username, in any case
+     * @return the id of username
+     */
+    public int intern(CharSequence username) {
+        return intern(username, 0, username.length());
+    }
+
+    /**
+     * Get the id of a username that is part of a text, such as a mention,
+     * giving it the next id if it has none yet.
+     *
+     * @param text
+     *            text containing the username
+     * @param start
+     *            index of the first character of the username in text
+     * @param end
+     *            index after the last character of the username in text;
+     *            requires 0 <= start <= end <= text.length()
+     * @return the id of text.subSequence(start, end)
+     */
+    public int intern(CharSequence text, int start, int end) {
+        if (!isAscii(text, start, end)) {
+            String folded = fold(text, start, end);
+            return lookup(folded, 0, folded.length(), true);
+        }
+        return lookup(text, start, end, true);
+    }
+
+    /**
+     * Get the id of a username without giving it one.
+     *
+     * @param username
+     *            a username, in any case
+     * @return the id of username, or -1 if it has none
+     */
+    public int find(CharSequence username) {
+        if (!isAscii(username, 0, username.length())) {
+            String folded = fold(username, 0, username.length());
+            return lookup(folded, 0, folded.length(), false);
+        }
+        return lookup(username, 0, username.length(), false);
+    }
+
+    /**
+     * @param id
+     *            an id given out by this dictionary
+     * @return the lowercase spelling of the username with that id
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id " + id + " of " + size);
+        }
+        return names[id];
+    }
+
+    /**
+     * @return the number of usernames in this dictionary, which have the ids
+     *         0 up to (but not including) size()
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the lowercase usernames in this dictionary, indexed by id; a
+     *         read-only snapshot
+     */
+    public List<String> names() {
+        return List.of(Arrays.copyOf(names, size));
+    }
+
+    /**
+     * @param username
+     *            a username, in any case
+     * @return the canonical spelling of username, as name() gives it once
+     *         interned
+     */
+    static String canonical(CharSequence username) {
+        return canonical(username, 0, username.length());
+    }
+
+    /**
+     * @param text
+     *            text containing a username
+     * @param start
+     *            index of the first character of the username in text
+     * @param end
+     *            index after the last character of the username in text
+     * @return the canonical spelling of text.subSequence(start, end)
+     */
+    static String canonical(CharSequence text, int start, int end) {
+        if (!isAscii(text, start, end)) {
+            return fold(text, start, end);
+        }
+        return foldedString(text, start, end);
+    }
+
+    /**
+     * Compare a username with a canonical spelling in place, without
+     * interning it or, if it is ASCII, making a String.
+     *
+     * @param canonical
+     *            canonical spelling of a username, as by canonical()
+     * @param username
+     *            a username, in any case
+     * @return true iff username has the canonical spelling canonical
+     */
+    static boolean sameUsername(String canonical, CharSequence username) {
+        int length = username.length();
+        if (canonical.length() != length) {
+            return !isAscii(username, 0, length) && canonical.equals(fold(username, 0, length));
+        }
+        for (int i = 0; i < length; i++) {
+            char c = username.charAt(i);
+            if (c >= 0x80) {
+                return canonical.equals(fold(username, 0, length));
+            }
+            if (canonical.charAt(i) != foldAscii(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Find text[start..end), which is either ASCII or already lower-cased, in
+     * the table; and if it is not there and add is true, add it.
+     *
+     * @return the id found or added, or NO_ID
+     */
+    private int lookup(CharSequence text, int start, int end, boolean add) {
+        int hash = hash(text, start, end);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            if (hashes[slot] == hash && sameName(names[slots[slot] - 1], text, start, end)) {
+                return slots[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!add) {
+            return NO_ID;
+        }
+        int id = size++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = foldedString(text, start, end);
+        slots[slot] = id + 1;
+        hashes[slot] = hash;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    static boolean isAscii(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * @return the hash of text[start..end) with ASCII letters lower-cased
+     */
+    static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + foldAscii(text.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static char foldAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /*
+     * @return text[start..end) with ASCII letters lower-cased, as a new String
+     */
+    private static String foldedString(CharSequence text, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = foldAscii(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /*
+     * Lower-case a name that has non-ASCII chars, the slow way.
+     */
+    private static String fold(CharSequence text, int start, int end) {
+        return text.subSequence(start, end).toString().toLowerCase(Locale.ROOT);
+    }
+
+    /*
+     * @return true iff text[start..end), with ASCII letters lower-cased, is name
+     */
+    static boolean sameName(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != foldAscii(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        int[] newHashes = new int[slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int s = 0; s < slots.length; s++) {
+            if (slots[s] != 0) {
+                int slot = hashes[s] & mask;
+                while (newSlots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newSlots[slot] = slots[s];
+                newHashes[slot] = hashes[s];
+            }
+        }
+        slots = newSlots;
+        hashes = newHashes;
+    }
+}
@@ -0,0 +1,320 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * WordMatcher is an immutable matcher, compiled once from a list of terms, that
+ * finds which words of a text are terms, as compared by Filter.containing():
+ * words are nonempty runs of nonspace characters, and a word is a term iff
+ * their toLowerCase()s are equal. It suits term lists too large to check each
+ * word against one by one, and is meant to be applied to many texts.
+ *
+ * The terms are compiled into a trie over their lowercase chars. Texts are
+ * split into words at the bounds TextAnalyzer.wordStart() and wordEnd() give,
+ * the same as for Filter.containing() and TweetIndex, and each word is walked
+ * down the trie from the root, stopping as soon as it leaves the trie, so
+ * matching a text costs time in proportion to its length, whatever the number
+ * of terms.
+ */
+public class WordMatcher {
+
+    private static final int ROOT = 0;
+    private static final int NO_NODE = -1;
+
+    private final String[] terms;
+    private final int[] termAt;
+    private final long[] edgeKeys;
+    private final int[] edgeTargets;
+    private final boolean localeFolds;
+    /* Abstraction function:
+     *    represents the matcher for the terms terms[0..terms.length), where
+     *    the trie node reached from ROOT by the chars of a string s (each
+     *    edge from node n on char c being to edgeTargets[e] for the slot e
+     *    with edgeKeys[e] == edgeKey(n, c)) ends term termAt[node], or no term
+     *    if termAt[node] == -1
+     * Rep invariant:
+     *    terms are distinct and lowercase
+     *    termAt[node(terms[t])] == t for every t, and termAt is -1 at every
+     *      other node
+     *    edgeKeys.length == edgeTargets.length is a power of two, greater than
+     *      the number of edges; edgeKeys is an open-addressing hash table with
+     *      linear probing, 0 marking an empty slot
+     *    localeFolds iff the default locale, when this matcher was compiled,
+     *      lower-cases some chars differently from Character.toLowerCase()
+     * Safety from rep exposure:
+     *    all fields are private and final, and no array is returned
+     */
+
+    private WordMatcher(String[] terms, int[] termAt, long[] edgeKeys, int[] edgeTargets, boolean localeFolds) {
+        this.terms = terms;
+        this.termAt = termAt;
+        this.edgeKeys = edgeKeys;
+        this.edgeTargets = edgeTargets;
+        this.localeFolds = localeFolds;
+    }
+
+    /**
+     * Compile a list of terms.
+     *
+     * @param terms
+     *            terms to look for, each a nonempty sequence of nonspace
+     *            characters, in any case; not modified by this method
+     * @return a matcher for the terms
+     */
+    public static WordMatcher compile(Collection<String> terms) {
+        TrieBuilder builder = new TrieBuilder();
+        for (String term : terms) {
+            builder.add(term.toLowerCase());
+        }
+        return builder.build(WordSet.localeFolds(Locale.getDefault()));
+    }
+
+    /*
+     * Grows the trie of a matcher, one term at a time.
+     */
+    private static class TrieBuilder {
+        private final List<String> terms = new ArrayList<>();
+        private int[] termAt = { -1 };
+        private int nodes = 1;
+        private long[] edgeKeys = new long[16];
+        private int[] edgeTargets = new int[16];
+
+        void add(String term) {
+            int node = ROOT;
+            for (int i = 0; i < term.length(); i++) {
+                node = child(node, term.charAt(i));
+            }
+            if (termAt[node] < 0) {
+                termAt[node] = terms.size();
+                terms.add(term);
+            }
+        }
+
+        /*
+         * @return the child of node on c, added if there is none
+         */
+        private int child(int node, char c) {
+            long key = edgeKey(node, c);
+            int slot = slot(edgeKeys, key);
+            if (edgeKeys[slot] == key) {
+                return edgeTargets[slot];
+            }
+            int child = nodes++;
+            if (child == termAt.length) {
+                int oldLength = termAt.length;
+                termAt = Arrays.copyOf(termAt, oldLength * 2);
+                Arrays.fill(termAt, oldLength, termAt.length, -1);
+            }
+            edgeKeys[slot] = key;
+            edgeTargets[slot] = child;
+            // the trie is a tree, so it has nodes - 1 edges
+            if ((nodes - 1) * 2 > edgeKeys.length) {
+                rehash();
+            }
+            return child;
+        }
+
+        private void rehash() {
+            long[] newKeys = new long[edgeKeys.length * 2];
+            int[] newTargets = new int[edgeKeys.length * 2];
+            for (int s = 0; s < edgeKeys.length; s++) {
+                if (edgeKeys[s] != 0) {
+                    int slot = slot(newKeys, edgeKeys[s]);
+                    newKeys[slot] = edgeKeys[s];
+                    newTargets[slot] = edgeTargets[s];
+                }
+            }
+            edgeKeys = newKeys;
+            edgeTargets = newTargets;
+        }
+
+        WordMatcher build(boolean localeFolds) {
+            return new WordMatcher(terms.toArray(new String[0]), Arrays.copyOf(termAt, nodes),
+                    edgeKeys, edgeTargets, localeFolds);
+        }
+    }
+
+    /*
+     * @return the nonzero key of the edge from node on c
+     */
+    private static long edgeKey(int node, char c) {
+        return ((long) node << 16 | c) + 1;
+    }
+
+    /*
+     * @return the slot of keys that holds key, or else the empty slot where
+     *         it belongs
+     */
+    private static int slot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (mixed ^ (mixed >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int next(int node, char c) {
+        long key = edgeKey(node, c);
+        int slot = slot(edgeKeys, key);
+        return edgeKeys[slot] == key ? edgeTargets[slot] : NO_NODE;
+    }
+
+    /**
+     * @return the number of distinct lowercase terms
+     */
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * @param termId
+     *            a term id, 0 <= termId < termCount()
+     * @return the lowercase term with that id
+     */
+    public String term(int termId) {
+        return terms[termId];
+    }
+
+    /**
+     * Find which term, if any, a word of a text is, such as a word reported
+     * by a TextAnalyzer.
+     *
+     * @param text
+     *            text containing the word
+     * @param start
+     *            index of the first character of the word in text
+     * @param end
+     *            index after the last character of the word in text;
+     *            requires 0 <= start <= end <= text.length()
+     * @return the id of the term that text.subSequence(start, end) is, or -1
+     *         if it is no term
+     */
+    public int termAt(CharSequence text, int start, int end) {
+        if (localeFolds || !WordSet.foldsByChar(text, start, end)) {
+            String lowered = text.subSequence(start, end).toString().toLowerCase();
+            return walk(lowered, 0, lowered.length(), false);
+        }
+        return walk(text, start, end, true);
+    }
+
+    /*
+     * @return the id of the term spelled by text[start..end), lower-cased
+     *         char by char if fold is true, or -1 if there is none
+     */
+    private int walk(CharSequence text, int start, int end, boolean fold) {
+        int node = ROOT;
+        for (int i = start; i < end && node != NO_NODE; i++) {
+            char c = text.charAt(i);
+            node = next(node, fold ? WordSet.fold(c) : c);
+        }
+        return node == NO_NODE ? -1 : termAt[node];
+    }
+
+    /**
+     * Make a consumer of words that reports the terms among them, so that
+     * matching can share a TextAnalyzer's scan of each text with other
+     * extractors.
+     *
+     * @param termIds
+     *            receives the id of the term of each word reported to the
+     *            consumer that is a term, once per occurrence
+     * @return a consumer to register with TextAnalyzer.onWord()
+     */
+    public TextAnalyzer.TokenConsumer onWord(IntConsumer termIds) {
+        return (text, start, end) -> {
+            int termId = termAt(text, start, end);
+            if (termId >= 0) {
+                termIds.accept(termId);
+            }
+        };
+    }
+
+    /**
+     * Report the terms that are words of a text.
+     *
+     * @param text
+     *            text of a tweet
+     * @param termIds
+     *            receives the id of the term of each word of text that is a
+     *            term, in order of the words in text, once per occurrence
+     */
+    public void match(CharSequence text, IntConsumer termIds) {
+        for (int start = TextAnalyzer.wordStart(text, 0); start >= 0; ) {
+            int end = TextAnalyzer.wordEnd(text, start);
+            int termId = termAt(text, start, end);
+            if (termId >= 0) {
+                termIds.accept(termId);
+            }
+            start = TextAnalyzer.wordStart(text, end);
+        }
+    }
+
+    /**
+     * @param text
+     *            text of a tweet
+     * @return true iff some word of text is a term
+     */
+    public boolean matches(CharSequence text) {
+        for (int start = TextAnalyzer.wordStart(text, 0); start >= 0; ) {
+            int end = TextAnalyzer.wordEnd(text, start);
+            if (termAt(text, start, end) >= 0) {
+                return true;
+            }
+            start = TextAnalyzer.wordStart(text, end);
+        }
+        return false;
+    }
+
+    /**
+     * @param text
+     *            text of a tweet
+     * @return the lowercase terms that are words of text
+     */
+    public Set<String> matchingTerms(CharSequence text) {
+        Set<String> matched = new HashSet<>();
+        match(text, termId -> matched.add(terms[termId]));
+        return matched;
+    }
+
+    /**
+     * Find tweets that contain any of the terms.
+     *
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @return the same list as Filter.containing(tweets, terms), where terms
+     *         are the terms this matcher was compiled from: all and only the
+     *         tweets whose text has at least one of the terms as a word, in
+     *         the same order as in tweets
+     */
+    public List<Tweet> containing(List<Tweet> tweets) {
+        List<Tweet> result = new ArrayList<>();
+        if (tweets instanceof TweetStore) {
+            // scan the stored texts in place, and only make Tweets for matches
+            TweetStore store = (TweetStore) tweets;
+            for (int i = 0; i < store.size(); i++) {
+                if (matches(store.textView(i))) {
+                    result.add(store.get(i));
+                }
+            }
+            return result;
+        }
+        for (Tweet t : tweets) {
+            if (matches(t.getText())) {
+                result.add(t);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,176 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * WordSet is an immutable set of words, compared case-insensitively as by
+ * Filter.containing(): a word of a text is in the set iff its
+ * String.toLowerCase() is the toLowerCase() of one of the set's words.
+ *
+ * Looking up a span of a text case-folds, hashes and compares it in one pass
+ * over its characters, without making a String. Only words with characters
+ * whose lowercase depends on their neighbors or is more than one char (such
+ * as the capital letters sigma and dotted I, and supplementary characters),
+ * or every word when the default locale lower-cases specially (Turkish,
+ * Azerbaijani, Lithuanian), take the slow path of String.toLowerCase().
+ */
+public class WordSet {
+
+    private final String[] table;
+    private final int[] hashes;
+    private final int size;
+    private final boolean localeFolds;
+    /* Rep invariant:
+     *    the non-null entries of table are distinct lowercase words, size of them
+     *    table.length is a power of two and greater than 2 * size
+     *    table is an open-addressing hash table with linear probing: each word
+     *      is in exactly one slot, at or after hash(word) & (table.length - 1),
+     *      with no empty slot (null) in between; hashes[s] == hash(table[s])
+     *      for each used slot s
+     *    localeFolds iff the default locale, when this set was made, lower-cases
+     *      some chars differently from Character.toLowerCase()
+     */
+
+    /**
+     * Make a set of words.
+     *
+     * @param words
+     *            words, in any case; not modified by this constructor
+     */
+    public WordSet(List<String> words) {
+        this.localeFolds = localeFolds(Locale.getDefault());
+        int capacity = Integer.highestOneBit(Math.max(words.size(), 1) * 2) * 2;
+        String[] table = new String[capacity];
+        int[] hashes = new int[capacity];
+        int size = 0;
+        int mask = capacity - 1;
+        for (String word : words) {
+            String lowered = word.toLowerCase();
+            int hash = hash(lowered, 0, lowered.length(), false);
+            int slot = hash & mask;
+            while (table[slot] != null && !table[slot].equals(lowered)) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == null) {
+                table[slot] = lowered;
+                hashes[slot] = hash;
+                size++;
+            }
+        }
+        this.table = table;
+        this.hashes = hashes;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of distinct lowercase words in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param word
+     *            a word, in any case
+     * @return true iff word is in this set
+     */
+    public boolean contains(CharSequence word) {
+        return contains(word, 0, word.length());
+    }
+
+    /**
+     * Check whether a word of a text is in this set. Has the signature of a
+     * TextAnalyzer.TokenConsumer.
+     *
+     * @param text
+     *            text containing the word
+     * @param start
+     *            index of the first character of the word in text
+     * @param end
+     *            index after the last character of the word in text;
+     *            requires 0 <= start <= end <= text.length()
+     * @return true iff text.subSequence(start, end) is in this set
+     */
+    public boolean contains(CharSequence text, int start, int end) {
+        if (localeFolds || !foldsByChar(text, start, end)) {
+            String lowered = text.subSequence(start, end).toString().toLowerCase();
+            return lookup(lowered, 0, lowered.length(), false);
+        }
+        return lookup(text, start, end, true);
+    }
+
+    /*
+     * @return true iff text[start..end), lower-cased char by char if fold is
+     *         true, is in the table
+     */
+    private boolean lookup(CharSequence text, int start, int end, boolean fold) {
+        int hash = hash(text, start, end, fold);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && sameWord(table[slot], text, start, end, fold)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hash(CharSequence text, int start, int end, boolean fold) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            hash = 31 * hash + (fold ? fold(c) : c);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean sameWord(String word, CharSequence text, int start, int end, boolean fold) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            char c = text.charAt(start + i);
+            if (word.charAt(i) != (fold ? fold(c) : c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * @return c lower-cased by Character.toLowerCase()
+     */
+    static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /*
+     * @return true iff String.toLowerCase() of text[start..end), in a locale
+     *         without special rules, is Character.toLowerCase() of each char
+     */
+    static boolean foldsByChar(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 && (c == '\u0130' || c == '\u03A3' || Character.isSurrogate(c))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * @return true iff String.toLowerCase() in locale lower-cases some chars
+     *         differently from Character.toLowerCase()
+     */
+    static boolean localeFolds(Locale locale) {
+        String language = locale.getLanguage();
+        return language.equals("tr") || language.equals("az") || language.equals("lt");
+    }
+}
@@ -0,0 +1,93 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AuthorIndexTest {
+
+    /*
+     * Testing strategy for AuthorIndex:
+     *
+     * Partition the inputs as follows:
+     * - tweets: none, one, many
+     * - author: wrote no tweets, one, several not adjacent in the list; same
+     *   author spelled in different cases
+     * - query: in the author's case, in another case
+     * - list: ArrayList, TweetStore; list changed after indexing
+     * - random lists, compared with Filter.writtenBy()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "first", d1),
+            new Tweet(2, "bbitdiddle", "second", d1),
+            new Tweet(3, "Alyssa", "third", d1),
+            new Tweet(4, "ALYSSA", "fourth", d1));
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        AuthorIndex index = AuthorIndex.of(Collections.emptyList());
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.authorCount());
+        assertEquals(Collections.emptyList(), index.writtenBy("alyssa"));
+    }
+
+    @Test
+    public void testWrittenBy() {
+        AuthorIndex index = AuthorIndex.of(TWEETS);
+
+        assertEquals(2, index.authorCount());
+        assertEquals(Arrays.asList(TWEETS.get(0), TWEETS.get(2), TWEETS.get(3)), index.writtenBy("aLySSa"));
+        assertEquals(TWEETS.subList(1, 2), index.writtenBy("bbitdiddle"));
+        assertEquals(Collections.emptyList(), index.writtenBy("rivest"));
+        assertArrayEquals(new int[] { 0, 2, 3 }, index.positionsWrittenBy("alyssa"));
+        assertEquals(3, index.count("ALYSSA"));
+        assertEquals(0, index.count("rivest"));
+    }
+
+    @Test
+    public void testCopiesList() {
+        List<Tweet> tweets = new ArrayList<>(TWEETS);
+        AuthorIndex index = AuthorIndex.of(tweets);
+
+        tweets.clear();
+
+        assertEquals(TWEETS.subList(1, 2), index.writtenBy("BBitdiddle"));
+    }
+
+    @Test
+    public void testSameAsFilter() {
+        String[] authors = { "a", "A", "b", "c-d", "C-D", "e_9" };
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tweets.add(new Tweet(i, authors[random.nextInt(authors.length)], "text " + i, d1));
+        }
+        AuthorIndex index = AuthorIndex.of(tweets);
+        AuthorIndex storeIndex = AuthorIndex.of(TweetStore.of(tweets));
+
+        for (String author : Arrays.asList("a", "B", "c-d", "E_9", "f")) {
+            List<Tweet> expected = Filter.writtenBy(tweets, author);
+            assertEquals(author, expected, index.writtenBy(author));
+            assertEquals(author, expected, storeIndex.writtenBy(author));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BlockSummaryTest {
+
+    /*
+     * Testing strategy for BlockSummary:
+     *
+     * Partition the inputs as follows:
+     * - tweets: none, fewer than a block, a multiple of the block size, not
+     *   a multiple; tweets with no words
+     * - words: none, one, several; in a different case from the text; in no
+     *   block, one block, every block
+     * - list queried: ArrayList, TweetStore, different size from the summary
+     * - serialization: round trip, truncated, not a summary
+     * - random lists and queries, compared with Filter.containing()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /*
+     * @return n tweets, in blocks of 10 each with its own word "topicB" for
+     *         block B, and the word "common" in every tweet
+     */
+    private static List<Tweet> topicalTweets(int n) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            tweets.add(new Tweet(i, "a", "common Topic" + (i / 10) + " text" + i, d1));
+        }
+        return tweets;
+    }
+
+    @Test
+    public void testEmpty() {
+        BlockSummary summary = BlockSummary.of(Collections.emptyList(), 10, 0.01);
+
+        assertEquals(0, summary.size());
+        assertEquals(0, summary.blockCount());
+        assertEquals(Collections.emptyList(), summary.containing(Collections.emptyList(), Arrays.asList("x")));
+    }
+
+    @Test
+    public void testBlocks() {
+        BlockSummary summary = BlockSummary.of(topicalTweets(35), 10, 0.01);
+
+        assertEquals(35, summary.size());
+        assertEquals(10, summary.blockSize());
+        assertEquals(4, summary.blockCount());
+        assertTrue(summary.filterBytes() > 0);
+        for (int block = 0; block < 4; block++) {
+            assertTrue(summary.mightContain(block, "COMMON"));
+            assertTrue(summary.mightContain(block, "topic" + block));
+        }
+    }
+
+    @Test
+    public void testSkipsBlocks() {
+        List<Tweet> tweets = topicalTweets(1000);
+        BlockSummary summary = BlockSummary.of(tweets, 10, 0.01);
+
+        BitSet candidates = summary.candidateBlocks(Arrays.asList("topic42"));
+        assertTrue(candidates.get(42));
+        assertTrue("scanned " + candidates.cardinality(), candidates.cardinality() < 10);
+        assertEquals(100, summary.candidateBlocks(Arrays.asList("Common")).cardinality());
+        assertEquals(tweets.subList(420, 430), summary.containing(tweets, Arrays.asList("TOPIC42")));
+        assertEquals(tweets.subList(999, 1000), summary.containing(tweets, Arrays.asList("nothing", "text999")));
+        assertEquals(Collections.emptyList(), summary.containing(tweets, Collections.emptyList()));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWrongList() {
+        BlockSummary summary = BlockSummary.of(topicalTweets(30), 10, 0.01);
+
+        summary.containing(topicalTweets(29), Arrays.asList("common"));
+    }
+
+    @Test
+    public void testSameAsFilter() {
+        String[] vocabulary = { "x", "Y", "z", "w", "é", "ΟΔΟΣ", "   " };
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 777; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int k = random.nextInt(3); k > 0; k--) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(random.nextInt(50)).append(' ');
+            }
+            tweets.add(new Tweet(i, "a", text.toString(), d1));
+        }
+        BlockSummary summary = BlockSummary.of(tweets, 16, 0.05);
+        TweetStore store = TweetStore.of(tweets);
+
+        for (int trial = 0; trial < 100; trial++) {
+            List<String> words = Arrays.asList(
+                    vocabulary[random.nextInt(vocabulary.length - 1)].toLowerCase() + random.nextInt(50),
+                    vocabulary[random.nextInt(vocabulary.length - 1)].toUpperCase() + random.nextInt(50));
+            List<Tweet> expected = Filter.containing(tweets, words);
+            assertEquals(words.toString(), expected, summary.containing(tweets, words));
+            assertEquals(words.toString(), expected, summary.containing(store, words));
+        }
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        List<Tweet> tweets = topicalTweets(95);
+        BlockSummary summary = BlockSummary.of(tweets, 10, 0.01);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        summary.writeTo(bytes);
+        BlockSummary copy = BlockSummary.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(summary.size(), copy.size());
+        assertEquals(summary.blockCount(), copy.blockCount());
+        assertEquals(summary.filterBytes(), copy.filterBytes());
+        for (String word : Arrays.asList("topic3", "common", "text94", "nothing")) {
+            assertEquals(summary.candidateBlocks(Arrays.asList(word)), copy.candidateBlocks(Arrays.asList(word)));
+            assertEquals(summary.containing(tweets, Arrays.asList(word)), copy.containing(tweets, Arrays.asList(word)));
+        }
+        assertEquals(Paths.get("data", "month.snapshot.blocks"), BlockSummary.pathFor(Paths.get("data", "month.snapshot")));
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadTruncated() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BlockSummary.of(topicalTweets(95), 10, 0.01).writeTo(bytes);
+
+        BlockSummary.readFrom(new ByteArrayInputStream(Arrays.copyOf(bytes.toByteArray(), 40)));
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadNotSummary() throws IOException {
+        BlockSummary.readFrom(new ByteArrayInputStream(new byte[64]));
+    }
+}
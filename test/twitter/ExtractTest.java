@@ -6,8 +6,12 @@ package twitter;
 import static org.junit.Assert.*;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Test;
@@ -36,6 +40,13 @@ public class ExtractTest {
      *     * invalid: email address (@ preceded by valid username char)
      *     * invalid: @ followed by non-username chars
      * - edge cases: mention with punctuation, multiple mentions in a row, @ at very start/end
+     *
+     * getTimespanParallel(), getMentionedUsersParallel():
+     * - result equal to the sequential method's
+     * - tweets.size(): 0, 1, many chunks (also enough for the sequential
+     *   methods to go parallel themselves)
+     * - list: ArrayList, LinkedList, TweetStore
+     * - earliest and latest tweet: in the first chunk, in the last chunk
      */
 
     private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
@@ -266,6 +277,61 @@ public class ExtractTest {
                 mentionedUsers.isEmpty());
     }
 
+    /*
+     * Tests for getTimespanParallel() and getMentionedUsersParallel()
+     */
+
+    private static List<Tweet> manyTweets(int count) {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String text = "tweet " + i + " to @User" + (i % 1000) + " and @user" + (i % 7);
+            tweets.add(new Tweet(i, "author" + (i % 50), text, d1.plusSeconds((i * 7919L) % 100003)));
+        }
+        return tweets;
+    }
+
+    @Test
+    public void testParallelEmptyAndSingle() {
+        List<Tweet> empty = Collections.emptyList();
+        List<Tweet> single = Arrays.asList(tweet1);
+
+        assertEquals(Extract.getTimespan(empty).getStart(), Extract.getTimespanParallel(empty).getStart());
+        assertEquals(Extract.getTimespan(empty).getEnd(), Extract.getTimespanParallel(empty).getEnd());
+        assertTrue(Extract.getMentionedUsersParallel(empty).isEmpty());
+        assertEquals(d1, Extract.getTimespanParallel(single).getStart());
+        assertEquals(d1, Extract.getTimespanParallel(single).getEnd());
+        assertTrue(Extract.getMentionedUsersParallel(single).isEmpty());
+    }
+
+    @Test
+    public void testParallelSameAsSequential() {
+        List<Tweet> tweets = manyTweets(50000);
+        Instant earliest = d1.minusSeconds(1);
+        Instant latest = d1.plusSeconds(1000000);
+        tweets.set(tweets.size() - 1, new Tweet(-1, "x", "@LAST", earliest));
+        tweets.set(0, new Tweet(-2, "x", "@first", latest));
+
+        Set<String> expectedMentions = new HashSet<>();
+        Instant start = tweets.get(0).getTimestamp();
+        Instant end = start;
+        for (Tweet tweet : tweets) {
+            start = tweet.getTimestamp().isBefore(start) ? tweet.getTimestamp() : start;
+            end = tweet.getTimestamp().isAfter(end) ? tweet.getTimestamp() : end;
+            expectedMentions.addAll(Extract.getMentionedUsers(Arrays.asList(tweet)));
+        }
+        assertEquals(earliest, start);
+        assertEquals(latest, end);
+
+        for (List<Tweet> list : Arrays.asList(tweets, new LinkedList<>(tweets), TweetStore.of(tweets))) {
+            for (Timespan span : Arrays.asList(Extract.getTimespanParallel(list), Extract.getTimespan(list))) {
+                assertEquals(start, span.getStart());
+                assertEquals(end, span.getEnd());
+            }
+            assertEquals(expectedMentions, makeLowerCase(Extract.getMentionedUsersParallel(list)));
+            assertEquals(expectedMentions, makeLowerCase(Extract.getMentionedUsers(list)));
+        }
+    }
+
     /**
      * Helper method to convert set of strings to lowercase for case-insensitive checking.
      * Needed because the spec is underdetermined about what case to return.
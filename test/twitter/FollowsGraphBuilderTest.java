@@ -0,0 +1,104 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowsGraphBuilderTest {
+
+    /*
+     * Testing strategy for FollowsGraphBuilder:
+     *
+     * Partition the inputs as follows:
+     * - tweets: 0, 1, >1 by the same author in different cases
+     * - mentions: none, self-mention, repeated, different cases
+     * - input: whole tweets by accept(), startTweet() and addMention()
+     * - output: graph(), idGraph() not affected by later tweets
+     * - addMention() before any tweet started
+     * - many distinct users, each author following few of them
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static Set<String> set(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+
+        assertTrue(builder.graph().isEmpty());
+        assertTrue(builder.idGraph().isEmpty());
+    }
+
+    @Test
+    public void testWholeTweets() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        builder.accept(new Tweet(1, "alyssa", "@bbitdiddle @Alyssa @BBITDIDDLE", d1));
+        builder.accept(new Tweet(2, "ALYSSA", "@rivest", d1));
+        builder.accept(new Tweet(3, "evalu", "no mentions", d1));
+
+        Map<String, Set<String>> graph = builder.graph();
+
+        assertEquals(set("alyssa", "evalu"), graph.keySet());
+        assertEquals(set("bbitdiddle", "rivest"), graph.get("alyssa"));
+        assertEquals(Collections.emptySet(), graph.get("evalu"));
+    }
+
+    @Test
+    public void testParts() {
+        UsernameDictionary usernames = new UsernameDictionary();
+        FollowsGraphBuilder builder = new FollowsGraphBuilder(usernames);
+        String text = "to @rivest and @alyssa";
+
+        builder.startTweet("Alyssa");
+        builder.addMention(text, 4, 10);
+        builder.addMention(text, 16, 22);
+        Map<Integer, IdSet> graph = builder.idGraph();
+        builder.startTweet("alyssa");
+        builder.addMention("@evalu", 1, 6);
+
+        assertEquals(Collections.singleton(usernames.find("alyssa")), graph.keySet());
+        assertEquals(IdSet.of(usernames.find("rivest")), graph.get(usernames.find("alyssa")));
+        assertEquals(set("rivest", "evalu"), builder.graph().get("alyssa"));
+    }
+
+    @Test
+    public void testManyDistinctUsers() {
+        UsernameDictionary usernames = new UsernameDictionary();
+        FollowsGraphBuilder builder = new FollowsGraphBuilder(usernames);
+        int n = 200_000;
+        for (int i = 0; i < n; i++) {
+            builder.accept(new Tweet(i, "author" + i, "hi @mentioned" + i, d1));
+        }
+
+        Map<Integer, IdSet> graph = builder.idGraph();
+
+        assertEquals(2 * n, usernames.size());
+        assertEquals(n, graph.size());
+        int last = usernames.find("author" + (n - 1));
+        assertEquals(IdSet.of(usernames.find("mentioned" + (n - 1))), graph.get(last));
+        assertEquals(set("mentioned0"), builder.graph().get("author0"));
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testMentionBeforeTweet() {
+        new FollowsGraphBuilder().addMention("@alyssa", 1, 7);
+    }
+}
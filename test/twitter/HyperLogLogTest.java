@@ -0,0 +1,132 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    /*
+     * Testing strategy for HyperLogLog:
+     *
+     * Partition the inputs as follows:
+     * - distinct usernames: 0, few (linear counting), many times the number
+     *   of registers
+     * - repeats: same username added again, in a different case
+     * - source: add(username), add(text, start, end), addMentions()
+     * - precision: MIN_PRECISION, default, out of range
+     * - merge(): disjoint, overlapping, different precisions
+     * - writeTo()/readFrom(): round trip, wrong magic, truncated
+     */
+
+    private static void assertClose(long expected, long actual, double relativeError) {
+        assertTrue("expected about " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= relativeError * expected);
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, new HyperLogLog().estimate());
+        assertEquals(0, new HyperLogLog(HyperLogLog.MIN_PRECISION).estimate());
+    }
+
+    @Test
+    public void testFewCaseInsensitive() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (String username : Arrays.asList("alyssa", "ALYSSA", "bbitdiddle", "Alyssa", "rivest", "bBitDiddle")) {
+            sketch.add(username);
+        }
+
+        assertEquals(3, sketch.estimate());
+    }
+
+    @Test
+    public void testMentions() {
+        HyperLogLog mentions = new HyperLogLog();
+        mentions.addMentions("@alyssa talks to @BBitdiddle, not bitdiddle@mit.edu; @Alyssa");
+        HyperLogLog names = new HyperLogLog();
+        String text = "alyssa bbitdiddle";
+        names.add(text, 0, 6);
+        names.add(text, 7, text.length());
+
+        assertEquals(2, mentions.estimate());
+        assertEquals(2, names.merge(mentions).estimate());
+    }
+
+    @Test
+    public void testManyDistinct() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 200000; i++) {
+            sketch.add("user" + i);
+            sketch.add("USER" + (i / 2));
+        }
+
+        // about five standard errors
+        assertClose(200000, sketch.estimate(), 0.04);
+    }
+
+    @Test
+    public void testMergeOverlapping() {
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        for (int i = 0; i < 60000; i++) {
+            left.add("user" + i);
+            right.add("user" + (i + 30000));
+        }
+
+        assertClose(90000, left.merge(right).estimate(), 0.08);
+        assertClose(60000, right.estimate(), 0.08);
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (int i = 0; i < 5000; i++) {
+            sketch.add("user" + i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(bytes);
+
+        HyperLogLog copy = HyperLogLog.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(12 + 1024, bytes.size());
+        assertEquals(10, copy.precision());
+        assertEquals(sketch.estimate(), copy.estimate());
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadTruncated() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new HyperLogLog(8).writeTo(bytes);
+
+        HyperLogLog.readFrom(new ByteArrayInputStream(Arrays.copyOf(bytes.toByteArray(), 100)));
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadNotSketch() throws IOException {
+        HyperLogLog.readFrom(new ByteArrayInputStream(new byte[64]));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeDifferentPrecisions() {
+        new HyperLogLog(10).merge(new HyperLogLog(11));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPrecisionOutOfRange() {
+        new HyperLogLog(HyperLogLog.MAX_PRECISION + 1);
+    }
+}
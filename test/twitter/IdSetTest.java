@@ -0,0 +1,95 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IdSetTest {
+
+    /*
+     * Testing strategy for IdSet:
+     *
+     * Partition the inputs as follows:
+     * - set: empty, one id, many ids forcing the table to grow
+     * - ids: 0, small, very large, repeated, negative
+     * - copy(): not affected by later adds to the original
+     * - equals(): same ids added in different orders
+     * - random sets, compared with BitSet
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        IdSet empty = new IdSet();
+
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.size());
+        assertArrayEquals(new int[0], empty.toArray());
+        assertFalse(empty.contains(0));
+        assertFalse(empty.contains(-1));
+        assertEquals(IdSet.of(), empty);
+    }
+
+    @Test
+    public void testAdd() {
+        IdSet set = new IdSet();
+
+        assertTrue(set.add(0));
+        assertTrue(set.add(Integer.MAX_VALUE - 1));
+        assertFalse(set.add(0));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(Integer.MAX_VALUE - 1));
+        assertFalse(set.contains(1));
+        assertArrayEquals(new int[] { 0, Integer.MAX_VALUE - 1 }, set.toArray());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNegative() {
+        new IdSet().add(-1);
+    }
+
+    @Test
+    public void testCopyAndEquals() {
+        IdSet set = IdSet.of(5, 1, 9);
+        IdSet copy = set.copy();
+        set.add(7);
+
+        assertEquals(IdSet.of(9, 5, 1), copy);
+        assertEquals(IdSet.of(9, 5, 1).hashCode(), copy.hashCode());
+        assertNotEquals(set, copy);
+        assertEquals("[1, 5, 9]", copy.toString());
+    }
+
+    @Test
+    public void testRandomAgainstBitSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            IdSet set = new IdSet();
+            BitSet expected = new BitSet();
+            int n = random.nextInt(2000);
+            for (int i = 0; i < n; i++) {
+                int id = random.nextInt(1 << 20);
+                assertEquals(!expected.get(id), set.add(id));
+                expected.set(id);
+            }
+
+            assertEquals(expected.cardinality(), set.size());
+            assertArrayEquals(expected.stream().toArray(), set.toArray());
+            for (int i = 0; i < 100; i++) {
+                int id = random.nextInt(1 << 20);
+                assertEquals(expected.get(id), set.contains(id));
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MentionAccumulatorTest {
+
+    /*
+     * Testing strategy for MentionAccumulator:
+     *
+     * Partition the inputs as follows:
+     * - tweets seen: 0, 1, >1
+     * - mentions: none, repeated, same username in different cases
+     * - merge(): either side empty, disjoint, overlapping
+     * - snapshot: taken between additions, not changed by later additions
+     * - use: as the Consumer of a stream of tweets
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "talk to @BBitdiddle about @rivest", d1),
+            new Tweet(2, "bbitdiddle", "no mentions, bitdiddle@mit.edu", d1),
+            new Tweet(3, "rivest", "@alyssa @bbitdiddle @Alyssa", d1));
+
+    private static Set<String> set(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        MentionAccumulator mentioned = new MentionAccumulator();
+
+        assertEquals(0, mentioned.size());
+        assertEquals(Collections.emptySet(), mentioned.mentions());
+    }
+
+    @Test
+    public void testIncremental() {
+        MentionAccumulator mentioned = new MentionAccumulator();
+
+        mentioned.accept(TWEETS.get(0));
+        Set<String> snapshot = mentioned.mentions();
+        mentioned.accept(TWEETS.get(1));
+        mentioned.accept(TWEETS.get(2));
+
+        assertEquals(set("bbitdiddle", "rivest"), snapshot);
+        assertEquals(set("bbitdiddle", "rivest", "alyssa"), mentioned.mentions());
+        assertEquals(3, mentioned.size());
+    }
+
+    @Test
+    public void testMerge() {
+        MentionAccumulator first = new MentionAccumulator();
+        first.accept(TWEETS.get(0));
+        MentionAccumulator last = new MentionAccumulator();
+        last.add("@Rivest and @evalu");
+
+        assertEquals(set("bbitdiddle", "rivest"), new MentionAccumulator().merge(first).mentions());
+        assertEquals(set("bbitdiddle", "rivest"), first.merge(new MentionAccumulator()).mentions());
+        assertEquals(set("bbitdiddle", "rivest", "evalu"), first.merge(last).mentions());
+        assertEquals(set("rivest", "evalu"), last.mentions());
+    }
+
+    @Test
+    public void testStream() {
+        MentionAccumulator mentioned = TWEETS.parallelStream().collect(
+                MentionAccumulator::new, MentionAccumulator::accept, MentionAccumulator::merge);
+
+        assertEquals(Extract.getMentionedUsers(TWEETS), mentioned.mentions());
+    }
+}
@@ -0,0 +1,103 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class MentionScannerTest {
+
+    /*
+     * Testing strategy for MentionScanner:
+     *
+     * Partition the inputs as follows:
+     * - mentions in text: 0, 1, >1
+     * - position: at start, in middle, at end of text
+     * - preceding char: none, space, punctuation, non-ASCII, username char, "@"
+     * - following char: none, space, punctuation, non-ASCII, "@"
+     * - "@" followed by: nothing, a non-username char, a username
+     * - text: String, TweetStore view
+     * - random texts over a small alphabet, compared with the regular
+     *   expression getMentionedUsers() was first written with
+     */
+
+    private static final Pattern REFERENCE = Pattern.compile("(?:^|[^A-Za-z0-9_-])@([A-Za-z0-9_-]+)(?=[^A-Za-z0-9_-]|$)");
+
+    private static List<String> referenceMentions(String text) {
+        List<String> mentions = new ArrayList<>();
+        Matcher matcher = REFERENCE.matcher(text);
+        while (matcher.find()) {
+            mentions.add(matcher.group(1));
+        }
+        return mentions;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNoMentions() {
+        for (String text : Arrays.asList("", "@", "a@", "@ b", "@!x", "bitdiddle@mit.edu", "x@@", "no at sign")) {
+            assertEquals(text, Collections.emptyList(), MentionScanner.mentions(text));
+        }
+    }
+
+    @Test
+    public void testMentions() {
+        assertEquals(Arrays.asList("alyssa"), MentionScanner.mentions("@alyssa"));
+        assertEquals(Arrays.asList("Bit_Diddle-9"), MentionScanner.mentions("hi @Bit_Diddle-9!"));
+        assertEquals(Arrays.asList("a", "b", "a"), MentionScanner.mentions("(@a) @b, @a"));
+        assertEquals(Arrays.asList("b"), MentionScanner.mentions("@@b"));
+        assertEquals(Arrays.asList("a"), MentionScanner.mentions("@a@b"));
+        assertEquals(Arrays.asList("x", "y"), MentionScanner.mentions("café@x é@yé"));
+    }
+
+    @Test
+    public void testScanSpans() {
+        String text = "to @alyssa and @bb";
+        List<Integer> spans = new ArrayList<>();
+
+        MentionScanner.scan(text, (start, end) -> {
+            spans.add(start);
+            spans.add(end);
+        });
+
+        assertEquals(Arrays.asList(4, 10, 16, 18), spans);
+    }
+
+    @Test
+    public void testView() {
+        TweetStore store = new TweetStore.Builder().offHeapTexts()
+                .add(1, "alyssa", "ça @alyssa ☃@bb", Instant.EPOCH)
+                .build();
+
+        assertEquals(Arrays.asList("alyssa", "bb"), MentionScanner.mentions(store.textView(0)));
+    }
+
+    @Test
+    public void testSameAsRegex() {
+        char[] alphabet = { '@', '@', 'a', 'B', '9', '_', '-', ' ', '.', 'é', '\n' };
+        Random random = new Random(6005);
+        for (int n = 0; n < 20000; n++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(chars);
+            assertEquals(text, referenceMentions(text), MentionScanner.mentions(text));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PositionBitmapTest {
+
+    /*
+     * Testing strategy for PositionBitmap:
+     *
+     * Partition the inputs as follows:
+     * - set: empty, one member, many; members in one chunk of 2^16, in
+     *   several, with gaps of empty chunks
+     * - chunk density: sparse (kept as an array), dense (kept as a bitmap),
+     *   at the boundary between them
+     * - operation: and, or, andNot, filter; of sparse with sparse, sparse
+     *   with dense, dense with dense; results that become empty, sparse or dense
+     * - of(): positions not increasing
+     * - random sets, compared with BitSet
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        PositionBitmap empty = PositionBitmap.empty();
+
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.cardinality());
+        assertArrayEquals(new int[0], empty.toArray());
+        assertFalse(empty.contains(0));
+        assertEquals(empty, PositionBitmap.of());
+        assertEquals(empty, PositionBitmap.range(0));
+    }
+
+    @Test
+    public void testOf() {
+        PositionBitmap bitmap = PositionBitmap.of(3, 70000, 1 << 20);
+
+        assertEquals(3, bitmap.cardinality());
+        assertArrayEquals(new int[] { 3, 70000, 1 << 20 }, bitmap.toArray());
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(4));
+        assertFalse(bitmap.contains(-1));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testOfNotIncreasing() {
+        PositionBitmap.of(1, 1);
+    }
+
+    @Test
+    public void testOperations() {
+        PositionBitmap dense = PositionBitmap.range(200000);
+        PositionBitmap sparse = PositionBitmap.of(5, 65536, 199999, 300000);
+
+        assertEquals(200000, dense.cardinality());
+        assertArrayEquals(new int[] { 5, 65536, 199999 }, dense.and(sparse).toArray());
+        assertEquals(200001, dense.or(sparse).cardinality());
+        assertEquals(199997, dense.andNot(sparse).cardinality());
+        assertArrayEquals(new int[] { 300000 }, sparse.andNot(dense).toArray());
+        assertEquals(PositionBitmap.empty(), dense.andNot(dense));
+        assertEquals(4097, dense.filter(i -> i <= 4096).cardinality());
+    }
+
+    @Test
+    public void testSameAsBitSet() {
+        Random random = new Random(6005);
+        for (int trial = 0; trial < 40; trial++) {
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            PositionBitmap x = PositionBitmap.of(a.stream().toArray());
+            PositionBitmap y = PositionBitmap.of(b.stream().toArray());
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            BitSet andNot = (BitSet) a.clone();
+            andNot.andNot(b);
+
+            assertEquals(a.cardinality(), x.cardinality());
+            assertArrayEquals(and.stream().toArray(), x.and(y).toArray());
+            assertArrayEquals(or.stream().toArray(), x.or(y).toArray());
+            assertArrayEquals(andNot.stream().toArray(), x.andNot(y).toArray());
+            assertArrayEquals(a.stream().filter(i -> i % 3 == 0).toArray(), x.filter(i -> i % 3 == 0).toArray());
+        }
+    }
+
+    /*
+     * @return a set over 4 chunks of 2^16, each empty, sparse, near the
+     *         sparse/dense boundary, or dense
+     */
+    private static BitSet randomSet(Random random) {
+        int[] sizes = { 0, 10, 4000, 4200, 40000 };
+        BitSet set = new BitSet();
+        for (int chunk = 0; chunk < 4; chunk++) {
+            int size = sizes[random.nextInt(sizes.length)];
+            for (int k = 0; k < size; k++) {
+                set.set(chunk << 16 | random.nextInt(1 << 16));
+            }
+        }
+        return set;
+    }
+}
@@ -0,0 +1,186 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class QueryCacheTest {
+
+    /*
+     * Testing strategy for QueryCache:
+     *
+     * Partition the inputs as follows:
+     * - query: writtenBy, inTimespan, containing, followsGraph, influencers
+     * - repeated query: same spelling; username in another case; words in
+     *   another case, order, or with duplicates
+     * - dataset: none loaded, loaded once, reloaded
+     * - bound: results fit; eviction of the least recently used; a result
+     *   larger than the bound; zero
+     * - results: equal to Filter's and SocialNetwork's; unmodifiable
+     * - threads: one; several asking the same query at once
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "is it reasonable to talk about @rivest so much?", d1),
+            new Tweet(2, "bbitdiddle", "@rivest talk in 30 minutes #hype", d2),
+            new Tweet(3, "Alyssa", "spam @bbitdiddle", d2));
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNoDataset() {
+        QueryCache cache = new QueryCache(1 << 20);
+
+        assertEquals(0, cache.version());
+        assertEquals(Collections.emptyList(), cache.writtenBy("alyssa"));
+        assertEquals(Collections.emptyList(), cache.influencers());
+    }
+
+    @Test
+    public void testSameAsUncached() {
+        QueryCache cache = new QueryCache(1 << 20);
+        cache.load(TWEETS);
+        Timespan timespan = new Timespan(d2, d2);
+
+        assertEquals(Filter.writtenBy(TWEETS, "alyssa"), cache.writtenBy("alyssa"));
+        assertEquals(Filter.inTimespan(TWEETS, timespan), cache.inTimespan(timespan));
+        assertEquals(Filter.containing(TWEETS, Arrays.asList("talk")), cache.containing(Arrays.asList("talk")));
+        assertEquals(SocialNetwork.guessFollowsGraph(TWEETS), cache.followsGraph());
+        assertEquals(SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(TWEETS)), cache.influencers());
+    }
+
+    @Test
+    public void testHitsAndNormalization() {
+        QueryCache cache = new QueryCache(1 << 20);
+        cache.load(TWEETS);
+
+        List<Tweet> first = cache.writtenBy("alyssa");
+        assertSame(first, cache.writtenBy("ALYSSA"));
+        List<Tweet> words = cache.containing(Arrays.asList("talk", "spam"));
+        assertSame(words, cache.containing(Arrays.asList("SPAM", "talk", "Talk")));
+        cache.inTimespan(new Timespan(d1, d2));
+        assertEquals(3, cache.size());
+        assertEquals(2, cache.hits());
+        assertEquals(3, cache.misses());
+        assertTrue(cache.bytes() > 0);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testUnmodifiable() {
+        QueryCache cache = new QueryCache(1 << 20);
+        cache.load(TWEETS);
+
+        cache.writtenBy("alyssa").clear();
+    }
+
+    @Test
+    public void testReloadInvalidates() {
+        QueryCache cache = new QueryCache(1 << 20);
+        List<Tweet> tweets = new ArrayList<>(TWEETS);
+        long v1 = cache.load(tweets);
+        assertEquals(2, cache.writtenBy("alyssa").size());
+
+        tweets.remove(0);
+        assertEquals("copy unaffected by changes to the list", 2, cache.writtenBy("alyssa").size());
+        long v2 = cache.load(tweets);
+
+        assertTrue(v2 > v1);
+        assertEquals(v2, cache.version());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.bytes());
+        assertEquals(1, cache.writtenBy("alyssa").size());
+    }
+
+    @Test
+    public void testEviction() {
+        QueryCache unbounded = new QueryCache(Long.MAX_VALUE);
+        unbounded.load(TWEETS);
+        unbounded.writtenBy("alyssa");
+        long oneResult = unbounded.bytes();
+
+        // room for two results like it, but not three
+        QueryCache cache = new QueryCache(oneResult * 2 + oneResult / 2);
+        cache.load(TWEETS);
+        cache.writtenBy("alyssa");
+        cache.writtenBy("bbitdiddle");
+        cache.writtenBy("alyssa"); // now bbitdiddle is least recently used
+        cache.writtenBy("rivest");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        assertTrue(cache.bytes() <= oneResult * 2 + oneResult / 2);
+        long misses = cache.misses();
+        cache.writtenBy("alyssa");
+        assertEquals("alyssa kept", misses, cache.misses());
+        cache.writtenBy("bbitdiddle");
+        assertEquals("bbitdiddle evicted", misses + 1, cache.misses());
+    }
+
+    @Test
+    public void testTooLargeToCache() {
+        QueryCache cache = new QueryCache(0);
+        cache.load(TWEETS);
+
+        assertEquals(Filter.writtenBy(TWEETS, "alyssa"), cache.writtenBy("alyssa"));
+        assertEquals(Filter.writtenBy(TWEETS, "alyssa"), cache.writtenBy("alyssa"));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.misses());
+        assertEquals(0, cache.evictions());
+    }
+
+    @Test
+    public void testConcurrentSameQuery() throws InterruptedException {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            tweets.add(new Tweet(i, "user" + i % 500, "hi @user" + i % 700, d1));
+        }
+        QueryCache cache = new QueryCache(Long.MAX_VALUE);
+        cache.load(tweets);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Map<String, Set<String>>> results = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                results.add(cache.followsGraph());
+            });
+            thread.start();
+            running.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : running) {
+            thread.join();
+        }
+
+        assertEquals(threads, results.size());
+        assertEquals(1, cache.misses());
+        assertEquals(threads - 1, cache.hits());
+        for (Map<String, Set<String>> result : results) {
+            assertSame(results.get(0), result);
+        }
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), results.get(0));
+    }
+}
@@ -0,0 +1,199 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TextAnalyzerTest {
+
+    /*
+     * Testing strategy for TextAnalyzer:
+     *
+     * Partition the inputs as follows:
+     * - text: empty, all spaces, one word, several words separated by runs of
+     *   each kind of \\s; leading and trailing space
+     * - mentions and hashtags: none, at start, at end, adjacent to each other,
+     *   preceded by a character that rules them out
+     * - hashtag characters: ASCII, non-ASCII letters, digits, "_"
+     * - consumers: none of a kind, one, several of the same kind; words only
+     *   (the words-only scan) or words with other kinds
+     * - stop(): by a word or mention consumer, on the first or a later span;
+     *   the next text is analyzed in full
+     * - wordStart()/wordEnd(): from inside a word, from a space, past the end
+     * - random texts over a small alphabet: words compared with
+     *   String.split("\\s+"), mentions with MentionScanner
+     * - sharing: Filter.WordMatch, MentionAccumulator and FollowsGraphBuilder
+     *   on one analyzer give the results of Filter, Extract and SocialNetwork
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static TextAnalyzer.TokenConsumer collect(List<String> tokens) {
+        return (text, start, end) -> tokens.add(text.subSequence(start, end).toString());
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        new TextAnalyzer().onWord(collect(words)).analyze(text);
+        return words;
+    }
+
+    private static List<String> splitWords(String text) {
+        List<String> words = new ArrayList<>(Arrays.asList(text.split("\\s+")));
+        words.remove("");
+        return words;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testWords() {
+        assertEquals(Collections.emptyList(), words(""));
+        assertEquals(Collections.emptyList(), words(" \t\n\u000B\f\r"));
+        assertEquals(Arrays.asList("talk"), words("talk"));
+        assertEquals(Arrays.asList("Talk", "about", "@rivest!"), words("  Talk\tabout \r\n@rivest! "));
+        assertEquals(Arrays.asList("a b", "c"), words("a b c"));
+    }
+
+    @Test
+    public void testMentionsAndHashtags() {
+        List<String> mentions = new ArrayList<>();
+        List<String> hashtags = new ArrayList<>();
+        TextAnalyzer analyzer = new TextAnalyzer().onMention(collect(mentions)).onHashtag(collect(hashtags));
+
+        analyzer.analyze("#hype @alyssa#x me@mit.edu a#b #café_2 @@bb #");
+
+        assertEquals(Arrays.asList("alyssa", "bb"), mentions);
+        assertEquals(Arrays.asList("hype", "café_2"), hashtags);
+    }
+
+    @Test
+    public void testSeveralConsumers() {
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        TextAnalyzer analyzer = new TextAnalyzer().onWord(collect(first)).onWord(collect(second));
+
+        analyzer.analyze("one two");
+        analyzer.analyze("three");
+
+        assertEquals(Arrays.asList("one", "two", "three"), first);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testStop() {
+        for (boolean withMentions : new boolean[] { false, true }) {
+            List<String> words = new ArrayList<>();
+            List<String> mentions = new ArrayList<>();
+            TextAnalyzer analyzer = new TextAnalyzer();
+            analyzer.onWord((text, start, end) -> {
+                words.add(text.subSequence(start, end).toString());
+                if (words.size() == 2) {
+                    analyzer.stop();
+                }
+            });
+            if (withMentions) {
+                analyzer.onMention(collect(mentions));
+            }
+
+            analyzer.analyze("one @two three @four");
+            assertEquals(Arrays.asList("one", "@two"), words);
+
+            words.clear();
+            mentions.clear();
+            analyzer.analyze("five six");
+            assertEquals(Arrays.asList("five", "six"), words);
+        }
+
+        List<String> mentions = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        TextAnalyzer analyzer = new TextAnalyzer().onWord(collect(words));
+        analyzer.onMention((text, start, end) -> {
+            mentions.add(text.subSequence(start, end).toString());
+            analyzer.stop();
+        });
+        analyzer.onMention(collect(mentions));
+
+        analyzer.analyze("hi @alyssa and @bbitdiddle");
+        assertEquals(Arrays.asList("alyssa"), mentions);
+        assertEquals(Arrays.asList("hi", "@alyssa"), words);
+    }
+
+    @Test
+    public void testWordBounds() {
+        String text = " ab\tc  d";
+        assertEquals(1, TextAnalyzer.wordStart(text, 0));
+        assertEquals(1, TextAnalyzer.wordStart(text, 1));
+        assertEquals(2, TextAnalyzer.wordStart(text, 2));
+        assertEquals(4, TextAnalyzer.wordStart(text, 3));
+        assertEquals(7, TextAnalyzer.wordStart(text, 5));
+        assertEquals(-1, TextAnalyzer.wordStart(text, 8));
+        assertEquals(-1, TextAnalyzer.wordStart("   ", 0));
+        assertEquals(3, TextAnalyzer.wordEnd(text, 1));
+        assertEquals(5, TextAnalyzer.wordEnd(text, 4));
+        assertEquals(8, TextAnalyzer.wordEnd(text, 7));
+    }
+
+    @Test
+    public void testSameAsSplitAndScanner() {
+        char[] alphabet = { '@', '#', 'a', 'Z', '_', '-', ' ', '\t', '\n', '.', 'é' };
+        Random random = new Random(6005);
+        for (int n = 0; n < 20000; n++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(chars);
+            List<String> words = new ArrayList<>();
+            List<String> mentions = new ArrayList<>();
+            new TextAnalyzer().onWord(collect(words)).onMention(collect(mentions)).analyze(text);
+
+            assertEquals(text, splitWords(text), words);
+            assertEquals(text, words, words(text));
+            assertEquals(text, MentionScanner.mentions(text), mentions);
+        }
+    }
+
+    @Test
+    public void testSharedScan() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "Talk to @BBitdiddle about rivest", d1),
+                new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes @alyssa #hype", d1),
+                new Tweet(3, "Alyssa", "nothing here, @alyssa", d1));
+        List<String> words = Arrays.asList("TALK", "minutes");
+
+        Filter.WordMatch match = new Filter.WordMatch(words);
+        MentionAccumulator mentioned = new MentionAccumulator();
+        FollowsGraphBuilder graph = new FollowsGraphBuilder();
+        TextAnalyzer analyzer = new TextAnalyzer()
+                .onWord(match)
+                .onMention(mentioned::addMention)
+                .onMention(graph::addMention);
+        List<Tweet> containing = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            match.reset();
+            graph.startTweet(tweet.getAuthor());
+            analyzer.analyze(tweet.getText());
+            if (match.matched()) {
+                containing.add(tweet);
+            }
+        }
+
+        assertEquals(Filter.containing(tweets, words), containing);
+        assertEquals(Extract.getMentionedUsers(tweets), mentioned.mentions());
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), graph.graph());
+    }
+}
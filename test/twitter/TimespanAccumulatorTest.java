@@ -0,0 +1,110 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimespanAccumulatorTest {
+
+    /*
+     * Testing strategy for TimespanAccumulator:
+     *
+     * Partition the inputs as follows:
+     * - timestamps seen: 0, 1, >1
+     * - order: earliest first, latest first, mixed; equal timestamps
+     * - merge(): either side empty, disjoint spans, overlapping spans,
+     *   different groupings of the same parts
+     * - use: as the Consumer of a stream of tweets
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static Tweet tweetAt(Instant timestamp) {
+        return new Tweet(1, "alyssa", "text", timestamp);
+    }
+
+    private static TimespanAccumulator accumulate(Instant... timestamps) {
+        TimespanAccumulator span = new TimespanAccumulator();
+        for (Instant timestamp : timestamps) {
+            span.accept(tweetAt(timestamp));
+        }
+        return span;
+    }
+
+    private static void assertSpan(Instant start, Instant end, TimespanAccumulator span) {
+        assertEquals(start, span.timespan().getStart());
+        assertEquals(end, span.timespan().getEnd());
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TimespanAccumulator span = new TimespanAccumulator();
+
+        assertEquals(0, span.count());
+        assertSpan(Instant.EPOCH, Instant.EPOCH, span);
+    }
+
+    @Test
+    public void testIncremental() {
+        TimespanAccumulator span = accumulate(d1);
+        assertSpan(d1, d1, span);
+
+        span.add(d1.plusSeconds(60));
+        assertSpan(d1, d1.plusSeconds(60), span);
+
+        span.add(d1.minusNanos(1));
+        span.add(d1);
+        assertSpan(d1.minusNanos(1), d1.plusSeconds(60), span);
+        assertEquals(4, span.count());
+    }
+
+    @Test
+    public void testMerge() {
+        TimespanAccumulator empty = new TimespanAccumulator();
+        TimespanAccumulator early = accumulate(d1, d1.plusSeconds(10));
+        TimespanAccumulator late = accumulate(d1.plusSeconds(100), d1.plusSeconds(5));
+
+        assertSpan(d1, d1.plusSeconds(10), new TimespanAccumulator().merge(early));
+        assertSpan(d1, d1.plusSeconds(10), accumulate(d1, d1.plusSeconds(10)).merge(empty));
+        assertSpan(d1, d1.plusSeconds(100), accumulate(d1.plusSeconds(100), d1.plusSeconds(5)).merge(early));
+        assertSpan(d1, d1.plusSeconds(100), accumulate(d1, d1.plusSeconds(10)).merge(late));
+        assertEquals(4, accumulate().merge(early).merge(late).count());
+    }
+
+    @Test
+    public void testMergeGroupings() {
+        List<Instant> timestamps = Arrays.asList(d1.plusSeconds(3), d1, d1.plusSeconds(9), d1.plusSeconds(1));
+        TimespanAccumulator left = accumulate(timestamps.get(0))
+                .merge(accumulate(timestamps.get(1)))
+                .merge(accumulate(timestamps.get(2), timestamps.get(3)));
+        TimespanAccumulator right = accumulate(timestamps.get(0))
+                .merge(accumulate(timestamps.get(1)).merge(accumulate(timestamps.get(2), timestamps.get(3))));
+
+        assertSpan(d1, d1.plusSeconds(9), left);
+        assertSpan(d1, d1.plusSeconds(9), right);
+    }
+
+    @Test
+    public void testStream() {
+        List<Tweet> tweets = Arrays.asList(tweetAt(d1.plusSeconds(5)), tweetAt(d1), tweetAt(d1.plusSeconds(2)));
+
+        TimespanAccumulator span = tweets.parallelStream().collect(
+                TimespanAccumulator::new, TimespanAccumulator::accept, TimespanAccumulator::merge);
+
+        assertSpan(d1, d1.plusSeconds(5), span);
+        assertEquals(Extract.getTimespan(tweets).getStart(), span.timespan().getStart());
+        assertEquals(Extract.getTimespan(tweets).getEnd(), span.timespan().getEnd());
+    }
+}
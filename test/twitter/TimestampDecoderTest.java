@@ -0,0 +1,141 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimestampDecoderTest {
+
+    /*
+     * Testing strategy for TimestampDecoder:
+     *
+     * Compare decodeEpochSecond() against ZonedDateTime.parse() with FORMAT.
+     * Partition the inputs as follows:
+     * - date: same as the previous timestamp, different from it, first one decoded
+     * - offset: zero, positive, negative, with minutes, the +-18:00 extremes
+     * - year: before 1970, after 1970, leap year on Feb 29, more than 4 digits
+     * - time of day: midnight, 23:59:59, 24:00:00 (end of day), random
+     * - invalid (both must throw): wrong day-of-week, day past the end of the
+     *   month, minute or second 60, offset beyond 18:00, offset minutes 60,
+     *   year 0000, lowercase names, wrong separators, non-ASCII digits, truncated
+     */
+
+    private static long expected(String createdAt) {
+        return ZonedDateTime.parse(createdAt, TimestampDecoder.FORMAT).toEpochSecond();
+    }
+
+    private static String format(long epochSecond, int offsetSeconds) {
+        return TimestampDecoder.FORMAT.format(
+                Instant.ofEpochSecond(epochSecond).atOffset(ZoneOffset.ofTotalSeconds(offsetSeconds)));
+    }
+
+    private static void assertBothReject(TimestampDecoder decoder, String createdAt) {
+        try {
+            expected(createdAt);
+            fail("expected formatter to reject " + createdAt);
+        } catch (DateTimeParseException e) {
+            // expected
+        }
+        try {
+            decoder.decodeEpochSecond(createdAt);
+            fail("expected decoder to reject " + createdAt);
+        } catch (DateTimeParseException e) {
+            // expected
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testKnownTimestamp() {
+        TimestampDecoder decoder = new TimestampDecoder();
+
+        assertEquals(Instant.parse("2016-02-17T10:00:00Z"), decoder.decode("Wed Feb 17 10:00:00 +0000 2016"));
+        assertEquals(Instant.parse("2016-02-17T11:00:00Z"), decoder.decode("Wed Feb 17 06:00:00 -0500 2016"));
+    }
+
+    @Test
+    public void testRandomInstantsAndOffsets() {
+        TimestampDecoder decoder = new TimestampDecoder();
+        Random random = new Random(6005);
+        long min = Instant.parse("1000-01-01T00:00:00Z").getEpochSecond();
+        long max = Instant.parse("9999-12-30T00:00:00Z").getEpochSecond();
+        for (int i = 0; i < 100_000; i++) {
+            long second = min + (long) (random.nextDouble() * (max - min));
+            int offset = (random.nextInt(18 * 4 * 2 + 1) - 18 * 4) * 15 * 60;
+            String createdAt = format(second, offset);
+            assertEquals(createdAt, expected(createdAt), decoder.decodeEpochSecond(createdAt));
+        }
+    }
+
+    @Test
+    public void testConsecutiveTimestampsShareDate() {
+        TimestampDecoder decoder = new TimestampDecoder();
+        long start = Instant.parse("2016-02-28T22:00:00Z").getEpochSecond();
+        for (long second = start; second < start + 3 * 86_400; second += 7) {
+            for (int offset : new int[] { 0, 19_800, -34_200 }) {
+                String createdAt = format(second, offset);
+                assertEquals(createdAt, expected(createdAt), decoder.decodeEpochSecond(createdAt));
+            }
+        }
+    }
+
+    @Test
+    public void testEdgeCases() {
+        TimestampDecoder decoder = new TimestampDecoder();
+        String[] timestamps = {
+            "Thu Jan 01 00:00:00 +0000 1970",
+            "Wed Dec 31 23:59:59 +0000 1969",
+            "Mon Feb 29 23:59:59 +0000 2016",
+            "Tue Feb 29 12:00:00 +0000 2000",
+            "Fri Dec 31 23:59:59 +1800 9999",
+            "Mon Jan 01 00:00:00 -1800 0001",
+            "Sat Jan 01 00:00:00 +0530 2000",
+            "Sat Jan 01 00:00:00 -0000 2000",
+            "Wed Feb 17 24:00:00 +0000 2016",
+        };
+        for (String createdAt : timestamps) {
+            assertEquals(createdAt, expected(createdAt), decoder.decodeEpochSecond(createdAt));
+        }
+
+        String wideYear = format(Instant.parse("+10000-01-01T00:00:00Z").getEpochSecond(), 0);
+        assertEquals(wideYear, expected(wideYear), decoder.decodeEpochSecond(wideYear));
+    }
+
+    @Test
+    public void testInvalidTimestampsRejected() {
+        TimestampDecoder decoder = new TimestampDecoder();
+        decoder.decodeEpochSecond("Wed Feb 17 10:00:00 +0000 2016");
+        String[] timestamps = {
+            "Thu Feb 17 10:00:00 +0000 2016",
+            "Tue Feb 30 10:00:00 +0000 2016",
+            "Wed Feb 17 10:60:00 +0000 2016",
+            "Wed Feb 17 10:00:60 +0000 2016",
+            "Wed Feb 17 10:00:00 +1801 2016",
+            "Wed Feb 17 10:00:00 +0060 2016",
+            "Sat Jan 01 00:00:00 +0000 0000",
+            "wed feb 17 10:00:00 +0000 2016",
+            "Wed Feb 17 10-00-00 +0000 2016",
+            "Wed Feb 17 10:00:00 +0000 201٦",
+            "Wed Feb 17 10:00:00 +0000",
+            "",
+        };
+        for (String createdAt : timestamps) {
+            assertBothReject(decoder, createdAt);
+        }
+        assertEquals(expected("Wed Feb 17 10:00:01 +0000 2016"),
+                     decoder.decodeEpochSecond("Wed Feb 17 10:00:01 +0000 2016"));
+    }
+}
@@ -0,0 +1,99 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimestampIndexTest {
+
+    /*
+     * Testing strategy for TimestampIndex:
+     *
+     * Partition the inputs as follows:
+     * - tweets: none, one, many; not in time order; equal timestamps;
+     *   timestamps differing only in nanoseconds
+     * - timespan: before, after, or between all tweets; bounds equal to a
+     *   tweet's timestamp; zero length
+     * - list: ArrayList, TweetStore; list changed after indexing
+     * - random lists and timespans, compared with Filter.inTimespan()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T09:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "third", d3),
+            new Tweet(2, "bbitdiddle", "first", d1),
+            new Tweet(3, "alyssa", "second", d2),
+            new Tweet(4, "bbitdiddle", "also first", d1),
+            new Tweet(5, "alyssa", "just after second", d2.plusNanos(1)));
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TimestampIndex index = TimestampIndex.of(Collections.emptyList());
+
+        assertEquals(0, index.size());
+        assertEquals(Collections.emptyList(), index.inTimespan(new Timespan(d1, d3)));
+    }
+
+    @Test
+    public void testInTimespan() {
+        TimestampIndex index = TimestampIndex.of(TWEETS);
+
+        assertEquals(TWEETS, index.inTimespan(new Timespan(d1, d3)));
+        assertEquals(Arrays.asList(TWEETS.get(1), TWEETS.get(3)), index.inTimespan(new Timespan(d1, d1)));
+        assertEquals(TWEETS.subList(2, 3), index.inTimespan(new Timespan(d2, d2)));
+        assertEquals(Arrays.asList(TWEETS.get(0), TWEETS.get(4)), index.inTimespan(new Timespan(d2.plusNanos(1), d3)));
+        assertEquals(Collections.emptyList(), index.inTimespan(new Timespan(d3.plusNanos(1), d3.plusSeconds(60))));
+        assertEquals(Collections.emptyList(), index.inTimespan(new Timespan(d1.minusSeconds(60), d1.minusNanos(1))));
+        assertArrayEquals(new int[] { 1, 2, 3, 4 }, index.positionsInTimespan(new Timespan(d1, d2.plusNanos(1))));
+        assertEquals(3, index.count(new Timespan(d1, d2)));
+    }
+
+    @Test
+    public void testCopiesList() {
+        List<Tweet> tweets = new ArrayList<>(TWEETS);
+        TimestampIndex index = TimestampIndex.of(tweets);
+
+        tweets.clear();
+
+        assertEquals(TWEETS.subList(0, 1), index.inTimespan(new Timespan(d3, d3)));
+    }
+
+    @Test
+    public void testSameAsFilter() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tweets.add(new Tweet(i, "a", "text", d1.plusSeconds(random.nextInt(100)).plusNanos(random.nextInt(3))));
+        }
+        TimestampIndex index = TimestampIndex.of(tweets);
+        TimestampIndex storeIndex = TimestampIndex.of(TweetStore.of(tweets));
+
+        for (int i = 0; i < 200; i++) {
+            Instant start = d1.plusSeconds(random.nextInt(110) - 5).plusNanos(random.nextInt(3));
+            Instant end = start.plusSeconds(random.nextInt(20)).plusNanos(random.nextInt(3));
+            Timespan timespan = new Timespan(start, end);
+            List<Tweet> expected = Filter.inTimespan(tweets, timespan);
+            assertEquals(timespan.toString(), expected, index.inTimespan(timespan));
+            assertEquals(timespan.toString(), expected, storeIndex.inTimespan(timespan));
+            assertEquals(expected.size(), index.count(timespan));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TopMentionsTest {
+
+    /*
+     * Testing strategy for TopMentions:
+     *
+     * Partition the inputs as follows:
+     * - distinct usernames: fewer than capacity (counts exact), more than capacity
+     * - mentions: none, repeated in one tweet, same username in different cases
+     * - usernames given to add(): ASCII, non-ASCII
+     * - many evictions: every counted username is still found
+     * - top(k): k = 0, k < counted usernames, k > counted usernames; ties
+     * - merge(): either side empty, neither side full, both sides full,
+     *   different capacities
+     * - error bounds: checked against exact counts of a skewed random stream,
+     *   fed whole and split into merged shards
+     * - withMaxError(): in range, out of range, tiny (capacity near
+     *   Integer.MAX_VALUE, which must not be allocated up front)
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    /*
+     * @return count mentions drawn from a skewed distribution over 2000 usernames
+     */
+    private static List<String> skewedMentions(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> mentions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int user = (int) Math.floor(Math.pow(2000, random.nextDouble())) - 1;
+            mentions.add("user" + user);
+        }
+        return mentions;
+    }
+
+    private static void assertWithinBounds(Map<String, Long> exact, long total, TopMentions summary) {
+        assertEquals(total, summary.total());
+        long slack = total / summary.capacity();
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = summary.estimate(entry.getKey());
+            assertTrue(entry.getKey(), estimate >= entry.getValue());
+            assertTrue(entry.getKey(), estimate <= entry.getValue() + slack);
+            assertTrue(entry.getKey(), summary.guaranteed(entry.getKey()) <= entry.getValue());
+            if (entry.getValue() > slack) {
+                assertTrue(entry.getKey(), summary.top(summary.capacity()).contains(entry.getKey()));
+            }
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TopMentions summary = new TopMentions(3);
+
+        assertEquals(0, summary.total());
+        assertEquals(Collections.emptyList(), summary.top(5));
+        assertEquals(0, summary.estimate("alyssa"));
+    }
+
+    @Test
+    public void testExactBelowCapacity() {
+        TopMentions summary = new TopMentions(10);
+        summary.accept(new Tweet(1, "alyssa", "@bbitdiddle @BBitdiddle and @rivest", d1));
+        summary.accept(new Tweet(2, "rivest", "@alyssa, alyssa@mit.edu, @bbitdiddle", d1));
+        summary.add("Alyssa", 2);
+
+        assertEquals(7, summary.total());
+        assertEquals(Arrays.asList("alyssa", "bbitdiddle", "rivest"), summary.top(10));
+        assertEquals(Arrays.asList("alyssa", "bbitdiddle"), summary.top(2));
+        assertEquals(Collections.emptyList(), summary.top(0));
+        assertEquals(3, summary.estimate("ALYSSA"));
+        assertEquals(3, summary.guaranteed("alyssa"));
+        assertEquals(0, summary.estimate("evalu"));
+    }
+
+    @Test
+    public void testEviction() {
+        TopMentions summary = new TopMentions(2);
+        summary.add("a", 5);
+        summary.add("b", 1);
+        summary.add("c", 1);
+
+        assertEquals(Arrays.asList("a", "c"), summary.top(2));
+        assertEquals(2, summary.estimate("c"));
+        assertEquals(1, summary.guaranteed("c"));
+        assertEquals(2, summary.estimate("b"));
+        assertEquals(0, summary.guaranteed("b"));
+    }
+
+    @Test
+    public void testCountedFoundAfterManyEvictions() {
+        TopMentions summary = new TopMentions(50);
+        Random random = new Random(6005);
+        for (int i = 0; i < 20_000; i++) {
+            String text = "hi @User" + random.nextInt(500) + "!";
+            summary.addMention(text, 4, text.length() - 1);
+            summary.add("@user" + random.nextInt(500));
+        }
+
+        // every mention is in exactly one counter, so the counts add up to the total
+        long counted = 0;
+        for (String name : summary.top(50)) {
+            counted += summary.estimate(name.toUpperCase());
+        }
+        assertEquals(summary.total(), counted);
+    }
+
+    @Test
+    public void testNonAsciiUsername() {
+        TopMentions summary = new TopMentions(4);
+        summary.add("ÉVALU", 2);
+        summary.add("évalu", 1);
+
+        assertEquals(Arrays.asList("évalu"), summary.top(4));
+        assertEquals(3, summary.guaranteed("Évalu"));
+    }
+
+    @Test
+    public void testBoundsOnSkewedStream() {
+        List<String> mentions = skewedMentions(50000, 6005);
+        Map<String, Long> exact = new HashMap<>();
+        TopMentions summary = TopMentions.withMaxError(0.01);
+        for (String mention : mentions) {
+            exact.merge(mention, 1L, Long::sum);
+            summary.add(mention, 1);
+        }
+
+        assertEquals(100, summary.capacity());
+        assertWithinBounds(exact, mentions.size(), summary);
+        assertEquals("user0", summary.top(1).get(0));
+    }
+
+    @Test
+    public void testBoundsAfterMerge() {
+        Map<String, Long> exact = new HashMap<>();
+        List<TopMentions> shards = new ArrayList<>();
+        for (int shard = 0; shard < 4; shard++) {
+            TopMentions summary = new TopMentions(50);
+            for (String mention : skewedMentions(10000 + 5000 * shard, shard)) {
+                exact.merge(mention, 1L, Long::sum);
+                summary.add(mention, 1);
+            }
+            shards.add(summary);
+        }
+        long total = exact.values().stream().mapToLong(Long::longValue).sum();
+
+        TopMentions leftFirst = new TopMentions(50).merge(shards.get(0)).merge(shards.get(1))
+                .merge(shards.get(2)).merge(shards.get(3));
+        TopMentions balanced = shards.get(0).merge(shards.get(1)).merge(shards.get(2).merge(shards.get(3)));
+
+        assertWithinBounds(exact, total, leftFirst);
+        assertWithinBounds(exact, total, balanced);
+    }
+
+    @Test
+    public void testMergeBelowCapacity() {
+        TopMentions left = new TopMentions(5);
+        left.add("a", 2);
+        left.add("b", 1);
+        TopMentions right = new TopMentions(5);
+        right.add("b", 3);
+        right.add("c", 1);
+
+        left.merge(right).merge(new TopMentions(5));
+
+        assertEquals(Arrays.asList("b", "a", "c"), left.top(5));
+        assertEquals(4, left.estimate("b"));
+        assertEquals(4, left.guaranteed("b"));
+        assertEquals(7, left.total());
+    }
+
+    @Test
+    public void testGetMostMentionedUsers() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "@rivest @bbitdiddle", d1),
+                new Tweet(2, "bbitdiddle", "@Rivest again", d1),
+                new Tweet(3, "evalu", "@RIVEST @alyssa @bbitdiddle", d1));
+
+        assertEquals(Arrays.asList("rivest", "bbitdiddle"), Extract.getMostMentionedUsers(tweets, 2, 0.1));
+        assertEquals(Arrays.asList("rivest", "bbitdiddle"), Extract.getMostMentionedUsers(TweetStore.of(tweets), 2, 0.1));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeDifferentCapacities() {
+        new TopMentions(5).merge(new TopMentions(6));
+    }
+
+    @Test
+    public void testTinyMaxError() {
+        TopMentions summary = TopMentions.withMaxError(Double.MIN_VALUE);
+        TopMentions other = TopMentions.withMaxError(Double.MIN_VALUE);
+        for (int i = 0; i < 100; i++) {
+            summary.add("user" + i, i + 1);
+            other.add("user" + i, 1);
+        }
+        summary.merge(other);
+
+        assertEquals(Integer.MAX_VALUE - 8, summary.capacity());
+        assertEquals(Arrays.asList("user99", "user98"), summary.top(2));
+        assertEquals(101, summary.estimate("user99"));
+        assertEquals(0, summary.estimate("rivest"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMaxErrorOutOfRange() {
+        TopMentions.withMaxError(0);
+    }
+}
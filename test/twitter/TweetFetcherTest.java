@@ -0,0 +1,224 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class TweetFetcherTest {
+
+    /*
+     * Testing strategy for TweetFetcher:
+     *
+     * Serve canned responses from a local HttpServer with artificial latency.
+     * Partition the inputs as follows:
+     * - number of URLs: 0, 1, >1
+     * - overlap between servers: none, some tweets on several servers
+     * - latency: well within the timeout, beyond the timeout
+     * - response: plain, gzip, error status, larger than the byte budget;
+     *   of known length, of unknown length (chunked) smaller or larger than
+     *   the first buffer
+     * - byte budget: room for all responses at once, room for one at a time
+     * Check that fetches overlap in time, and that the caller is released
+     * around the timeout.
+     */
+
+    private static final long LATENCY_MILLIS = 400;
+
+    private HttpServer server;
+
+    private static String tweetJson(long id) {
+        return "{\"id\": " + id + ", \"user\": {\"screen_name\": \"user" + id + "\"}, "
+                + "\"text\": \"tweet " + id + "\", "
+                + "\"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    }
+
+    private static byte[] tweetArray(long... ids) {
+        StringBuilder json = new StringBuilder("[");
+        for (long id : ids) {
+            json.append(json.length() > 1 ? "," : "").append(tweetJson(id));
+        }
+        return json.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void serve(String path, long delayMillis, int status, byte[] body) {
+        serve(path, delayMillis, status, body, body.length);
+    }
+
+    private void serveChunked(String path, byte[] body) {
+        serve(path, LATENCY_MILLIS, 200, body, 0);
+    }
+
+    private void serve(String path, long delayMillis, int status, byte[] body, long length) {
+        server.createContext(path, exchange -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status, length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException e) {
+                // client gave up
+            }
+        });
+    }
+
+    private URL url(String path) throws IOException {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path).toURL();
+    }
+
+    private static Set<Long> ids(List<Tweet> tweets) {
+        Set<Long> ids = new HashSet<>();
+        for (Tweet tweet : tweets) {
+            ids.add(tweet.getId());
+        }
+        return ids;
+    }
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        serve("/a", LATENCY_MILLIS, 200, tweetArray(1, 2, 3));
+        serve("/b", LATENCY_MILLIS, 200, tweetArray(3, 4));
+        serve("/c", LATENCY_MILLIS, 200, tweetArray(4, 5, 1));
+        serve("/slow", 5_000, 200, tweetArray(6));
+        serve("/missing", 0, 404, new byte[0]);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(tweetArray(7, 8));
+        }
+        serve("/gzip", 0, 200, gzip.toByteArray());
+        serveChunked("/chunked-a", tweetArray(1, 2, 3));
+        serveChunked("/chunked-b", tweetArray(3, 4));
+        long[] many = new long[2_000];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = 100 + i;
+        }
+        serveChunked("/chunked-large", tweetArray(many));
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNoUrls() throws IOException {
+        assertTrue(new TweetFetcher(Duration.ofSeconds(1), 1 << 20).fetchAll(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAndDeduplicated() throws IOException {
+        TweetFetcher fetcher = new TweetFetcher(Duration.ofSeconds(3), 1 << 20);
+
+        long start = System.nanoTime();
+        List<Tweet> tweets = fetcher.fetchAll(Arrays.asList(url("/a"), url("/b"), url("/c"), url("/gzip")));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("no duplicates", 7, tweets.size());
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L, 4L, 5L, 7L, 8L)), ids(tweets));
+        assertTrue("fetches should overlap, took " + elapsedMillis + " ms", elapsedMillis < 3 * LATENCY_MILLIS);
+    }
+
+    @Test
+    public void testTimeoutKeepsFinishedFetches() throws IOException {
+        TweetFetcher fetcher = new TweetFetcher(Duration.ofMillis(1_500), 1 << 20);
+        List<Tweet> tweets = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try {
+            fetcher.fetchAll(Arrays.asList(url("/slow"), url("/a")), tweets::add);
+            fail("expected the slow fetch to time out");
+        } catch (IOException e) {
+            // expected
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L)), ids(tweets));
+        assertTrue("should give up around the timeout, took " + elapsedMillis + " ms", elapsedMillis < 4_000);
+    }
+
+    @Test
+    public void testFailedFetchReported() throws IOException {
+        TweetFetcher fetcher = new TweetFetcher(Duration.ofSeconds(3), 1 << 20);
+        List<Tweet> tweets = new ArrayList<>();
+
+        try {
+            fetcher.fetchAll(Arrays.asList(url("/missing"), url("/b")), tweets::add);
+            fail("expected the missing URL to fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(new HashSet<>(Arrays.asList(3L, 4L)), ids(tweets));
+    }
+
+    @Test
+    public void testBudgetSerializesFetches() throws IOException {
+        // room for one response at a time: fetches still all succeed
+        TweetFetcher fetcher = new TweetFetcher(Duration.ofSeconds(5), tweetArray(1, 2, 3).length);
+
+        List<Tweet> tweets = fetcher.fetchAll(Arrays.asList(url("/a"), url("/b"), url("/c")));
+
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L, 4L, 5L)), ids(tweets));
+    }
+
+    @Test(expected=IOException.class)
+    public void testResponseLargerThanBudget() throws IOException {
+        new TweetFetcher(Duration.ofSeconds(3), 10).fetchAll(Arrays.asList(url("/a")));
+    }
+
+    @Test
+    public void testUnknownLength() throws IOException {
+        TweetFetcher fetcher = new TweetFetcher(Duration.ofSeconds(5), 1 << 20);
+
+        List<Tweet> tweets = fetcher.fetchAll(Arrays.asList(url("/chunked-a"), url("/chunked-b"), url("/chunked-large")));
+
+        assertEquals(2_000 + 4, tweets.size());
+    }
+
+    @Test
+    public void testUnknownLengthBudgetSerializesFetches() throws IOException {
+        // the first buffer of each fetch takes the whole budget: fetches still all succeed
+        TweetFetcher fetcher = new TweetFetcher(Duration.ofSeconds(5), tweetArray(1, 2, 3).length);
+
+        List<Tweet> tweets = fetcher.fetchAll(Arrays.asList(url("/chunked-a"), url("/chunked-b")));
+
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L, 4L)), ids(tweets));
+    }
+
+    @Test(expected=IOException.class)
+    public void testUnknownLengthLargerThanBudget() throws IOException {
+        new TweetFetcher(Duration.ofSeconds(3), 1 << 16).fetchAll(Arrays.asList(url("/chunked-large")));
+    }
+}
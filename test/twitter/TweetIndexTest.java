@@ -0,0 +1,110 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetIndexTest {
+
+    /*
+     * Testing strategy for TweetIndex:
+     *
+     * Partition the inputs as follows:
+     * - tweets: none, one, many; word repeated within a tweet
+     * - query words: none, one, several; not in any tweet; same word twice or
+     *   in different cases; containing a space
+     * - matches: none, some, all
+     * - list: ArrayList, TweetStore; list changed after indexing
+     * - random corpora and queries over a small vocabulary, compared with
+     *   Filter.containing()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "Talk about rivest talk", d1),
+            new Tweet(2, "bbitdiddle", "rivest TALK in 30 minutes #hype", d1),
+            new Tweet(3, "Alyssa", "another tweet", d1));
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TweetIndex index = TweetIndex.of(Collections.emptyList());
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.wordCount());
+        assertEquals(Collections.emptyList(), index.containing(Arrays.asList("talk")));
+    }
+
+    @Test
+    public void testPostings() {
+        TweetIndex index = TweetIndex.of(TWEETS);
+
+        assertEquals(3, index.size());
+        assertArrayEquals(new int[] { 0, 1 }, index.positions("Talk"));
+        assertEquals(2, index.frequency("RIVEST"));
+        assertEquals(0, index.frequency("nothing"));
+        assertArrayEquals(new int[0], index.positions("nothing"));
+    }
+
+    @Test
+    public void testContaining() {
+        TweetIndex index = TweetIndex.of(TWEETS);
+
+        assertEquals(Collections.emptyList(), index.containing(Collections.emptyList()));
+        assertEquals(Collections.emptyList(), index.containing(Arrays.asList("nothing", "talk about")));
+        assertEquals(TWEETS.subList(1, 2), index.containing(Arrays.asList("#HYPE")));
+        assertEquals(TWEETS, index.containing(Arrays.asList("tweet", "talk", "TALK", "minutes")));
+        assertEquals(Arrays.asList(TWEETS.get(0), TWEETS.get(2)), index.containing(Arrays.asList("another", "about")));
+    }
+
+    @Test
+    public void testCopiesList() {
+        List<Tweet> tweets = new ArrayList<>(TWEETS);
+        TweetIndex index = TweetIndex.of(tweets);
+
+        tweets.clear();
+
+        assertEquals(TWEETS.subList(0, 2), index.containing(Arrays.asList("rivest")));
+    }
+
+    @Test
+    public void testSameAsFilter() {
+        String[] vocabulary = { "a", "A", "b", "B!", "c", "d", "@e", "é", "É", "f" };
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = random.nextInt(5); w > 0; w--) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(random.nextBoolean() ? " " : "\t\n");
+            }
+            tweets.add(new Tweet(i, "user" + i % 7, text.toString(), d1.plusSeconds(i)));
+        }
+        TweetIndex index = TweetIndex.of(tweets);
+        TweetIndex storeIndex = TweetIndex.of(TweetStore.of(tweets));
+
+        for (int q = 0; q < 200; q++) {
+            List<String> words = new ArrayList<>();
+            for (int w = random.nextInt(4); w > 0; w--) {
+                words.add(vocabulary[random.nextInt(vocabulary.length)]);
+            }
+            List<Tweet> expected = Filter.containing(tweets, words);
+            assertEquals(words.toString(), expected, index.containing(words));
+            assertEquals(words.toString(), expected, storeIndex.containing(words));
+        }
+    }
+}
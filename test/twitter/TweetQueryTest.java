@@ -0,0 +1,114 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class TweetQueryTest {
+
+    /*
+     * Testing strategy for TweetQuery and TweetSearch:
+     *
+     * Partition the inputs as follows:
+     * - query: writtenBy, inTimespan, containing; and, or, not of them;
+     *   and/or of no queries; nested
+     * - matches: none, some, all
+     * - and: children of very different selectivity, so that some are
+     *   evaluated by testing tweets; not as a child
+     * - list: empty, ArrayList, TweetStore
+     * - random queries over random lists, compared with Filter's methods
+     *   and with test()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1),
+            new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2),
+            new Tweet(3, "Alyssa", "spam spam spam", d3),
+            new Tweet(4, "bbitdiddle", "done", d3));
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyList() {
+        TweetSearch search = TweetSearch.of(Collections.emptyList());
+
+        assertEquals(0, search.size());
+        assertEquals(Collections.emptyList(), search.find(TweetQuery.and()));
+        assertEquals(Collections.emptyList(), search.find(TweetQuery.not(TweetQuery.writtenBy("alyssa"))));
+    }
+
+    @Test
+    public void testLeaves() {
+        TweetSearch search = TweetSearch.of(TWEETS);
+
+        assertEquals(Filter.writtenBy(TWEETS, "ALYSSA"), search.find(TweetQuery.writtenBy("ALYSSA")));
+        assertEquals(TWEETS.subList(1, 4), search.find(TweetQuery.inTimespan(new Timespan(d2, d3))));
+        assertEquals(TWEETS.subList(0, 2), search.find(TweetQuery.containing(Arrays.asList("Talk"))));
+        assertEquals(2, search.estimate(TweetQuery.writtenBy("alyssa")));
+    }
+
+    @Test
+    public void testCombinations() {
+        TweetSearch search = TweetSearch.of(TWEETS);
+        TweetQuery alyssa = TweetQuery.writtenBy("alyssa");
+        TweetQuery late = TweetQuery.inTimespan(new Timespan(d2, d3));
+        TweetQuery spam = TweetQuery.containing(Arrays.asList("spam"));
+
+        assertEquals(TWEETS, search.find(TweetQuery.and()));
+        assertEquals(Collections.emptyList(), search.find(TweetQuery.or()));
+        assertEquals(TWEETS.subList(2, 3), search.find(TweetQuery.and(alyssa, late)));
+        assertEquals(TWEETS.subList(0, 3), search.find(TweetQuery.or(alyssa, TweetQuery.and(late, TweetQuery.containing(Arrays.asList("#HYPE"))))));
+        assertEquals(Arrays.asList(TWEETS.get(1), TWEETS.get(3)), search.find(TweetQuery.and(late, TweetQuery.not(spam))));
+        assertEquals(TWEETS.subList(3, 4), search.find(TweetQuery.not(TweetQuery.or(alyssa, TweetQuery.containing(Arrays.asList("talk"))))));
+    }
+
+    @Test
+    public void testSameAsFilter() {
+        String[] authors = { "a", "b", "C" };
+        String[] vocabulary = { "x", "y", "Z", "w" };
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String author = i % 500 == 0 ? "rare" : authors[random.nextInt(authors.length)];
+            String text = vocabulary[random.nextInt(vocabulary.length)] + " " + vocabulary[random.nextInt(vocabulary.length)];
+            tweets.add(new Tweet(i, author, text, d1.plusSeconds(random.nextInt(1000))));
+        }
+        TweetSearch search = TweetSearch.of(tweets);
+        TweetSearch storeSearch = TweetSearch.of(TweetStore.of(tweets));
+
+        for (int trial = 0; trial < 100; trial++) {
+            String author = random.nextBoolean() ? "RARE" : authors[random.nextInt(authors.length)];
+            Instant start = d1.plusSeconds(random.nextInt(1000));
+            Timespan timespan = new Timespan(start, start.plusSeconds(random.nextInt(300)));
+            List<String> words = Arrays.asList(vocabulary[random.nextInt(vocabulary.length)]);
+
+            List<Tweet> expected = Filter.containing(Filter.inTimespan(Filter.writtenBy(tweets, author), timespan), words);
+            TweetQuery query = TweetQuery.and(TweetQuery.containing(words), TweetQuery.inTimespan(timespan),
+                    TweetQuery.writtenBy(author));
+            assertEquals(expected, search.find(query));
+            assertEquals(expected, storeSearch.find(query));
+
+            TweetQuery nested = TweetQuery.or(TweetQuery.not(query),
+                    TweetQuery.and(TweetQuery.writtenBy(author), TweetQuery.not(TweetQuery.inTimespan(timespan))));
+            assertEquals(tweets.stream().filter(nested).collect(Collectors.toList()), search.find(nested));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.json.JsonException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TweetReaderTest {
+
+    /*
+     * Testing strategy for TweetReader:
+     *
+     * readTweetsFromFile():
+     * Partition the inputs as follows:
+     * - number of tweets: 0, 1, enough to span several parse chunks
+     * - text contents: plain, braces and brackets, escaped quotes and backslashes,
+     *   non-ASCII characters
+     * - whitespace around and between objects: none, some
+     * - malformed: not an array, top-level non-object, trailing comma, truncated
+     * - compression: none, gzip, block gzip with one block and with many blocks
+     *
+     * TweetCompression:
+     * - input: empty, shorter than a gzip header, uncompressed, gzip, block gzip
+     * - block gzip read by a plain gzip reader
+     * - corrupted block gzip: bad CRC, truncated block
+     */
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String tweetJson(long id, String author, String escapedText) {
+        return "{\"id\": " + id + ", \"user\": {\"screen_name\": \"" + author + "\"}, "
+                + "\"text\": \"" + escapedText + "\", "
+                + "\"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    }
+
+    private Path write(String json) throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testFileEmptyArray() throws IOException {
+        assertTrue(TweetReader.readTweetsFromFile(write(" [\n] ")).isEmpty());
+    }
+
+    @Test
+    public void testFileTrickyText() throws IOException {
+        String json = "[" + tweetJson(1, "alyssa", "a } b ] c { \\\"quoted\\\" \\\\ café ☃") + "]";
+        List<Tweet> tweets = TweetReader.readTweetsFromFile(write(json));
+
+        assertEquals(1, tweets.size());
+        assertEquals("alyssa", tweets.get(0).getAuthor());
+        assertEquals("a } b ] c { \"quoted\" \\ café ☃", tweets.get(0).getText());
+        assertEquals(Instant.parse("2016-02-17T10:00:00Z"), tweets.get(0).getTimestamp());
+    }
+
+    @Test
+    public void testFileManyChunksKeepsOrder() throws IOException {
+        final int count = 50_000;
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(",\n  ");
+            }
+            json.append(tweetJson(i, "user" + (i % 97), "tweet number " + i + " {[\\\"}]"));
+        }
+        json.append("\n]\n");
+
+        List<Tweet> tweets = TweetReader.readTweetsFromFile(write(json.toString()));
+
+        assertEquals(count, tweets.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, tweets.get(i).getId());
+            assertEquals("tweet number " + i + " {[\"}]", tweets.get(i).getText());
+        }
+    }
+
+    private static String manyTweets(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(",");
+            }
+            json.append(tweetJson(i, "user" + (i % 13), "compressed tweet " + i));
+        }
+        return json.append("]").toString();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] blockGzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream blocks = TweetCompression.blockCompressed(out)) {
+            blocks.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] bytes) throws IOException {
+        try (InputStream in = TweetCompression.decompress(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testFileGzip() throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, gzip(manyTweets(1000).getBytes(StandardCharsets.UTF_8)));
+
+        List<Tweet> tweets = TweetReader.readTweetsFromFile(path);
+
+        assertEquals(1000, tweets.size());
+        assertEquals("compressed tweet 999", tweets.get(999).getText());
+    }
+
+    @Test
+    public void testFileBlockGzip() throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, blockGzip(manyTweets(20_000).getBytes(StandardCharsets.UTF_8)));
+
+        List<Tweet> tweets = TweetReader.readTweetsFromFile(path);
+
+        assertEquals(20_000, tweets.size());
+        for (int i = 0; i < tweets.size(); i++) {
+            assertEquals(i, tweets.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testDecompressPassesThroughShortAndPlainInput() throws IOException {
+        assertArrayEquals(new byte[0], decompress(new byte[0]));
+        assertArrayEquals(new byte[] { 0x1f }, decompress(new byte[] { 0x1f }));
+        byte[] plain = "[]".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(plain, decompress(plain));
+    }
+
+    @Test
+    public void testBlockGzipRoundTrip() throws IOException {
+        Random random = new Random(6005);
+        for (int size : new int[] { 0, 1, 0xff00, 0xff01, 1 << 20 }) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes); // incompressible, the worst case for block size
+            byte[] compressed = blockGzip(bytes);
+
+            assertArrayEquals(bytes, decompress(compressed));
+            try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                assertArrayEquals("readable as plain gzip", bytes, gzip.readAllBytes());
+            }
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testBlockGzipBadChecksum() throws IOException {
+        byte[] compressed = blockGzip("[1, 2, 3]".getBytes(StandardCharsets.UTF_8));
+        // the CRC of the first block is 8 bytes before the start of the end-of-file block
+        compressed[compressed.length - 28 - 8] ^= 1;
+        decompress(compressed);
+    }
+
+    @Test(expected=IOException.class)
+    public void testBlockGzipTruncated() throws IOException {
+        byte[] compressed = blockGzip(new byte[100_000]);
+        decompress(Arrays.copyOf(compressed, compressed.length / 2));
+    }
+
+    @Test(expected=JsonException.class)
+    public void testFileNotAnArray() throws IOException {
+        TweetReader.readTweetsFromFile(write(tweetJson(1, "alyssa", "hi")));
+    }
+
+    @Test(expected=JsonException.class)
+    public void testFileNonObjectElement() throws IOException {
+        TweetReader.readTweetsFromFile(write("[" + tweetJson(1, "alyssa", "hi") + ", 5]"));
+    }
+
+    @Test(expected=JsonException.class)
+    public void testFileTrailingComma() throws IOException {
+        TweetReader.readTweetsFromFile(write("[" + tweetJson(1, "alyssa", "hi") + ",]"));
+    }
+
+    @Test(expected=JsonException.class)
+    public void testFileTruncated() throws IOException {
+        TweetReader.readTweetsFromFile(write("[" + tweetJson(1, "alyssa", "hi")));
+    }
+}
@@ -0,0 +1,186 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TweetSnapshotTest {
+
+    /*
+     * Testing strategy for TweetSnapshot:
+     *
+     * Write a list, read it back, and compare every field of every tweet.
+     * Partition the inputs as follows:
+     * - tweets.size(): 0, 1, >1
+     * - authors: all distinct, repeated, same name in different cases
+     * - text: empty, ASCII, non-ASCII, supplementary characters
+     * - timestamp: before and after the epoch, with and without nanoseconds
+     * - list: RandomAccess, LinkedList
+     * - file: not a snapshot, truncated snapshot, negative section length,
+     *   author id out of range, text offsets decreasing or past the texts,
+     *   author offsets decreasing; by read() and readStore()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("1969-07-20T20:17:40.123456789Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertSameTweets(List<Tweet> expected, List<Tweet> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Tweet e = expected.get(i);
+            Tweet a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getAuthor(), a.getAuthor());
+            assertEquals(e.getText(), a.getText());
+            assertEquals(e.getTimestamp(), a.getTimestamp());
+        }
+    }
+
+    private List<Tweet> roundTrip(List<Tweet> tweets) throws IOException {
+        Path path = folder.newFile().toPath();
+        TweetSnapshot.write(tweets, path);
+        return TweetSnapshot.read(path);
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyList() throws IOException {
+        assertTrue(roundTrip(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testMixedTweets() throws IOException {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1),
+                new Tweet(-2, "bbitdiddle", "", d2),
+                new Tweet(Long.MAX_VALUE, "Alyssa", "café ☃ 😀 @bbitdiddle", d1),
+                new Tweet(4, "alyssa", "again", d2));
+
+        assertSameTweets(tweets, roundTrip(tweets));
+    }
+
+    @Test
+    public void testManyTweets() throws IOException {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            tweets.add(new Tweet(i, "user" + (i % 31), "tweet " + i + " é".repeat(i % 5), d1.plusSeconds(i)));
+        }
+
+        assertSameTweets(tweets, roundTrip(tweets));
+    }
+
+    @Test
+    public void testLinkedList() throws IOException {
+        List<Tweet> tweets = new LinkedList<>();
+        for (int i = 0; i < 1_000; i++) {
+            tweets.add(new Tweet(i, "user" + (i % 7), "linked " + i, d1));
+        }
+
+        assertSameTweets(tweets, roundTrip(tweets));
+    }
+
+    @Test(expected=IOException.class)
+    public void testNotASnapshot() throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, "[{\"id\": 1}]                ".getBytes());
+        TweetSnapshot.read(path);
+    }
+
+    @Test(expected=IOException.class)
+    public void testTruncatedSnapshot() throws IOException {
+        Path path = folder.newFile().toPath();
+        TweetSnapshot.write(Arrays.asList(new Tweet(1, "alyssa", "hello there", d1)), path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+        TweetSnapshot.read(path);
+    }
+
+    @Test(expected=IOException.class)
+    public void testNegativeAuthorBytes() throws IOException {
+        Path path = folder.newFile().toPath();
+        TweetSnapshot.write(Arrays.asList(new Tweet(1, "alyssa", "hello there", d1)), path);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        // header, one id, second, nano and author id, then the author offsets 0 and 6
+        int authorBytesAt = 16 + 8 + 8 + 4 + 4 + 4;
+        assertEquals(6, bytes.getInt(authorBytesAt));
+        // shrink the authors by 11 bytes and grow the texts to match
+        bytes.putInt(authorBytesAt, -5);
+        bytes.putLong(bytes.capacity() - 8, 11 + 11);
+        Files.write(path, bytes.array());
+        TweetSnapshot.read(path);
+    }
+
+    /*
+     * Write a snapshot of two tweets by different authors, corrupt it, and
+     * check that both readers reject it.
+     */
+    private void assertCorruptRejected(Consumer<ByteBuffer> corrupt) throws IOException {
+        Path path = folder.newFile().toPath();
+        TweetSnapshot.write(Arrays.asList(new Tweet(1, "alyssa", "hello there", d1),
+                                          new Tweet(2, "bbitdiddle", "hi", d1)), path);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        corrupt.accept(bytes);
+        Files.write(path, bytes.array());
+        try {
+            TweetSnapshot.read(path);
+            fail("read() accepted a corrupt snapshot");
+        } catch (IOException e) {
+            // expected
+        }
+        try {
+            TweetSnapshot.readStore(path);
+            fail("readStore() accepted a corrupt snapshot");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    // layout of the two-tweet snapshot: header, 2 ids, 2 seconds, 2 nanos, then
+    private static final int AUTHOR_IDS_AT = 16 + 2 * 8 + 2 * 8 + 2 * 4;
+    private static final int AUTHOR_OFFSETS_AT = AUTHOR_IDS_AT + 2 * 4;
+
+    @Test
+    public void testAuthorIdOutOfRange() throws IOException {
+        assertCorruptRejected(bytes -> bytes.putInt(AUTHOR_IDS_AT + 4, 2));
+        assertCorruptRejected(bytes -> bytes.putInt(AUTHOR_IDS_AT, -1));
+    }
+
+    @Test
+    public void testBadTextOffsets() throws IOException {
+        // offsets 0, 11, 13 at the end of the file
+        assertCorruptRejected(bytes -> bytes.putLong(bytes.capacity() - 16, 14));
+        assertCorruptRejected(bytes -> bytes.putLong(bytes.capacity() - 16, -1));
+        assertCorruptRejected(bytes -> bytes.putLong(bytes.capacity() - 24, 12));
+    }
+
+    @Test
+    public void testBadAuthorOffsets() throws IOException {
+        // offsets 0, 6, 16
+        assertCorruptRejected(bytes -> bytes.putInt(AUTHOR_OFFSETS_AT + 4, 17));
+        assertCorruptRejected(bytes -> bytes.putInt(AUTHOR_OFFSETS_AT, -3));
+    }
+}
@@ -0,0 +1,259 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TweetStoreTest {
+
+    /*
+     * Testing strategy for TweetStore:
+     *
+     * Partition the inputs as follows:
+     * - size: 0, 1, more than the builder's initial capacity
+     * - authors: distinct, repeated, same name in different cases
+     * - text: empty, ASCII, non-ASCII, supplementary characters
+     * - access: get(), column accessors, textView(), out of range
+     * - use: as the list argument of Extract, Filter and SocialNetwork, compared
+     *   with the same tweets in an ArrayList
+     * - source: of(), Builder, TweetSnapshot.readStore()
+     * - text storage: heap, off-heap direct buffers, memory-mapped file;
+     *   texts filling one page, many growing pages, a text longer than a page,
+     *   an empty text after a text longer than the largest page
+     * - off-heap text: ASCII, 2- and 3-byte UTF-8, surrogate pairs, unpaired
+     *   surrogates; views read forwards, backwards, and through subSequence();
+     *   long texts read in random order
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "is it reasonable to talk about @bbitdiddle so much?", d1),
+            new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1.plusSeconds(3600)),
+            new Tweet(3, "Alyssa", "café ☃ 😀 @Alyssa @evalu", d1.plusNanos(5)),
+            new Tweet(4, "alyssa", "", d1.minusSeconds(60)));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertSameTweets(List<Tweet> expected, List<Tweet> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getAuthor(), actual.get(i).getAuthor());
+            assertEquals(expected.get(i).getText(), actual.get(i).getText());
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TweetStore store = TweetStore.of(Collections.emptyList());
+
+        assertTrue(store.isEmpty());
+        assertTrue(store.authors().isEmpty());
+    }
+
+    @Test
+    public void testColumns() {
+        TweetStore store = TweetStore.of(TWEETS);
+
+        assertSameTweets(TWEETS, store);
+        assertEquals(Arrays.asList("alyssa", "bbitdiddle", "Alyssa"), store.authors());
+        assertEquals(0, store.authorId(3));
+        assertEquals(3, store.id(2));
+        assertEquals("Alyssa", store.author(2));
+        assertEquals(d1.getEpochSecond() - 60, store.epochSecond(3));
+        assertEquals(d1.plusNanos(5), store.timestamp(2));
+        assertEquals("café ☃ 😀 @Alyssa @evalu", store.text(2));
+        assertEquals(TWEETS, store);
+    }
+
+    @Test
+    public void testTextView() {
+        TweetStore store = TweetStore.of(TWEETS);
+        CharSequence view = store.textView(2);
+
+        assertEquals(TWEETS.get(2).getText().length(), view.length());
+        assertEquals('é', view.charAt(3));
+        assertEquals("☃", view.subSequence(5, 6).toString());
+        assertEquals(TWEETS.get(2).getText(), view.toString());
+        assertEquals(0, store.textView(3).length());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testGetOutOfRange() {
+        TweetStore.of(TWEETS).get(4);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testImmutable() {
+        TweetStore.of(TWEETS).add(TWEETS.get(0));
+    }
+
+    @Test
+    public void testManyTweets() {
+        TweetStore.Builder builder = new TweetStore.Builder();
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Tweet tweet = new Tweet(i, "user" + (i % 7), "tweet " + i + " @user" + (i % 11), d1.plusSeconds(i));
+            tweets.add(tweet);
+            builder.add(tweet);
+        }
+
+        assertSameTweets(tweets, builder.build());
+    }
+
+    @Test
+    public void testTextsLongerThanFirstPage() throws IOException {
+        List<Tweet> tweets = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            text.append(i % 2 == 0 ? "grow " : "grüß ").append(i).append(' ');
+            tweets.add(new Tweet(i, "alyssa", text.toString(), d1));
+        }
+        List<TweetStore.Builder> builders = Arrays.asList(
+                new TweetStore.Builder(1),
+                new TweetStore.Builder(1).offHeapTexts(),
+                new TweetStore.Builder(1).mappedTexts(folder.newFile().toPath()));
+        for (TweetStore.Builder builder : builders) {
+            tweets.forEach(builder::add);
+
+            assertSameTweets(tweets, builder.build());
+        }
+    }
+
+    @Test
+    public void testEmptyTextAfterFullPage() throws IOException {
+        // a text longer than the largest page, which leaves its page over-full
+        char[] chars = new char[(1 << 24) + 1];
+        Arrays.fill(chars, 'a');
+        String longText = new String(chars);
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", longText, d1),
+                new Tweet(2, "alyssa", "", d1));
+        List<TweetStore.Builder> builders = Arrays.asList(
+                new TweetStore.Builder(1),
+                new TweetStore.Builder(1).offHeapTexts(),
+                new TweetStore.Builder(1).mappedTexts(folder.newFile().toPath()));
+        for (TweetStore.Builder builder : builders) {
+            tweets.forEach(builder::add);
+            TweetStore store = builder.build();
+
+            assertEquals(longText.length(), store.textView(0).length());
+            assertEquals("", store.get(1).getText());
+        }
+    }
+
+    @Test
+    public void testAcceptedByExistingOperations() {
+        TweetStore store = TweetStore.of(TWEETS);
+        Timespan span = new Timespan(d1, d1.plusSeconds(3600));
+
+        assertEquals(Extract.getTimespan(TWEETS), Extract.getTimespan(store));
+        assertEquals(Extract.getMentionedUsers(TWEETS), Extract.getMentionedUsers(store));
+        assertEquals(Filter.writtenBy(TWEETS, "ALYSSA"), Filter.writtenBy(store, "ALYSSA"));
+        assertEquals(Filter.inTimespan(TWEETS, span), Filter.inTimespan(store, span));
+        assertEquals(Filter.containing(TWEETS, Arrays.asList("talk")), Filter.containing(store, Arrays.asList("talk")));
+        assertEquals(SocialNetwork.guessFollowsGraph(TWEETS), SocialNetwork.guessFollowsGraph(store));
+    }
+
+    @Test
+    public void testReadStoreFromSnapshot() throws IOException {
+        Path path = folder.newFile().toPath();
+        TweetSnapshot.write(TWEETS, path);
+
+        TweetStore store = TweetSnapshot.readStore(path);
+
+        assertSameTweets(TWEETS, store);
+    }
+
+    private static final List<Tweet> UNICODE_TWEETS = Arrays.asList(
+            new Tweet(10, "alyssa", "plain ascii @bbitdiddle talk", d1),
+            new Tweet(11, "bbitdiddle", "ß ü \u20ac 😀😀 @Alyssa\tTALK", d1),
+            new Tweet(12, "evalu", "lone \ud83d and \ude00 surrogates", d1),
+            new Tweet(13, "evalu", "", d1));
+
+    private static void assertSameTexts(List<Tweet> expected, TweetStore store) {
+        assertSameTweets(expected, store);
+        for (int i = 0; i < expected.size(); i++) {
+            String text = expected.get(i).getText();
+            CharSequence view = store.textView(i);
+            assertEquals(text.length(), view.length());
+            for (int j = text.length() - 1; j >= 0; j--) {
+                assertEquals(text.charAt(j), view.charAt(j));
+            }
+            if (text.length() > 2) {
+                assertEquals(text.substring(1, text.length() - 1), view.subSequence(1, text.length() - 1).toString());
+            }
+        }
+    }
+
+    @Test
+    public void testOffHeapTexts() {
+        TweetStore.Builder builder = new TweetStore.Builder().offHeapTexts();
+        UNICODE_TWEETS.forEach(builder::add);
+        TweetStore store = builder.build();
+
+        assertSameTexts(UNICODE_TWEETS, store);
+        assertEquals(Extract.getMentionedUsers(UNICODE_TWEETS), Extract.getMentionedUsers(store));
+        assertEquals(Filter.containing(UNICODE_TWEETS, Arrays.asList("talk", "\u20ac")),
+                     Filter.containing(store, Arrays.asList("talk", "\u20ac")));
+    }
+
+    @Test
+    public void testOffHeapRandomAccess() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            text.append(i % 3 == 0 ? "😀" : i % 3 == 1 ? "ß" : "a");
+        }
+        String expected = text.toString();
+        TweetStore store = new TweetStore.Builder().offHeapTexts().add(new Tweet(1, "alyssa", expected, d1)).build();
+        CharSequence view = store.textView(0);
+
+        Random random = new Random(6005);
+        for (int i = 0; i < 10_000; i++) {
+            int index = random.nextInt(expected.length());
+            assertEquals(expected.charAt(index), view.charAt(index));
+        }
+        for (int i = expected.length() - 1; i >= 0; i--) {
+            assertEquals(expected.charAt(i), view.charAt(i));
+        }
+    }
+
+    @Test
+    public void testMappedTexts() throws IOException {
+        TweetStore.Builder builder = new TweetStore.Builder().mappedTexts(folder.newFile().toPath());
+        List<Tweet> tweets = new ArrayList<>(UNICODE_TWEETS);
+        for (int i = 0; i < 1_000; i++) {
+            tweets.add(new Tweet(100 + i, "user", "mapped tweet " + i + " ☃", d1));
+        }
+        tweets.forEach(builder::add);
+
+        assertSameTexts(tweets, builder.build());
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testTextStorageChosenLate() {
+        new TweetStore.Builder().add(TWEETS.get(0)).offHeapTexts();
+    }
+}
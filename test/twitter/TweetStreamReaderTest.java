@@ -0,0 +1,160 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+public class TweetStreamReaderTest {
+
+    /*
+     * Testing strategy for TweetStreamReader:
+     *
+     * Partition the inputs as follows:
+     * - number of tweets in the array: 0, 1, >1
+     * - screen name: flat "user.screen_name" key, nested "user" object
+     * - other members: none, scalars, nested objects, arrays, objects inside arrays
+     *   (including keys that collide with needed keys, like a nested "id")
+     * - field order: needed fields first, needed fields last
+     * - malformed input: not an array, missing field, truncated
+     * - access: iterator, callback
+     *
+     * readFields():
+     * - key paths: top-level, nested, flat dotted key, prefix of another path,
+     *   naming an object or array, absent from the object
+     * - value types: string, number, true/false/null
+     */
+
+    private static final String TWEET1 = "{\"id\": 1, \"user.screen_name\": \"alyssa\", "
+            + "\"text\": \"is it reasonable to talk about rivest so much?\", "
+            + "\"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    private static final String TWEET2 = "{\"entities\": {\"id\": 99, \"hashtags\": [{\"text\": \"hype\"}]}, "
+            + "\"retweeted\": false, \"coordinates\": null, "
+            + "\"user\": {\"id\": 7, \"screen_name\": \"bbitdiddle\", \"name\": \"Ben\"}, "
+            + "\"contributors\": [1, [2, 3], {\"text\": \"nope\"}], "
+            + "\"created_at\": \"Wed Feb 17 06:00:00 -0500 2016\", "
+            + "\"text\": \"rivest talk in 30 minutes #hype\", \"id\": 2}";
+
+    private static List<Tweet> read(String json) {
+        List<Tweet> tweets = new ArrayList<>();
+        TweetStreamReader.readTweets(new StringReader(json), tweets::add);
+        return tweets;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyArray() {
+        assertTrue(read("[ ]").isEmpty());
+    }
+
+    @Test
+    public void testFlatScreenName() {
+        List<Tweet> tweets = read("[" + TWEET1 + "]");
+
+        assertEquals(1, tweets.size());
+        Tweet tweet = tweets.get(0);
+        assertEquals(1, tweet.getId());
+        assertEquals("alyssa", tweet.getAuthor());
+        assertEquals("is it reasonable to talk about rivest so much?", tweet.getText());
+        assertEquals(Instant.parse("2016-02-17T10:00:00Z"), tweet.getTimestamp());
+    }
+
+    @Test
+    public void testNestedUserAndSkippedMembers() {
+        List<Tweet> tweets = read("[" + TWEET2 + "]");
+
+        assertEquals(1, tweets.size());
+        Tweet tweet = tweets.get(0);
+        assertEquals(2, tweet.getId());
+        assertEquals("bbitdiddle", tweet.getAuthor());
+        assertEquals("rivest talk in 30 minutes #hype", tweet.getText());
+        assertEquals(Instant.parse("2016-02-17T11:00:00Z"), tweet.getTimestamp());
+    }
+
+    @Test
+    public void testIteratorKeepsOrder() {
+        try (TweetStreamReader reader = new TweetStreamReader(new StringReader("[" + TWEET2 + "," + TWEET1 + "]"))) {
+            assertTrue(reader.hasNext());
+            assertTrue(reader.hasNext());
+            assertEquals(2, reader.next().getId());
+            assertEquals(1, reader.next().getId());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testNextPastEnd() {
+        try (TweetStreamReader reader = new TweetStreamReader(new StringReader("[]"))) {
+            reader.next();
+        }
+    }
+
+    @Test(expected=JsonException.class)
+    public void testNotAnArray() {
+        read(TWEET1);
+    }
+
+    @Test(expected=JsonException.class)
+    public void testMissingField() {
+        read("[{\"id\": 1, \"text\": \"hi\", \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}]");
+    }
+
+    @Test(expected=JsonException.class)
+    public void testTruncated() {
+        read("[" + TWEET1 + ", {\"id\": 3");
+    }
+
+    @Test
+    public void testReadFieldsProjection() {
+        List<Map<String, String>> rows = new ArrayList<>();
+        TweetStreamReader.readFields(new StringReader("[" + TWEET1 + "," + TWEET2 + "]"),
+                TweetProjection.of("id", "user.screen_name", "user.id", "retweeted", "coordinates",
+                                   "entities", "contributors", "entities.hashtags"),
+                rows::add);
+
+        assertEquals(2, rows.size());
+        assertEquals("1", rows.get(0).get("id"));
+        assertEquals("alyssa", rows.get(0).get("user.screen_name"));
+        assertEquals(2, rows.get(0).size());
+
+        Map<String, String> second = rows.get(1);
+        assertEquals("2", second.get("id"));
+        assertEquals("bbitdiddle", second.get("user.screen_name"));
+        assertEquals("7", second.get("user.id"));
+        assertEquals("FALSE", second.get("retweeted"));
+        assertEquals("NULL", second.get("coordinates"));
+        assertFalse("objects are not values", second.containsKey("entities"));
+        assertFalse("arrays are not values", second.containsKey("contributors"));
+        assertFalse("members inside arrays are not matched", second.containsKey("entities.hashtags"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testProjectionMalformedKeyPath() {
+        TweetProjection.of("user..screen_name");
+    }
+
+    @Test
+    public void testProjectionSlots() {
+        TweetProjection projection = TweetProjection.of("text", "user.screen_name");
+
+        assertEquals(Arrays.asList("text", "user.screen_name"), projection.keyPaths());
+        assertEquals(1, projection.slot("user.screen_name"));
+        assertEquals(-1, projection.slot("user"));
+    }
+}
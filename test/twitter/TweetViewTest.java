@@ -0,0 +1,145 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetViewTest {
+
+    /*
+     * Testing strategy for TweetView:
+     *
+     * Partition the inputs as follows:
+     * - conditions: none, one, several chained
+     * - tweets in view: none, some, all
+     * - operation: stream(), iterator(), anyMatch(), count(), first(),
+     *   toList(); short-circuiting ones with an early match
+     * - list changed after the view is made
+     * - random lists and chains, compared with Filter's methods applied in turn
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1),
+            new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2),
+            new Tweet(3, "Alyssa", "spam", d2));
+
+    /*
+     * A list that counts how many times its elements are read.
+     */
+    private static class CountingList extends AbstractList<Tweet> {
+        private final List<Tweet> tweets;
+        int reads = 0;
+
+        CountingList(List<Tweet> tweets) {
+            this.tweets = tweets;
+        }
+
+        @Override public Tweet get(int index) {
+            reads++;
+            return tweets.get(index);
+        }
+
+        @Override public int size() {
+            return tweets.size();
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNoConditions() {
+        TweetView view = TweetView.of(TWEETS);
+
+        assertEquals(TWEETS, view.toList());
+        assertEquals(3, view.count());
+        assertEquals(Collections.emptyList(), TweetView.of(Collections.emptyList()).toList());
+        assertFalse(TweetView.of(Collections.emptyList()).anyMatch());
+    }
+
+    @Test
+    public void testChained() {
+        TweetView view = TweetView.of(TWEETS).writtenBy("ALYSSA").inTimespan(new Timespan(d2, d2));
+
+        assertEquals(TWEETS.subList(2, 3), view.toList());
+        assertTrue(view.anyMatch());
+        assertEquals(0, view.containing(Arrays.asList("talk")).count());
+        List<Tweet> iterated = new ArrayList<>();
+        for (Tweet tweet : TweetView.of(TWEETS).containing(Arrays.asList("RIVEST"))) {
+            iterated.add(tweet);
+        }
+        assertEquals(TWEETS.subList(0, 2), iterated);
+    }
+
+    @Test
+    public void testShortCircuits() {
+        List<Tweet> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            many.add(new Tweet(i, i % 2 == 0 ? "alyssa" : "bbitdiddle", "text", d1));
+        }
+        CountingList counted = new CountingList(many);
+        TweetView view = TweetView.of(counted).writtenBy("bbitdiddle");
+
+        assertTrue(view.anyMatch());
+        assertTrue("read " + counted.reads, counted.reads <= 2);
+
+        counted.reads = 0;
+        assertEquals(Arrays.asList(many.get(1), many.get(3), many.get(5)), view.first(3));
+        assertTrue("read " + counted.reads, counted.reads <= 6);
+
+        counted.reads = 0;
+        assertEquals(many.get(1), view.iterator().next());
+        assertTrue("read " + counted.reads, counted.reads <= 2);
+    }
+
+    @Test
+    public void testSeesChanges() {
+        List<Tweet> tweets = new ArrayList<>(TWEETS);
+        TweetView view = TweetView.of(tweets).writtenBy("bbitdiddle");
+
+        tweets.remove(1);
+
+        assertFalse(view.anyMatch());
+    }
+
+    @Test
+    public void testSameAsFilter() {
+        String[] authors = { "a", "b", "C" };
+        String[] vocabulary = { "x", "y", "Z", "w" };
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String text = vocabulary[random.nextInt(vocabulary.length)] + " " + vocabulary[random.nextInt(vocabulary.length)];
+            tweets.add(new Tweet(i, authors[random.nextInt(authors.length)], text, d1.plusSeconds(random.nextInt(100))));
+        }
+
+        for (int trial = 0; trial < 50; trial++) {
+            String author = authors[random.nextInt(authors.length)];
+            Instant start = d1.plusSeconds(random.nextInt(100));
+            Timespan timespan = new Timespan(start, start.plusSeconds(random.nextInt(50)));
+            List<String> words = Arrays.asList(vocabulary[random.nextInt(vocabulary.length)]);
+
+            List<Tweet> expected = Filter.containing(Filter.inTimespan(Filter.writtenBy(tweets, author), timespan), words);
+            TweetView view = TweetView.of(tweets).inTimespan(timespan).containing(words).writtenBy(author);
+            assertEquals(expected, view.toList());
+            assertEquals(expected.size(), view.count());
+            assertEquals(!expected.isEmpty(), view.anyMatch());
+        }
+    }
+}
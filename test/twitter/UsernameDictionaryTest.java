@@ -0,0 +1,190 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class UsernameDictionaryTest {
+
+    /*
+     * Testing strategy for UsernameDictionary:
+     *
+     * Partition the inputs as follows:
+     * - username: new, already interned, same name in a different case
+     * - characters: lowercase, uppercase, digits, '_' and '-', non-ASCII
+     * - intern(text, start, end): whole text, range inside a longer text, empty range
+     * - find(): interned, not interned
+     * - size: 0, 1, enough to make the table grow
+     * - sameUsername(): same name in a different case, different length,
+     *   same length but different, non-ASCII
+     *
+     * The id-based variants of Extract.getMentionedUsers(), Filter.writtenBy()
+     * and SocialNetwork.guessFollowsGraph() are tested here, so that those
+     * classes' own tests only use their specs:
+     * - tweets: plain list, TweetStore with authors differing in case
+     * - ids: shared dictionary already holding some names, fresh dictionary
+     * - mentions: none, self-mention, same user in different cases
+     * - writtenBy(): author ids from Extract.getAuthorIds(), of the wrong length
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> TWEETS = Arrays.asList(
+            new Tweet(1, "alyssa", "talk to @BBitdiddle and @alyssa", d1),
+            new Tweet(2, "BBitDiddle", "rivest talk in 30 minutes, @Alyssa", d1),
+            new Tweet(3, "Alyssa", "email me at alyssa@mit.edu or @bbitdiddle", d1),
+            new Tweet(4, "evalu", "no mentions", d1));
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        UsernameDictionary usernames = new UsernameDictionary();
+
+        assertEquals(0, usernames.size());
+        assertEquals(-1, usernames.find("alyssa"));
+        assertTrue(usernames.names().isEmpty());
+    }
+
+    @Test
+    public void testInternCaseInsensitive() {
+        UsernameDictionary usernames = new UsernameDictionary();
+
+        assertEquals(0, usernames.intern("Alyssa"));
+        assertEquals(1, usernames.intern("bit_diddle-9"));
+        assertEquals(0, usernames.intern("ALYSSA"));
+        assertEquals(0, usernames.find("alyssa"));
+        assertEquals(1, usernames.find("BIT_DIDDLE-9"));
+        assertEquals(-1, usernames.find("alyss"));
+        assertEquals(2, usernames.size());
+        assertEquals("alyssa", usernames.name(0));
+        assertEquals(Arrays.asList("alyssa", "bit_diddle-9"), usernames.names());
+    }
+
+    @Test
+    public void testInternRange() {
+        UsernameDictionary usernames = new UsernameDictionary();
+        String text = "talk to @Alyssa now";
+
+        int id = usernames.intern(text, 9, 15);
+
+        assertEquals(id, usernames.intern("alyssa"));
+        assertEquals("alyssa", usernames.name(id));
+        assertEquals("", usernames.name(usernames.intern(text, 4, 4)));
+    }
+
+    @Test
+    public void testInternNonAscii() {
+        UsernameDictionary usernames = new UsernameDictionary();
+
+        int id = usernames.intern("CAFÉ");
+
+        assertEquals(id, usernames.intern("café"));
+        assertEquals(id, usernames.find("Café"));
+        assertEquals("café", usernames.name(id));
+        assertNotEquals(id, usernames.intern("cafe"));
+    }
+
+    @Test
+    public void testGrowth() {
+        UsernameDictionary usernames = new UsernameDictionary();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, usernames.intern("User" + i));
+        }
+
+        assertEquals(1000, usernames.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, usernames.find("USER" + i));
+            assertEquals("user" + i, usernames.name(i));
+        }
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testNameOutOfRange() {
+        new UsernameDictionary().name(0);
+    }
+
+    @Test
+    public void testSameUsername() {
+        String canonical = UsernameDictionary.canonical("BBit_Diddle-1");
+
+        assertEquals("bbit_diddle-1", canonical);
+        assertTrue(UsernameDictionary.sameUsername(canonical, "bbit_DIDDLE-1"));
+        assertFalse(UsernameDictionary.sameUsername(canonical, "bbit_diddle"));
+        assertFalse(UsernameDictionary.sameUsername(canonical, "bbit_diddle-2"));
+        assertTrue(UsernameDictionary.sameUsername(UsernameDictionary.canonical("ÉVALU"), "évalu"));
+        assertFalse(UsernameDictionary.sameUsername(canonical, "bbit_diddlé-1"));
+    }
+
+    @Test
+    public void testGetMentionedUserIds() {
+        for (List<Tweet> tweets : Arrays.asList(TWEETS, TweetStore.of(TWEETS))) {
+            UsernameDictionary usernames = new UsernameDictionary();
+            int rivest = usernames.intern("rivest");
+
+            BitSet mentioned = Extract.getMentionedUserIds(tweets, usernames);
+
+            assertEquals(bits(usernames.find("bbitdiddle"), usernames.find("alyssa")), mentioned);
+            assertFalse(mentioned.get(rivest));
+        }
+    }
+
+    @Test
+    public void testWrittenByUserId() {
+        for (List<Tweet> tweets : Arrays.asList(TWEETS, TweetStore.of(TWEETS))) {
+            UsernameDictionary usernames = new UsernameDictionary();
+            int[] authorIds = Extract.getAuthorIds(tweets, usernames);
+            int size = usernames.size();
+
+            List<Tweet> written = Filter.writtenBy(tweets, authorIds, usernames.find("ALYSSA"));
+
+            assertEquals(2, written.size());
+            assertEquals(1, written.get(0).getId());
+            assertEquals(3, written.get(1).getId());
+            assertTrue(Filter.writtenBy(tweets, authorIds, usernames.intern("rivest")).isEmpty());
+            assertEquals("queries intern nothing", size + 1, usernames.size());
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWrittenByWrongAuthorIds() {
+        Filter.writtenBy(TWEETS, new int[TWEETS.size() - 1], 0);
+    }
+
+    @Test
+    public void testGuessFollowsGraphIds() {
+        for (List<Tweet> tweets : Arrays.asList(TWEETS, TweetStore.of(TWEETS))) {
+            UsernameDictionary usernames = new UsernameDictionary();
+
+            Map<Integer, IdSet> graph = SocialNetwork.guessFollowsGraph(tweets, usernames);
+
+            int alyssa = usernames.find("alyssa");
+            int bbitdiddle = usernames.find("bbitdiddle");
+            int evalu = usernames.find("evalu");
+            assertEquals(3, graph.size());
+            assertEquals(IdSet.of(bbitdiddle), graph.get(alyssa));
+            assertEquals(IdSet.of(alyssa), graph.get(bbitdiddle));
+            assertEquals(IdSet.of(), graph.get(evalu));
+        }
+    }
+}
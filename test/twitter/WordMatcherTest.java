@@ -0,0 +1,142 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class WordMatcherTest {
+
+    /*
+     * Testing strategy for WordMatcher:
+     *
+     * Partition the inputs as follows:
+     * - terms: none, one, many; same term twice or in different cases; one
+     *   term a prefix of another
+     * - text: empty, only spaces; words that are terms, prefixes of terms,
+     *   extensions of terms; term repeated; terms in another case; capital
+     *   sigma and dotted I
+     * - list: ArrayList, TweetStore
+     * - onWord(): sharing a TextAnalyzer's scan with a mention consumer
+     * - words split on Unicode spaces that are not \s, as by TextAnalyzer
+     * - many random terms and texts, compared with Filter.containing()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNoTerms() {
+        WordMatcher matcher = WordMatcher.compile(Collections.emptyList());
+
+        assertEquals(0, matcher.termCount());
+        assertFalse(matcher.matches("any text at all"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    public void testTerms() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("Talk", "TALK", "talking", "rivest"));
+
+        assertEquals(3, matcher.termCount());
+        assertEquals(0, matcher.termAt("talk", 0, 4));
+        assertEquals("talking", matcher.term(matcher.termAt("TALKING", 0, 7)));
+        assertEquals(-1, matcher.termAt("talki", 0, 5));
+        assertEquals(-1, matcher.termAt("talks", 0, 5));
+        assertEquals(-1, matcher.termAt("", 0, 0));
+    }
+
+    @Test
+    public void testMatches() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("talk", "rivest", "ΟΔΟΣ", "İz"));
+
+        assertTrue(matcher.matches("  Talk\tabout it"));
+        assertTrue(matcher.matches("about RIVEST"));
+        assertFalse(matcher.matches("talks about rivest's #talk"));
+        assertFalse(matcher.matches("   "));
+        assertTrue(matcher.matches("the οδος"));
+        assertTrue(matcher.matches("İZ"));
+        assertFalse(matcher.matches("iz"));
+    }
+
+    @Test
+    public void testMatchingTerms() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("talk", "Rivest", "hype"));
+        List<Integer> ids = new ArrayList<>();
+
+        matcher.match("talk rivest TALK hyped", ids::add);
+
+        assertEquals(Arrays.asList(0, 1, 0), ids);
+        assertEquals(new HashSet<>(Arrays.asList("talk", "rivest")), matcher.matchingTerms("talk rivest TALK hyped"));
+        assertEquals(Collections.emptySet(), matcher.matchingTerms("nothing here"));
+    }
+
+    @Test
+    public void testSharedAnalyzer() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("talk", "@rivest"));
+        List<Integer> ids = new ArrayList<>();
+        List<String> mentions = new ArrayList<>();
+        TextAnalyzer analyzer = new TextAnalyzer()
+                .onWord(matcher.onWord(ids::add))
+                .onMention((text, start, end) -> mentions.add(text.subSequence(start, end).toString()));
+
+        analyzer.analyze("TALK to @Rivest now @rivest");
+
+        assertEquals(Arrays.asList(0, 1, 1), ids);
+        assertEquals(Arrays.asList("Rivest", "rivest"), mentions);
+    }
+
+    @Test
+    public void testSameWordsAsTextAnalyzer() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("talk", "talk\u00A0now", "now"));
+
+        assertEquals(Collections.singleton("talk\u00A0now"), matcher.matchingTerms("talk\u00A0now"));
+        assertEquals(new HashSet<>(Arrays.asList("talk", "now")), matcher.matchingTerms("talk\u000Bnow"));
+    }
+
+    @Test
+    public void testSameAsFilter() {
+        Random random = new Random(6005);
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            terms.add(randomWord(random));
+        }
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int k = random.nextInt(6); k > 0; k--) {
+                text.append(randomWord(random)).append(random.nextBoolean() ? " " : "\t ");
+            }
+            tweets.add(new Tweet(i, "a", text.toString(), d1));
+        }
+        WordMatcher matcher = WordMatcher.compile(terms);
+
+        List<Tweet> expected = Filter.containing(tweets, terms);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, matcher.containing(tweets));
+        assertEquals(expected, matcher.containing(TweetStore.of(tweets)));
+    }
+
+    private static String randomWord(Random random) {
+        String letters = "abcABCΣσé";
+        StringBuilder word = new StringBuilder();
+        for (int k = random.nextInt(5) + 1; k > 0; k--) {
+            word.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,147 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class WordSetTest {
+
+    /*
+     * Testing strategy for WordSet:
+     *
+     * Partition the inputs as follows:
+     * - words: none, one, many; same word twice or in different cases
+     * - looked-up word: in the set, not in the set; in the set's case or
+     *   another; a span of a longer text; empty
+     * - characters: ASCII, non-ASCII with a one-char lowercase, capital
+     *   sigma, capital dotted I, supplementary characters
+     * - default locale: English, Turkish
+     * - random texts with ASCII and Unicode whitespace, compared with the
+     *   original Filter.containing(), which lower-cased each text and split
+     *   it on \s+
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final String[] PIECES = {
+        "a", "A", "b", "B", "i", "I", "İ", "ı", "Σ", "σ", "ς",
+        "É", "é", "𐐀", "𐐨", "#", "@",
+        " ", " ", "\t", "\n", "\u000B", "\f", "\r", " ", " ", "　", "\u0085", "\u001C",
+    };
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        WordSet set = new WordSet(Collections.emptyList());
+
+        assertEquals(0, set.size());
+        assertFalse(set.contains("talk"));
+        assertFalse(set.contains(""));
+    }
+
+    @Test
+    public void testContains() {
+        WordSet set = new WordSet(Arrays.asList("Talk", "TALK", "rivest", "Été"));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains("talk"));
+        assertTrue(set.contains("RiVeSt"));
+        assertTrue(set.contains("éTÉ"));
+        assertFalse(set.contains("talks"));
+        assertTrue(set.contains("about rivest today", 6, 12));
+        assertFalse(set.contains("about rivest today", 6, 11));
+    }
+
+    @Test
+    public void testSpecialLowercase() {
+        WordSet set = new WordSet(Arrays.asList("İstanbul", "ΟΔΟΣ", "𐐀"));
+
+        assertTrue(set.contains("İSTANBUL"));
+        assertFalse(set.contains("istanbul"));
+        assertTrue(set.contains("οδος"));
+        assertTrue(set.contains("ΟΔΟΣ"));
+        assertTrue(set.contains("𐐨"));
+    }
+
+    @Test
+    public void testTurkishLocale() {
+        Locale saved = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            WordSet set = new WordSet(Arrays.asList("TITLE"));
+
+            assertTrue(set.contains("tıtle"));
+            assertFalse(set.contains("title"));
+            assertTrue(set.contains(" TItle ", 1, 6));
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+
+    @Test
+    public void testSameAsOriginalContaining() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tweets.add(new Tweet(i, "a", randomText(random, 12), d1));
+        }
+        for (int q = 0; q < 300; q++) {
+            List<String> words = new ArrayList<>();
+            int count = random.nextInt(3) + 1;
+            while (words.size() < count) {
+                String word = randomText(random, 3).replaceAll("\\s", "");
+                if (!word.isEmpty()) { // words are nonempty, by containing()'s spec
+                    words.add(word);
+                }
+            }
+            assertEquals(words.toString(), originalContaining(tweets, words), Filter.containing(tweets, words));
+            assertEquals(words.toString(), originalContaining(tweets, words),
+                    Filter.containing(TweetStore.of(tweets), words));
+        }
+    }
+
+    private static String randomText(Random random, int maxPieces) {
+        StringBuilder text = new StringBuilder();
+        for (int k = random.nextInt(maxPieces) + 1; k > 0; k--) {
+            text.append(PIECES[random.nextInt(PIECES.length)]);
+        }
+        return text.toString();
+    }
+
+    /*
+     * Filter.containing() as first implemented.
+     */
+    private static List<Tweet> originalContaining(List<Tweet> tweets, List<String> words) {
+        List<Tweet> result = new ArrayList<>();
+        Set<String> lowered = new HashSet<>();
+        for (String w : words) {
+            lowered.add(w.toLowerCase());
+        }
+        for (Tweet t : tweets) {
+            for (String w : t.getText().toLowerCase().split("\\s+")) {
+                if (lowered.contains(w)) {
+                    result.add(t);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+}